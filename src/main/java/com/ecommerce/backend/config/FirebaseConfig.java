@@ -4,16 +4,22 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 
+/**
+ * Only needed by the Firebase push transport: with notifications.transport=simulated the app
+ * starts without the service-account JSON.
+ */
 @Configuration
+@ConditionalOnProperty(name = "notifications.transport", havingValue = "firebase", matchIfMissing = true)
 public class FirebaseConfig {
 
-    @Value("classpath:helloworld-a6508-firebase-adminsdk-fbsvc-b08ed5c9ce.json")
+    @Value("${firebase.service-account:classpath:helloworld-a6508-firebase-adminsdk-fbsvc-b08ed5c9ce.json}")
     private Resource serviceAccount;
 
     @Bean
@@ -0,0 +1,61 @@
+package com.ecommerce.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache backed by an in-process Caffeine JCache manager.
+ *
+ * Every region listed under hibernate.cache.regions.<region>.* is created up front with its own size
+ * and time-to-live, so the limits live in application.properties next to the rest of the JPA setup.
+ * Cached entities and collections are marked with @Cache(region = ...) on the model classes;
+ * query cache regions are named in the repository query hints.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Limits of one cache region. A ttl of 0 keeps entries until they are evicted or invalidated.
+     */
+    public record RegionSettings(long maxEntries, Duration ttl) {
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        Map<String, RegionSettings> regions = Binder.get(environment)
+                .bind("hibernate.cache.regions", Bindable.mapOf(String.class, RegionSettings.class))
+                .orElse(Map.of());
+        regions.forEach((region, settings) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStatisticsEnabled(true);
+            if (settings.maxEntries() > 0) {
+                configuration.setMaximumSize(OptionalLong.of(settings.maxEntries()));
+            }
+            if (settings.ttl() != null && !settings.ttl().isZero()) {
+                configuration.setExpireAfterWrite(OptionalLong.of(settings.ttl().toNanos()));
+            }
+            cacheManager.createCache(region, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
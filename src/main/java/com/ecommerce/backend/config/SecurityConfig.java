@@ -69,16 +69,33 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // Allow POST to the custom login endpoint to get the token
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/login").permitAll()
+                        // Sends (fan-outs to any number of tokens, registry-resolved audiences) and bulk
+                        // topic changes can reach every user: ADMIN only
+                        .requestMatchers(HttpMethod.POST, "/api/v1/notifications/send-to-device",
+                                "/api/v1/notifications/send-to-topic",
+                                "/api/v1/notifications/send-to-all",
+                                "/api/v1/notifications/send-to-user",
+                                "/api/v1/notifications/send-to-segment",
+                                "/api/v1/notifications/subscribe-batch",
+                                "/api/v1/notifications/unsubscribe-batch").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/notifications/scheduled/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/v1/notifications/**").permitAll()
 //                        .requestMatchers(HttpMethod.POST, "/api/v1/send-to-topic").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/google/login").permitAll()
                         .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
 
+                        // Administrative operations (maintenance jobs) require ADMIN role
+                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                        // Stock corrections bypass reservations: ADMIN only
+                        .requestMatchers("/api/v1/inventory/products/**").hasRole("ADMIN")
+
                         // --- Product Controller Authorization Rules ---
                         // POST/PUT/DELETE require ADMIN role
 //                        .requestMatchers(HttpMethod.POST, "/api/v1/products/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers(HttpMethod.POST, "/api/v1/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/v1/providers/**").hasRole("ADMIN")
+                        // Offboarding a provider removes all its products
+                        .requestMatchers(HttpMethod.DELETE, "/api/v1/providers/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/products/**").hasRole("ADMIN")
 
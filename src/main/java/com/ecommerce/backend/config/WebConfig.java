@@ -1,16 +1,25 @@
 package com.ecommerce.backend.config;
 
+import com.ecommerce.backend.storage.UploadKeyLayout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
 
 /**
  * Configuration class to set up a Resource Handler.
  * This maps the public URL prefix used in the ProviderController
  * to the actual directory on the file system where images are stored.
+ * Only active with the local storage backend; with S3 the StorageImageRedirectController
+ * answers "/images/**" instead.
  */
 @Configuration
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
 public class WebConfig implements WebMvcConfigurer {
 
     // Inject the base upload directory defined in application.properties.
@@ -18,6 +27,12 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload-base-dir}")
     private String uploadBaseDir;
 
+    private final UploadKeyLayout keyLayout;
+
+    public WebConfig(UploadKeyLayout keyLayout) {
+        this.keyLayout = keyLayout;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // The mapping URL (the public web path that clients request)
@@ -27,6 +42,31 @@ public class WebConfig implements WebMvcConfigurer {
                 // The trailing slash (/) is crucial for correct resource loading.
                 .addResourceLocations("file:" + uploadBaseDir + "/")
                 // Set cache period for better performance
-                .setCachePeriod(3600);
+                .setCachePeriod(3600)
+                // Old flat URLs ("/images/product/file.jpg") fall back to the file's shard directory
+                .resourceChain(false)
+                .addResolver(new ShardFallbackResourceResolver(keyLayout));
+    }
+
+    /**
+     * Serves files from their requested path, or from the sharded location when a flat
+     * path was requested and the file has already been moved by the shard migration.
+     */
+    private static class ShardFallbackResourceResolver extends PathResourceResolver {
+
+        private final UploadKeyLayout keyLayout;
+
+        ShardFallbackResourceResolver(UploadKeyLayout keyLayout) {
+            this.keyLayout = keyLayout;
+        }
+
+        @Override
+        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+            Resource resource = super.getResource(resourcePath, location);
+            if (resource == null && keyLayout.isSharded() && keyLayout.isFlat(resourcePath)) {
+                resource = super.getResource(keyLayout.toShardedKey(resourcePath), location);
+            }
+            return resource;
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.DeviceRegistrationRequestDTO;
+import com.ecommerce.backend.service.DeviceRegistryService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/devices")
+public class DeviceController {
+
+    private final DeviceRegistryService deviceRegistryService;
+
+    public DeviceController(DeviceRegistryService deviceRegistryService) {
+        this.deviceRegistryService = deviceRegistryService;
+    }
+
+    /**
+     * POST /api/v1/devices/register : Registers the calling device's FCM token for the authenticated user.
+     * Clients should call it on every app start / token refresh; repeated calls only update last-seen.
+     */
+    @PostMapping("/register")
+    public ResponseEntity<Void> registerDevice(@RequestBody @Valid DeviceRegistrationRequestDTO request,
+                                               Authentication authentication) {
+        deviceRegistryService.register(authentication.getName(), request.getDeviceToken(), request.getPlatform());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/v1/devices/unregister : Removes a device of the authenticated user (e.g. on logout).
+     */
+    @PostMapping("/unregister")
+    public ResponseEntity<Void> unregisterDevice(@RequestBody @Valid DeviceRegistrationRequestDTO request,
+                                                 Authentication authentication) {
+        boolean removed = deviceRegistryService.unregister(authentication.getName(), request.getDeviceToken());
+        return removed ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
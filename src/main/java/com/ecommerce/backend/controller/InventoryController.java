@@ -0,0 +1,103 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.StockAdjustmentRequestDTO;
+import com.ecommerce.backend.dto.StockReservationRequestDTO;
+import com.ecommerce.backend.dto.StockReservationResponseDTO;
+import com.ecommerce.backend.inventory.InsufficientStockException;
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.service.InventoryService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Stock reservations (reserve, commit, release) and atomic stock adjustments.
+ */
+@RestController
+@RequestMapping("/api/v1/inventory")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * POST /api/v1/inventory/reservations : Reserve stock for all items, or nothing.
+     * Returns 409 if a product does not have the requested quantity.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserve(@Valid @RequestBody StockReservationRequestDTO request) {
+        List<ReservationLine> lines = request.getItems().stream()
+                .map(item -> new ReservationLine(item.getProductId(), item.getQuantity()))
+                .toList();
+        Duration ttl = request.getTtlSeconds() == null ? null : Duration.ofSeconds(request.getTtlSeconds());
+        try {
+            List<StockReservation> reservation = inventoryService.reserve(lines, ttl);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/inventory/reservations/{id}")
+                    .buildAndExpand(reservation.get(0).getReservationId())
+                    .toUri();
+            return ResponseEntity.created(location).body(new StockReservationResponseDTO(reservation));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/v1/inventory/reservations/{reservationId} : State of a reservation.
+     */
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<StockReservationResponseDTO> getReservation(@PathVariable String reservationId) {
+        List<StockReservation> lines = inventoryService.find(reservationId);
+        return lines.isEmpty()
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(new StockReservationResponseDTO(lines));
+    }
+
+    /**
+     * POST /api/v1/inventory/reservations/{reservationId}/commit : Keep the reserved stock.
+     * Returns 409 if the reservation is no longer active (released, expired or already committed).
+     */
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<Void> commit(@PathVariable String reservationId) {
+        return inventoryService.commit(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * POST /api/v1/inventory/reservations/{reservationId}/release : Give the reserved stock back.
+     * Returns 404 if there is no active reservation with that id.
+     */
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        return inventoryService.release(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * POST /api/v1/inventory/products/{productId}/adjust : Add or remove stock atomically.
+     * Returns 409 if the product does not exist or a removal exceeds the stock.
+     */
+    @PostMapping("/products/{productId}/adjust")
+    public ResponseEntity<Void> adjustStock(@PathVariable Long productId, @Valid @RequestBody StockAdjustmentRequestDTO request) {
+        return inventoryService.adjustStock(productId, request.getDelta())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
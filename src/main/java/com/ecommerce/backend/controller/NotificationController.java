@@ -1,63 +1,158 @@
 package com.ecommerce.backend.controller;
 
 import com.ecommerce.backend.dto.AllDevicesNotificationRequestDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionRequestDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO;
 import com.ecommerce.backend.dto.DeviceNotificationRequestDTO;
+import com.ecommerce.backend.dto.FanoutCampaignStatsDTO;
+import com.ecommerce.backend.dto.NotificationJobResponseDTO;
+import com.ecommerce.backend.dto.NotificationRequestDTO;
 import com.ecommerce.backend.dto.NotificationSubscriptionRequestDTO;
+import com.ecommerce.backend.dto.OutboxMessageResponseDTO;
+import com.ecommerce.backend.dto.SegmentNotificationRequestDTO;
 import com.ecommerce.backend.dto.TopicNotificationRequestDTO;
+import com.ecommerce.backend.dto.UserNotificationRequestDTO;
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.notification.NotificationJob;
+import com.ecommerce.backend.notification.NotificationJobRegistry;
+import com.ecommerce.backend.notification.NotificationOutboxHandler;
+import com.ecommerce.backend.outbox.OutboxService;
 import com.ecommerce.backend.service.NotificationService;
-import com.google.firebase.messaging.FirebaseMessagingException;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.concurrent.ExecutionException;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
+/**
+ * Push notification endpoints.
+ *
+ * The send endpoints answer 202 Accepted with a Location header to poll, but what they accept
+ * depends on notifications.outbox.enabled (true in the shipped application.properties):
+ * - enabled: the request is recorded in the outbox. The body is an OutboxMessageResponseDTO and
+ *   Location is GET /outbox/{id}. A job only exists once a relay delivers the message, possibly
+ *   on another node, so there is no job id to return.
+ * - disabled: the request is queued on this node's dispatcher. The body is a
+ *   NotificationJobResponseDTO and Location is GET /jobs/{jobId} (fan-outs also GET /campaigns/{jobId}).
+ * Clients should follow the Location header rather than build either URL themselves.
+ *
+ * Outbox delivery is at-least-once. A retried fan-out (send-to-all, send-to-user, send-to-segment)
+ * continues after its last saved checkpoint, so only devices in the batches after it, or in a
+ * batch that ran out of retries, can receive the notification twice.
+ */
+@Slf4j
 @RestController
 @RequestMapping("/api/v1/notifications")
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationJobRegistry jobRegistry;
+    private final OutboxService outboxService;
+    private final boolean outboxEnabled;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationJobRegistry jobRegistry,
+                                  OutboxService outboxService,
+                                  @Value("${notifications.outbox.enabled:false}") boolean outboxEnabled) {
         this.notificationService = notificationService;
+        this.jobRegistry = jobRegistry;
+        this.outboxService = outboxService;
+        this.outboxEnabled = outboxEnabled;
     }
 
+    /**
+     * POST /api/v1/notifications/send-to-device : Queue a notification for one device.
+     * Returns 202 Accepted with the job to poll, or 503 if the dispatch queue is full.
+     * With the outbox enabled, the request is recorded in the outbox instead and 202 points to
+     * GET /outbox/{id}; the same applies to all send endpoints.
+     */
     @PostMapping("/send-to-device")
-    public ResponseEntity<String> sendNotification(@RequestBody @Valid DeviceNotificationRequestDTO request) {
-        try {
-            notificationService.sendNotificationToDevice(request);
-            return ResponseEntity.ok("Notification sent successfully.");
-        } catch (FirebaseMessagingException | ExecutionException | InterruptedException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send notification.");
-        }
+    public ResponseEntity<?> sendNotification(@RequestBody @Valid DeviceNotificationRequestDTO request) {
+        return accepted(NotificationOutboxHandler.DEVICE, request, () -> notificationService.sendNotificationToDevice(request));
     }
 
+    /**
+     * POST /api/v1/notifications/send-to-topic : Queue a notification for a topic.
+     */
     @PostMapping("/send-to-topic")
-    public ResponseEntity<String> sendNotificationToTopic(@RequestBody @Valid TopicNotificationRequestDTO request) {
-        try {
-            notificationService.sendPushNotificationToTopic(request);
-            return ResponseEntity.ok("Notification sent successfully.");
-        } catch (FirebaseMessagingException | ExecutionException | InterruptedException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send notification.");
-        }
+    public ResponseEntity<?> sendNotificationToTopic(@RequestBody @Valid TopicNotificationRequestDTO request) {
+        return accepted(NotificationOutboxHandler.TOPIC, request, () -> notificationService.sendPushNotificationToTopic(request));
     }
 
+    /**
+     * POST /api/v1/notifications/send-to-all : Queue a notification for a list of devices.
+     * Token lists of any size are fanned out in FCM-sized chunks; see GET /campaigns/{jobId}.
+     */
     @PostMapping("/send-to-all")
-    public ResponseEntity<String> sendNotificationToAll(@RequestBody @Valid AllDevicesNotificationRequestDTO request) {
-        try {
-            notificationService.sendMulticastNotification(request);
-            return ResponseEntity.ok("Multicast notification sent successfully.");
-        } catch (FirebaseMessagingException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send multicast notification.");
-        }
+    public ResponseEntity<?> sendNotificationToAll(@RequestBody @Valid AllDevicesNotificationRequestDTO request) {
+        return accepted(NotificationOutboxHandler.MULTICAST, request, () -> notificationService.sendMulticastNotification(request));
+    }
+
+    /**
+     * POST /api/v1/notifications/send-to-user : Queue a notification for all registered devices of a user.
+     */
+    @PostMapping("/send-to-user")
+    public ResponseEntity<?> sendNotificationToUser(@RequestBody @Valid UserNotificationRequestDTO request) {
+        return accepted(NotificationOutboxHandler.USER, request, () -> notificationService.sendToUser(request));
+    }
+
+    /**
+     * POST /api/v1/notifications/send-to-segment : Queue a notification for all registered devices
+     * matching a role / provider / activity filter. Recipients are resolved server-side.
+     */
+    @PostMapping("/send-to-segment")
+    public ResponseEntity<?> sendNotificationToSegment(@RequestBody @Valid SegmentNotificationRequestDTO request) {
+        return accepted(NotificationOutboxHandler.SEGMENT, request, () -> notificationService.sendToSegment(request));
+    }
+
+    /**
+     * GET /api/v1/notifications/jobs/{jobId} : Status of a queued notification. Only the users who
+     * submitted it and admins can read it (404 for others).
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<NotificationJobResponseDTO> getJobStatus(@PathVariable String jobId, Authentication authentication) {
+        return jobRegistry.find(jobId)
+                .filter(job -> isAdmin(authentication) || job.isOwnedBy(authentication.getName()))
+                .map(job -> ResponseEntity.ok(new NotificationJobResponseDTO(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/v1/notifications/outbox/{id} : Delivery state of a notification recorded in the outbox.
+     * Only readable by the user who submitted it and admins.
+     */
+    @GetMapping("/outbox/{id}")
+    public ResponseEntity<OutboxMessageResponseDTO> getOutboxMessage(@PathVariable Long id, Authentication authentication) {
+        return outboxService.find(id)
+                .filter(message -> isAdmin(authentication) || authentication.getName().equals(message.getSubmittedBy()))
+                .map(message -> ResponseEntity.ok(new OutboxMessageResponseDTO(message)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/v1/notifications/campaigns/{campaignId} : Delivery statistics of a fan-out job
+     * (send-to-all, send-to-user, send-to-segment). Like the job, only readable by the users who
+     * submitted it and admins.
+     */
+    @GetMapping("/campaigns/{campaignId}")
+    public ResponseEntity<FanoutCampaignStatsDTO> getCampaignStats(@PathVariable String campaignId, Authentication authentication) {
+        return notificationService.getCampaign(campaignId)
+                .filter(campaign -> isAdmin(authentication) || campaign.isOwnedBy(authentication.getName()))
+                .map(campaign -> ResponseEntity.ok(new FanoutCampaignStatsDTO(campaign)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/subscribe")
@@ -66,7 +161,7 @@ public class NotificationController {
             notificationService.subscribeDeviceToTopic(request);
             return ResponseEntity.ok("Device subscribed to the topic successfully.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Subscribing a device to topic {} failed: {}", request.getTopicName(), e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to subscribe device to the topic.");
         }
     }
@@ -77,8 +172,57 @@ public class NotificationController {
             notificationService.unsubscribeDeviceFromTopic(request);
             return ResponseEntity.ok("Device unsubscribed from the topic successfully.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Unsubscribing a device from topic {} failed: {}", request.getTopicName(), e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to unsubscribe device from the topic.");
         }
     }
+
+    /**
+     * POST /api/v1/notifications/subscribe-batch : Subscribes many tokens to many topics.
+     * Tokens are grouped into FCM calls of up to 1000 that run concurrently; failed pairs are listed in the response.
+     */
+    @PostMapping("/subscribe-batch")
+    public ResponseEntity<BatchTopicSubscriptionResponseDTO> subscribeBatch(@RequestBody @Valid BatchTopicSubscriptionRequestDTO request)
+            throws InterruptedException {
+        return ResponseEntity.ok(notificationService.subscribeDevicesToTopics(request));
+    }
+
+    /**
+     * POST /api/v1/notifications/unsubscribe-batch : Unsubscribes many tokens from many topics.
+     */
+    @PostMapping("/unsubscribe-batch")
+    public ResponseEntity<BatchTopicSubscriptionResponseDTO> unsubscribeBatch(@RequestBody @Valid BatchTopicSubscriptionRequestDTO request)
+            throws InterruptedException {
+        return ResponseEntity.ok(notificationService.unsubscribeDevicesFromTopics(request));
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    private ResponseEntity<?> accepted(String outboxKind, NotificationRequestDTO request, Supplier<NotificationJob> submission) {
+        if (outboxEnabled) {
+            // Durable path: survives restarts, delivered by the OutboxRelay of any node
+            OutboxMessage message = outboxService.enqueue(outboxKind, request);
+            URI statusUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/notifications/outbox/{id}")
+                    .buildAndExpand(message.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(statusUri).body(new OutboxMessageResponseDTO(message));
+        }
+        try {
+            NotificationJob job = submission.get();
+            URI statusUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/notifications/jobs/{jobId}")
+                    .buildAndExpand(job.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(statusUri).body(new NotificationJobResponseDTO(job));
+        } catch (RejectedExecutionException e) {
+            // Dispatch queue is full: shed load instead of holding the request thread
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.CheckoutRequestDTO;
+import com.ecommerce.backend.dto.OrderResponseDTO;
+import com.ecommerce.backend.inventory.InsufficientStockException;
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.order.CheckoutResult;
+import com.ecommerce.backend.order.IdempotencyKeyReuseException;
+import com.ecommerce.backend.service.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Checkout and the orders of the authenticated user.
+ */
+@RestController
+@RequestMapping("/api/v1/orders")
+public class OrderController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * POST /api/v1/orders/checkout : Place an order for the cart.
+     * The Idempotency-Key header (chosen by the client, at most 64 characters) makes retries safe:
+     * repeating a checkout with the same key and items returns the original order with 200 and
+     * Idempotent-Replayed: true. Returns 409 if a product lacks stock, 422 if the key was used for
+     * other items.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                      @Valid @RequestBody CheckoutRequestDTO request,
+                                      Authentication authentication) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(IDEMPOTENCY_KEY_HEADER + " must have 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        List<ReservationLine> lines = request.getItems().stream()
+                .map(item -> new ReservationLine(item.getProductId(), item.getQuantity()))
+                .toList();
+        try {
+            CheckoutResult result = orderService.checkout(authentication.getName(), idempotencyKey, lines);
+            OrderResponseDTO body = new OrderResponseDTO(result.order());
+            if (result.replayed()) {
+                return ResponseEntity.ok().header(REPLAYED_HEADER, "true").body(body);
+            }
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/orders/{id}")
+                    .buildAndExpand(body.getId())
+                    .toUri();
+            return ResponseEntity.created(location).body(body);
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IdempotencyKeyReuseException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/v1/orders/{id} : One of the caller's orders (404 for orders of other users).
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderResponseDTO> getOrder(@PathVariable Long id, Authentication authentication) {
+        return orderService.findOrder(authentication.getName(), id)
+                .map(order -> ResponseEntity.ok(new OrderResponseDTO(order)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/v1/orders?beforeId=&size= : The caller's orders, newest first. Pass the last id of a
+     * page as beforeId for the next one.
+     */
+    @GetMapping
+    public List<OrderResponseDTO> getOrders(@RequestParam(required = false) Long beforeId,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            Authentication authentication) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return orderService.findOrders(authentication.getName(), beforeId, pageSize).stream()
+                .map(OrderResponseDTO::new)
+                .toList();
+    }
+}
@@ -1,13 +1,22 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.dto.ImageUploadConfirmationDTO;
+import com.ecommerce.backend.dto.PresignedUploadRequestDTO;
+import com.ecommerce.backend.dto.PresignedUploadResponseDTO;
 import com.ecommerce.backend.dto.ProductRequestDTO;
 import com.ecommerce.backend.dto.ProductResponseDTO;
 import com.ecommerce.backend.mapper.ProductMapper;
 import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.repository.LikePatterns;
 import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.responsecache.CachedResponse;
+import com.ecommerce.backend.responsecache.ProductResponseCache;
 import com.ecommerce.backend.service.FileStorageService;
 import com.ecommerce.backend.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +24,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -25,16 +35,23 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/v1/products") // Base URL for all product endpoints
 public class ProductController {
 
+    // Shorter terms have no trigram to look up and would scan the whole table
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final ProductService productService;
     private final FileStorageService fileStorageService;
+    private final ProductResponseCache productResponseCache;
 
-    public ProductController(ProductRepository productRepository, ProductMapper productMapper, ProductService productService, FileStorageService fileStorageService) {
+    public ProductController(ProductRepository productRepository, ProductMapper productMapper, ProductService productService,
+                             FileStorageService fileStorageService, ProductResponseCache productResponseCache) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.productService = productService;
         this.fileStorageService = fileStorageService;
+        this.productResponseCache = productResponseCache;
     }
 
     /**
@@ -42,36 +59,67 @@ public class ProductController {
      */
     @GetMapping
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productRepository.findAllOfActiveProviders();
     }
 
     /**
      * GET /api/v1/products/{id} : Retrieve a single product by ID
+     * The serialized body comes from the ProductResponseCache (gzip-encoded if accepted).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(ResponseEntity::ok) // Return 200 OK with product body
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return productResponseCache.product(id, () -> productRepository.findVisibleById(id))
+                .map(response -> response.toResponseEntity(acceptEncoding)) // Return 200 OK with product body
                 .orElseGet(() -> ResponseEntity.notFound().build()); // Return 404 Not Found
     }
 
     /**
      * GET /api/v1/products/by-provider/{providerId} : Retrieve a list of products by Provider ID
+     * The serialized body comes from the ProductResponseCache (gzip-encoded if accepted).
      */
     @GetMapping("/by-provider/{providerId}")
-    public ResponseEntity<List<ProductResponseDTO>> getProductsByProviderId(@PathVariable Long providerId) {
-        // 1. Retrieve the entities
-        List<Product> products = productRepository.findByProviderId(providerId);
-        if (products.isEmpty()) {
-            return ResponseEntity.notFound().build(); // 404 Not Found
-        } else {
-            // 2. Map the entities to DTOs
-            List<ProductResponseDTO> dtos = products.stream()
-                    .map(productMapper::toDto) // 🔑 Use the mapper to convert each entity
-                    .collect(Collectors.toList());
-            // 3. Return 200 OK with the list of DTOs
-            return ResponseEntity.ok(dtos);
+    public ResponseEntity<byte[]> getProductsByProviderId(@PathVariable Long providerId,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // 1. Retrieve the entities and map them to DTOs (only on a cache miss)
+        Optional<CachedResponse> response = productResponseCache.providerProducts(providerId,
+                () -> productRepository.findByProviderId(providerId).stream()
+                        .map(productMapper::toDto) // 🔑 Use the mapper to convert each entity
+                        .collect(Collectors.toList()));
+        // 2. Return 200 OK with the serialized list, or 404 Not Found if the provider has no products
+        return response
+                .map(cached -> cached.toResponseEntity(acceptEncoding))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/v1/products/by-provider/{providerId}/page?afterId=&size= : Keyset page of a provider's products
+     * Pass the id of the last product of the previous page as afterId (0 for the first page).
+     */
+    @GetMapping("/by-provider/{providerId}/page")
+    public List<ProductResponseDTO> getProductPageByProviderId(@PathVariable Long providerId,
+                                                               @RequestParam(defaultValue = "0") Long afterId,
+                                                               @RequestParam(defaultValue = "50") int size) {
+        return productRepository.findPageByProviderId(providerId, afterId, PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE))))
+                .stream()
+                .map(productMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * GET /api/v1/products/search?q=&limit= : Products whose name contains the term (case-insensitive)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDTO>> searchProducts(@RequestParam("q") String term,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        if (term.trim().length() < MIN_SEARCH_LENGTH) {
+            return ResponseEntity.badRequest().build();
         }
+        List<ProductResponseDTO> dtos = productRepository.searchByName(LikePatterns.containing(term), PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE))))
+                .stream()
+                .map(productMapper::toDto)
+                .toList();
+        return ResponseEntity.ok(dtos);
     }
 
     /**
@@ -88,16 +136,22 @@ public class ProductController {
 
     /**
      * PUT /api/v1/products/{id} : Update an existing product
+     * Stock is not written from here (it would overwrite concurrent reservations): a stockQuantity
+     * other than the current one is rejected with 400; use POST /api/v1/inventory/products/{id}/adjust.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
         return productRepository.findById(id)
-                .map(existingProduct -> {
+                .<ResponseEntity<?>>map(existingProduct -> {
+                    if (productDetails.getStockQuantity() != null
+                            && !productDetails.getStockQuantity().equals(existingProduct.getStockQuantity())) {
+                        return ResponseEntity.badRequest()
+                                .body("stockQuantity cannot be changed here; use POST /api/v1/inventory/products/" + id + "/adjust");
+                    }
                     // Update fields of the existing product
                     existingProduct.setName(productDetails.getName());
                     existingProduct.setDescription(productDetails.getDescription());
                     existingProduct.setPrice(productDetails.getPrice());
-                    existingProduct.setStockQuantity(productDetails.getStockQuantity());
 
                     // Save the updated entity
                     Product updatedProduct = productRepository.save(existingProduct);
@@ -108,11 +162,16 @@ public class ProductController {
 
     /**
      * DELETE /api/v1/products/{id} : Delete a product
+     * Returns 409 Conflict if the product is still referenced by orders or stock reservations.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
+            try {
+                productRepository.deleteById(id);
+            } catch (DataIntegrityViolationException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Ordered or reserved products stay
+            }
             return ResponseEntity.noContent().build(); // Return 204 No Content on successful deletion
         } else {
             return ResponseEntity.notFound().build(); // Return 404 if not found
@@ -143,4 +202,43 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * POST /api/v1/products/{id}/image/presign : Get a URL to upload the product image directly to storage.
+     * Returns 501 Not Implemented when the storage backend only supports multipart uploads.
+     */
+    @PostMapping("/{id}/image/presign")
+    public ResponseEntity<PresignedUploadResponseDTO> presignProductImageUpload(@PathVariable Long id, @Valid @RequestBody PresignedUploadRequestDTO request) {
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!fileStorageService.isAllowedUploadSize(request.getContentLength())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return fileStorageService.presignUpload("product", id, request.getFilename(), request.getContentType(),
+                        request.getContentLength())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build());
+    }
+
+    /**
+     * POST /api/v1/products/{id}/image/confirm : Attach an image uploaded through a pre-signed URL.
+     */
+    @PostMapping("/{id}/image/confirm")
+    public ResponseEntity<Product> confirmProductImageUpload(@PathVariable Long id, @Valid @RequestBody ImageUploadConfirmationDTO request) {
+        Product product = productRepository.findById(id).orElse(null);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            // Only accept keys issued for this product that really exist in storage
+            if (!fileStorageService.isUploadedObjectFor(request.getObjectKey(), "product", id)) {
+                return ResponseEntity.badRequest().build();
+            }
+            product.setProductImageUrl(fileStorageService.toPublicUrl(request.getObjectKey()));
+            return ResponseEntity.ok(productRepository.save(product));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -1,13 +1,22 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.dto.ImageUploadConfirmationDTO;
+import com.ecommerce.backend.dto.PresignedUploadRequestDTO;
+import com.ecommerce.backend.dto.PresignedUploadResponseDTO;
+import com.ecommerce.backend.dto.ProviderOffboardingStatusDTO;
 import com.ecommerce.backend.dto.ProviderRequestDTO;
 import com.ecommerce.backend.dto.ProviderResponseDTO;
+import com.ecommerce.backend.dto.ProviderStatsResponseDTO;
 import com.ecommerce.backend.model.Provider;
 import com.ecommerce.backend.model.User;
+import com.ecommerce.backend.repository.LikePatterns;
 import com.ecommerce.backend.repository.ProviderRepository;
 import com.ecommerce.backend.repository.UserRepository;
 import com.ecommerce.backend.service.FileStorageService;
+import com.ecommerce.backend.service.ProviderOffboardingService;
+import com.ecommerce.backend.stats.ProviderStatsStore;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,14 +29,23 @@ import java.util.Optional;
 @RequestMapping("/api/v1/providers")
 public class ProviderController {
 
+    // Shorter terms have no trigram to look up and would scan the whole table
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final ProviderRepository providerRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
+    private final ProviderStatsStore providerStatsStore;
+    private final ProviderOffboardingService providerOffboardingService;
 
-    public ProviderController(ProviderRepository providerRepository, UserRepository userRepository, FileStorageService fileStorageService) {
+    public ProviderController(ProviderRepository providerRepository, UserRepository userRepository, FileStorageService fileStorageService,
+                              ProviderStatsStore providerStatsStore, ProviderOffboardingService providerOffboardingService) {
         this.providerRepository = providerRepository;
         this.userRepository = userRepository;
         this.fileStorageService = fileStorageService;
+        this.providerStatsStore = providerStatsStore;
+        this.providerOffboardingService = providerOffboardingService;
     }
 
     /**
@@ -52,18 +70,35 @@ public class ProviderController {
     @GetMapping
     public List<ProviderResponseDTO> getAllProviders() {
         // Fetch all Provider entities and map each one to a ProviderResponseDTO
-        return providerRepository.findAll().stream()
+        return providerRepository.findAllActive().stream()
                 .map(ProviderResponseDTO::new)
                 .toList();
     }
 
+    /**
+     * Searches Providers whose name contains the term (case-insensitive).
+     * Mapped to: GET /api/v1/providers/search?q=&limit=
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProviderResponseDTO>> searchProviders(@RequestParam("q") String term,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        if (term.trim().length() < MIN_SEARCH_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ProviderResponseDTO> dtos = providerRepository.searchByName(LikePatterns.containing(term), PageRequest.of(0, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))))
+                .stream()
+                .map(ProviderResponseDTO::new)
+                .toList();
+        return ResponseEntity.ok(dtos);
+    }
+
     /**
      * Retrieves a single Provider by ID.
      * Mapped to: GET /api/v1/providers/{id}
      */
     @GetMapping("/{id}")
     public ResponseEntity<ProviderResponseDTO> getProviderById(@PathVariable Long id) {
-        Optional<Provider> providerOptional = providerRepository.findById(id);
+        Optional<Provider> providerOptional = providerRepository.findActiveById(id);
 
         return providerOptional.map(provider -> {
             // Map the entity to the DTO and return 200 OK
@@ -75,13 +110,24 @@ public class ProviderController {
         });
     }
 
+    /**
+     * Product count, stock units and inventory value of a Provider, from the maintained summary.
+     * Mapped to: GET /api/v1/providers/{id}/stats
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ProviderStatsResponseDTO> getProviderStats(@PathVariable Long id) {
+        return providerStatsStore.find(id)
+                .map(stats -> ResponseEntity.ok(new ProviderStatsResponseDTO(stats)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Updates an existing Provider.
      * Mapped to: PUT /api/v1/providers/{id}
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProviderResponseDTO> updateProvider(@PathVariable Long id, @Valid @RequestBody ProviderRequestDTO providerDto) {
-        return providerRepository.findById(id)
+        return providerRepository.findActiveById(id)
                 .map(existingProvider -> {
                     // Update only the mutable fields from the DTO
                     existingProvider.setName(providerDto.getName());
@@ -102,25 +148,33 @@ public class ProviderController {
     }
 
     /**
-     * Deletes a Provider by ID.
+     * Offboards a Provider: it is soft-deleted at once (hidden from all reads together with its
+     * products) and its products are removed in the background.
      * Mapped to: DELETE /api/v1/providers/{id}
+     * Returns 202 Accepted with the progress, also for a provider that is already being offboarded.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProvider(@PathVariable Long id) {
-        if (providerRepository.existsById(id)) {
-            providerRepository.deleteById(id);
-            // Return 204 No Content upon successful deletion
-            return ResponseEntity.noContent().build();
-        } else {
-            // Return 404 Not Found if the provider does not exist
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<ProviderOffboardingStatusDTO> deleteProvider(@PathVariable Long id) {
+        return providerOffboardingService.offboard(id)
+                .map(offboarding -> ResponseEntity.status(HttpStatus.ACCEPTED).body(new ProviderOffboardingStatusDTO(offboarding)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Progress of the removal of an offboarded Provider's products.
+     * Mapped to: GET /api/v1/providers/{id}/offboarding
+     */
+    @GetMapping("/{id}/offboarding")
+    public ResponseEntity<ProviderOffboardingStatusDTO> getOffboardingProgress(@PathVariable Long id) {
+        return providerOffboardingService.findProgress(id)
+                .map(offboarding -> ResponseEntity.ok(new ProviderOffboardingStatusDTO(offboarding)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/image")
     public ResponseEntity<ProviderResponseDTO> updateProviderImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
         // 1. Check if the Provider exists
-        Provider provider = providerRepository.findById(id)
+        Provider provider = providerRepository.findActiveById(id)
                 .orElse(null);
         if (provider == null) {
             // Return 404 Not Found (no body needed for DTO or entity)
@@ -143,4 +197,46 @@ public class ProviderController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets a URL to upload the provider image directly to storage.
+     * Mapped to: POST /api/v1/providers/{id}/image/presign
+     * Returns 501 Not Implemented when the storage backend only supports multipart uploads.
+     */
+    @PostMapping("/{id}/image/presign")
+    public ResponseEntity<PresignedUploadResponseDTO> presignProviderImageUpload(@PathVariable Long id, @Valid @RequestBody PresignedUploadRequestDTO request) {
+        if (providerRepository.findActiveById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!fileStorageService.isAllowedUploadSize(request.getContentLength())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return fileStorageService.presignUpload("provider", id, request.getFilename(), request.getContentType(),
+                        request.getContentLength())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build());
+    }
+
+    /**
+     * Attaches an image uploaded through a pre-signed URL.
+     * Mapped to: POST /api/v1/providers/{id}/image/confirm
+     */
+    @PostMapping("/{id}/image/confirm")
+    public ResponseEntity<ProviderResponseDTO> confirmProviderImageUpload(@PathVariable Long id, @Valid @RequestBody ImageUploadConfirmationDTO request) {
+        Provider provider = providerRepository.findActiveById(id).orElse(null);
+        if (provider == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            // Only accept keys issued for this provider that really exist in storage
+            if (!fileStorageService.isUploadedObjectFor(request.getObjectKey(), "provider", id)) {
+                return ResponseEntity.badRequest().build();
+            }
+            provider.setProfileImageUrl(fileStorageService.toPublicUrl(request.getObjectKey()));
+            Provider updatedProvider = providerRepository.save(provider);
+            return ResponseEntity.ok(new ProviderResponseDTO(updatedProvider));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
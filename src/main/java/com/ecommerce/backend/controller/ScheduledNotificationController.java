@@ -0,0 +1,110 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.DeviceNotificationRequestDTO;
+import com.ecommerce.backend.dto.ScheduledNotificationResponseDTO;
+import com.ecommerce.backend.dto.SegmentNotificationRequestDTO;
+import com.ecommerce.backend.dto.TopicNotificationRequestDTO;
+import com.ecommerce.backend.dto.UserNotificationRequestDTO;
+import com.ecommerce.backend.model.ScheduledNotification;
+import com.ecommerce.backend.notification.NotificationOutboxHandler;
+import com.ecommerce.backend.service.ScheduledNotificationService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Instant;
+
+/**
+ * Scheduled notifications: the same request bodies as the immediate send endpoints, plus a sendAt
+ * time (ISO-8601, e.g. 2025-11-28T09:00:00Z).
+ */
+@RestController
+@RequestMapping("/api/v1/notifications/scheduled")
+public class ScheduledNotificationController {
+
+    private final ScheduledNotificationService scheduledNotificationService;
+
+    public ScheduledNotificationController(ScheduledNotificationService scheduledNotificationService) {
+        this.scheduledNotificationService = scheduledNotificationService;
+    }
+
+    /**
+     * POST /api/v1/notifications/scheduled/send-to-topic?sendAt=... : Schedule a topic notification.
+     */
+    @PostMapping("/send-to-topic")
+    public ResponseEntity<ScheduledNotificationResponseDTO> scheduleToTopic(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant sendAt,
+            @RequestBody @Valid TopicNotificationRequestDTO request) {
+        return created(scheduledNotificationService.schedule(NotificationOutboxHandler.TOPIC, request, sendAt));
+    }
+
+    /**
+     * POST /api/v1/notifications/scheduled/send-to-segment?sendAt=... : Schedule a segment notification.
+     * Recipients are resolved at send time, not when scheduling.
+     */
+    @PostMapping("/send-to-segment")
+    public ResponseEntity<ScheduledNotificationResponseDTO> scheduleToSegment(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant sendAt,
+            @RequestBody @Valid SegmentNotificationRequestDTO request) {
+        return created(scheduledNotificationService.schedule(NotificationOutboxHandler.SEGMENT, request, sendAt));
+    }
+
+    /**
+     * POST /api/v1/notifications/scheduled/send-to-user?sendAt=... : Schedule a notification for a user's devices.
+     */
+    @PostMapping("/send-to-user")
+    public ResponseEntity<ScheduledNotificationResponseDTO> scheduleToUser(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant sendAt,
+            @RequestBody @Valid UserNotificationRequestDTO request) {
+        return created(scheduledNotificationService.schedule(NotificationOutboxHandler.USER, request, sendAt));
+    }
+
+    /**
+     * POST /api/v1/notifications/scheduled/send-to-device?sendAt=... : Schedule a notification for one device.
+     */
+    @PostMapping("/send-to-device")
+    public ResponseEntity<ScheduledNotificationResponseDTO> scheduleToDevice(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant sendAt,
+            @RequestBody @Valid DeviceNotificationRequestDTO request) {
+        return created(scheduledNotificationService.schedule(NotificationOutboxHandler.DEVICE, request, sendAt));
+    }
+
+    /**
+     * GET /api/v1/notifications/scheduled/{id} : State of a scheduled notification.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ScheduledNotificationResponseDTO> getScheduledNotification(@PathVariable Long id) {
+        return scheduledNotificationService.find(id)
+                .map(notification -> ResponseEntity.ok(new ScheduledNotificationResponseDTO(notification)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * DELETE /api/v1/notifications/scheduled/{id} : Cancel a notification that has not been sent yet.
+     * Returns 404 if it does not exist or is already dispatched.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelScheduledNotification(@PathVariable Long id) {
+        return scheduledNotificationService.cancel(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<ScheduledNotificationResponseDTO> created(ScheduledNotification notification) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/notifications/scheduled/{id}")
+                .buildAndExpand(notification.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(new ScheduledNotificationResponseDTO(notification));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the public "/images/..." URLs stored in the database working when images live in an
+ * object store: instead of streaming the bytes through the application, clients are redirected
+ * to a (pre-signed) storage URL. Replaces the file-system resource handler from WebConfig.
+ */
+@RestController
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+public class StorageImageRedirectController {
+
+    private final FileStorageService fileStorageService;
+
+    public StorageImageRedirectController(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * GET /images/** : Redirect (302) to the storage URL of the requested object.
+     */
+    @GetMapping("/images/**")
+    public ResponseEntity<Void> redirectToStorage(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String objectKey = fileStorageService.toObjectKey(path);
+        if (objectKey == null || objectKey.isBlank() || objectKey.contains("..")) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            // Old flat URLs keep working after their file was moved into a shard directory
+            objectKey = fileStorageService.resolveStoredKey(objectKey);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return fileStorageService.presignDownload(objectKey)
+                .map(location -> ResponseEntity.status(HttpStatus.FOUND)
+                        .location(location)
+                        // Let browsers reuse the redirect for a while, but never past the signature lifetime
+                        .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate())
+                        .<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.UploadMigrationStatusDTO;
+import com.ecommerce.backend.storage.UploadShardMigrationJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Administrative operations on uploaded files.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/uploads")
+public class UploadAdminController {
+
+    private final UploadShardMigrationJob shardMigrationJob;
+
+    public UploadAdminController(UploadShardMigrationJob shardMigrationJob) {
+        this.shardMigrationJob = shardMigrationJob;
+    }
+
+    /**
+     * POST /api/v1/admin/uploads/shard-migration : Start moving flat uploads into shard directories.
+     * Returns 202 Accepted when started, 409 Conflict if already running or the sharded layout is disabled.
+     */
+    @PostMapping("/shard-migration")
+    public ResponseEntity<UploadMigrationStatusDTO> startShardMigration() {
+        if (!shardMigrationJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(shardMigrationJob.status());
+        }
+        return ResponseEntity.accepted().body(shardMigrationJob.status());
+    }
+
+    /**
+     * GET /api/v1/admin/uploads/shard-migration : Progress of the current or last migration.
+     */
+    @GetMapping("/shard-migration")
+    public UploadMigrationStatusDTO getShardMigrationStatus() {
+        return shardMigrationJob.status();
+    }
+}
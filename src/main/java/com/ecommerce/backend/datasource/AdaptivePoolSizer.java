@@ -0,0 +1,200 @@
+package com.ecommerce.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the Hikari pools within [min-size, max-size] from what the last interval showed, read
+ * from the pool's own meters: hikaricp.connections.acquire (time waiting for a connection) and
+ * hikaricp.connections.usage (time a connection was held, i.e. how long the database took plus
+ * whatever the caller did in between).
+ *
+ * - Callers waited longer than wait-threshold-ms on average: grow by step.
+ * - The interval after a grow held connections latency-tolerance times longer than the one before:
+ *   the database got slower with more connections, so they only queue inside it. Step back and
+ *   stay below that size for shrink-after-intervals intervals.
+ * - No waiting, and step connections idle, for shrink-after-intervals intervals: shrink by step.
+ *
+ * A shrink lowers the maximum at once; connections above it close as they reach the idle timeout
+ * or their max lifetime. Resizes are counted in datasource.pool.adaptive.resizes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datasource.pool.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+    private final DataSource dataSource;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final double waitThresholdMs;
+    private final double latencyTolerance;
+    private final int shrinkAfterIntervals;
+    private final List<PoolState> pools = new ArrayList<>();
+
+    public AdaptivePoolSizer(MeterRegistry meterRegistry,
+                             ObjectProvider<ReplicaRouter> replicaRouter,
+                             DataSource dataSource,
+                             @Value("${datasource.pool.adaptive.min-size:5}") int minSize,
+                             @Value("${datasource.pool.adaptive.max-size:40}") int maxSize,
+                             @Value("${datasource.pool.adaptive.step:2}") int step,
+                             @Value("${datasource.pool.adaptive.wait-threshold-ms:5}") double waitThresholdMs,
+                             @Value("${datasource.pool.adaptive.latency-tolerance:1.5}") double latencyTolerance,
+                             @Value("${datasource.pool.adaptive.shrink-after-intervals:6}") int shrinkAfterIntervals) {
+        if (minSize < 1 || maxSize < minSize || step < 1) {
+            throw new IllegalArgumentException("datasource.pool.adaptive needs 1 <= min-size <= max-size and step >= 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.replicaRouter = replicaRouter;
+        this.dataSource = dataSource;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+        this.waitThresholdMs = waitThresholdMs;
+        this.latencyTolerance = latencyTolerance;
+        this.shrinkAfterIntervals = shrinkAfterIntervals;
+    }
+
+    @PostConstruct
+    public void findPools() {
+        ReplicaRouter router = replicaRouter.getIfAvailable();
+        List<HikariDataSource> found = router != null ? router.pools() : unwrapPool();
+        for (HikariDataSource pool : found) {
+            PoolState state = new PoolState(pool);
+            Gauge.builder("datasource.pool.adaptive.max-size", pool, HikariDataSource::getMaximumPoolSize)
+                    .description("Maximum pool size currently set by the adaptive sizer")
+                    .tag("pool", state.name)
+                    .register(meterRegistry);
+            pools.add(state);
+        }
+        if (pools.isEmpty()) {
+            log.warn("datasource.pool.adaptive.enabled is set but no Hikari pool was found; nothing will be resized");
+        } else {
+            log.info("Adaptive sizing of pools {} between {} and {} connections",
+                    pools.stream().map(state -> state.name).toList(), minSize, maxSize);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${datasource.pool.adaptive.interval-ms:10000}",
+               fixedDelayString = "${datasource.pool.adaptive.interval-ms:10000}")
+    public void adjust() {
+        pools.forEach(PoolState::adjust);
+    }
+
+    private List<HikariDataSource> unwrapPool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? List.of(dataSource.unwrap(HikariDataSource.class))
+                    : List.of();
+        } catch (SQLException e) {
+            return List.of();
+        }
+    }
+
+    private final class PoolState {
+
+        private final HikariDataSource pool;
+        private final String name;
+        private long lastAcquires;
+        private double lastAcquireMs;
+        private long lastUsages;
+        private double lastUsageMs;
+        // Mean hold time of the interval before the last grow; NaN when the last decision was not a grow
+        private double holdBeforeGrowMs = Double.NaN;
+        // Size that made the database slower, avoided until ceilingIntervals run out
+        private int ceiling;
+        private int ceilingIntervals;
+        private int quietIntervals;
+
+        PoolState(HikariDataSource pool) {
+            this.pool = pool;
+            this.name = pool.getPoolName();
+            this.ceiling = maxSize;
+        }
+
+        void adjust() {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", name).timer();
+            Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", name).timer();
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            if (acquire == null || usage == null || poolBean == null) {
+                return; // Not started yet
+            }
+            long acquires = acquire.count() - lastAcquires;
+            double acquireMs = acquire.totalTime(TimeUnit.MILLISECONDS) - lastAcquireMs;
+            long usages = usage.count() - lastUsages;
+            double usageMs = usage.totalTime(TimeUnit.MILLISECONDS) - lastUsageMs;
+            lastAcquires += acquires;
+            lastAcquireMs += acquireMs;
+            lastUsages += usages;
+            lastUsageMs += usageMs;
+            if (ceilingIntervals > 0 && --ceilingIntervals == 0) {
+                ceiling = maxSize;
+            }
+            if (acquires == 0 || usages == 0) {
+                return; // Idle interval: nothing to learn from
+            }
+            double waitMs = acquireMs / acquires;
+            double holdMs = usageMs / usages;
+            int size = pool.getMaximumPoolSize();
+
+            double holdBefore = holdBeforeGrowMs;
+            holdBeforeGrowMs = Double.NaN;
+            if (!Double.isNaN(holdBefore) && holdMs > holdBefore * latencyTolerance) {
+                ceiling = size - step;
+                ceilingIntervals = shrinkAfterIntervals;
+                resize(size - step, "latency", waitMs, holdMs);
+            } else if (waitMs > waitThresholdMs && size < Math.min(ceiling, maxSize)) {
+                quietIntervals = 0;
+                holdBeforeGrowMs = holdMs;
+                resize(Math.min(size + step, ceiling), "wait", waitMs, holdMs);
+            } else if (waitMs <= waitThresholdMs && poolBean.getThreadsAwaitingConnection() == 0
+                    && poolBean.getIdleConnections() >= step) {
+                if (++quietIntervals >= shrinkAfterIntervals) {
+                    quietIntervals = 0;
+                    resize(size - step, "idle", waitMs, holdMs);
+                }
+            } else {
+                quietIntervals = 0;
+            }
+        }
+
+        private void resize(int requested, String reason, double waitMs, double holdMs) {
+            int size = pool.getMaximumPoolSize();
+            int target = Math.max(minSize, Math.min(maxSize, requested));
+            if (target == size) {
+                return;
+            }
+            pool.getHikariConfigMXBean().setMaximumPoolSize(target);
+            if (pool.getMinimumIdle() > target) {
+                pool.getHikariConfigMXBean().setMinimumIdle(target);
+            }
+            Counter.builder("datasource.pool.adaptive.resizes")
+                    .description("Pool size changes made by the adaptive sizer, by reason")
+                    .tag("pool", name)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            log.info("Pool {} resized from {} to {} ({}: mean wait {} ms, mean hold {} ms)",
+                    name, size, target, reason, String.format("%.1f", waitMs), String.format("%.1f", holdMs));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.backend.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most as many threads hold a connection as the pool has connections; the others wait
+ * in FIFO order on a fair semaphore.
+ *
+ * With platform threads the servlet thread pool already limits how many requests reach the
+ * pool. With virtual threads every request has its own thread, and thousands of them would
+ * otherwise spin in Hikari's hand-off until its connection timeout. Waiting on the semaphore
+ * parks the virtual thread without occupying a carrier, and the wait shows up in metrics.
+ */
+public class BoundedConcurrencyDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public BoundedConcurrencyDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout,
+                                        MeterRegistry meterRegistry, String name) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.waitTimer = Timer.builder("datasource.permits.wait")
+                .description("Time spent waiting for a database connection permit")
+                .tag("datasource", name)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("datasource.permits.timeouts")
+                .description("Connection requests that gave up waiting for a permit")
+                .tag("datasource", name)
+                .register(meterRegistry);
+        Gauge.builder("datasource.permits.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database connection permit")
+                .tag("datasource", name)
+                .register(meterRegistry);
+        Gauge.builder("datasource.permits.in_use", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Connection permits held")
+                .tag("datasource", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return bound(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return bound(() -> super.getConnection(username, password));
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("No connection permit within " + Duration.ofNanos(acquireTimeoutNanos).toMillis()
+                    + " ms (" + permits.getQueueLength() + " threads waiting)");
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Opens the connection under the permit just acquired; the permit goes back when the
+     * connection is closed (or if opening it fails).
+     */
+    private Connection bound(ConnectionSource source) throws SQLException {
+        Connection connection;
+        try {
+            connection = source.open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(BoundedConcurrencyDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return connection;
+                    }
+                    if (name.equals("isWrapperFor") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return true;
+                    }
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return invoke(connection, method, args);
+                    } finally {
+                        if (name.equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * In virtual-thread mode, bounds every DataSource bean with BoundedConcurrencyDataSource. The
+ * number of permits is the maximum size of the Hikari pool behind it, unless configured.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DataSourceConcurrencyPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+
+    public DataSourceConcurrencyPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                              @Value("${datasource.concurrency.enabled:true}") boolean enabled,
+                                              @Value("${datasource.concurrency.max-permits:0}") int maxConcurrency,
+                                              @Value("${datasource.concurrency.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeout = Duration.ofMillis(acquireTimeoutMs);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof BoundedConcurrencyDataSource) {
+            return bean;
+        }
+        int permits = maxConcurrency > 0 ? maxConcurrency : poolSizeOf(dataSource);
+        if (permits <= 0) {
+            log.warn("DataSource {} is not backed by a Hikari pool and datasource.concurrency.max-permits is not set; not bounding it", beanName);
+            return bean;
+        }
+        log.info("Bounding DataSource {} to {} concurrent connections", beanName, permits);
+        return new BoundedConcurrencyDataSource(dataSource, permits, acquireTimeout, meterRegistry.getObject(), beanName);
+    }
+
+    private static int poolSizeOf(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+}
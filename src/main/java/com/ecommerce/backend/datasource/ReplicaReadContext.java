@@ -0,0 +1,44 @@
+package com.ecommerce.backend.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as serving a request whose read-only transactions may go to a replica.
+ * Set by ReplicaReadFilter for the catalog GET paths only, so authentication lookups and every
+ * other endpoint keep reading from the primary (and see their own writes).
+ */
+public final class ReplicaReadContext {
+
+    private static final ThreadLocal<Boolean> ELIGIBLE = new ThreadLocal<>();
+
+    private ReplicaReadContext() {
+    }
+
+    public static boolean isEligible() {
+        return Boolean.TRUE.equals(ELIGIBLE.get());
+    }
+
+    /**
+     * Runs the loader against the primary even if the current request may read from replicas, for
+     * reads whose result outlives the request (e.g. cached responses) and must not be behind.
+     */
+    public static <T> T onPrimary(Supplier<T> loader) {
+        Boolean eligible = ELIGIBLE.get();
+        ELIGIBLE.remove();
+        try {
+            return loader.get();
+        } finally {
+            if (eligible != null) {
+                ELIGIBLE.set(eligible);
+            }
+        }
+    }
+
+    static void markEligible() {
+        ELIGIBLE.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        ELIGIBLE.remove();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.backend.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Lets GET requests under the configured path prefixes read from replicas.
+ *
+ * Ordered after the Spring Security filter chain, so the user lookup of the JWT filter has already
+ * run against the primary by the time the request is marked.
+ */
+class ReplicaReadFilter extends OncePerRequestFilter implements Ordered {
+
+    private final List<String> readPathPrefixes;
+
+    ReplicaReadFilter(List<String> readPathPrefixes) {
+        this.readPathPrefixes = readPathPrefixes;
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return readPathPrefixes.stream().noneMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReplicaReadContext.markEligible();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaReadContext.clear();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ecommerce.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the pool a new connection comes from: the primary, or one of the read replicas.
+ *
+ * A connection goes to a replica only when the request was marked by ReplicaReadFilter and the
+ * transaction asking for it is read-only. Replicas are used round-robin; one that fails to hand out
+ * a connection, stops answering the health check or lags the primary by more than maxLagBytes of WAL
+ * is skipped until a later check finds it healthy again. With no healthy replica all reads fall back
+ * to the primary.
+ */
+@Slf4j
+public class ReplicaRouter implements Closeable {
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagBytes;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+
+    public ReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagBytes, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagBytes = maxLagBytes;
+        this.primaryConnections = connectionCounter(meterRegistry, "primary");
+        this.replicaConnections = connectionCounter(meterRegistry, "replica");
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks")
+                .description("Read-only connections sent to the primary because no replica was usable")
+                .register(meterRegistry);
+
+        Gauge.builder("datasource.replicas.healthy", replicas, all -> all.stream().filter(replica -> replica.healthy).count())
+                .description("Read replicas currently receiving traffic")
+                .register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag.bytes", replica, r -> r.lagBytes)
+                    .description("WAL bytes the replica has not replayed yet, as of the last health check")
+                    .tag("replica", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (ReplicaReadContext.isEligible() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                replicaConnections.increment();
+                return connection;
+            }
+            fallbacks.increment();
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    HikariDataSource primary() {
+        return primary;
+    }
+
+    /**
+     * Compares every replica's replay position with the primary's current WAL position.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(HEALTH_CHECK_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+                rs.next();
+                primaryLsn = rs.getString(1);
+            }
+        } catch (SQLException e) {
+            // Without the primary's position lag cannot be judged; keep the current replica states
+            log.warn("Replica health check skipped, primary WAL position unavailable: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            check(replica, primaryLsn);
+        }
+    }
+
+    /**
+     * @return the primary pool followed by the replica pools.
+     */
+    public List<HikariDataSource> pools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primary);
+        replicas.forEach(replica -> pools.add(replica.pool));
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private Connection replicaConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                markUnhealthy(replica, "connection failed: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void check(Replica replica, String primaryLsn) {
+        try (Connection connection = replica.pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT pg_is_in_recovery(), pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn())")) {
+            statement.setQueryTimeout(HEALTH_CHECK_TIMEOUT_SECONDS);
+            statement.setString(1, primaryLsn);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                // Not in recovery (e.g. the primary itself configured as replica in development): no lag
+                long lag = rs.getBoolean(1) ? Math.max(0, rs.getLong(2)) : 0;
+                replica.lagBytes = lag;
+                if (lag > maxLagBytes) {
+                    markUnhealthy(replica, "lagging " + lag + " bytes behind the primary");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} is healthy again, lag {} bytes", replica.pool.getPoolName(), lag);
+                }
+            }
+        } catch (SQLException e) {
+            markUnhealthy(replica, "health check failed: " + e.getMessage());
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} taken out of rotation: {}", replica.pool.getPoolName(), reason);
+        }
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+        private volatile long lagBytes;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
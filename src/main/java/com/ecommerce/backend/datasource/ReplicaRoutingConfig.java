@@ -0,0 +1,84 @@
+package com.ecommerce.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primary/replica routing, active when datasource.replicas.urls lists at least one replica.
+ * Otherwise Spring Boot's single DataSource on spring.datasource.url is used unchanged.
+ *
+ * The primary pool is built from spring.datasource.* / spring.datasource.hikari.* exactly as Boot
+ * would; each replica gets its own read-only Hikari pool. Only the routing DataSource is a bean,
+ * so the JDBC instrumentation wraps it once and sees both primary and replica statements.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.trim().isEmpty()")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties properties,
+                                       Environment environment,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${datasource.replicas.urls}") String urls,
+                                       @Value("${datasource.replicas.username:${spring.datasource.username}}") String username,
+                                       @Value("${datasource.replicas.password:${spring.datasource.password}}") String password,
+                                       @Value("${datasource.replicas.max-pool-size:10}") int maxPoolSize,
+                                       @Value("${datasource.replicas.max-lag-bytes:16777216}") long maxLagBytes) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        // The pools are not beans, so Boot does not bind their hikaricp.* meters
+        primary.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        int number = 0;
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (++number));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setReadOnly(true);
+            replica.setLeakDetectionThreshold(primary.getLeakDetectionThreshold());
+            replica.setMetricRegistry(meterRegistry);
+            // Do not fail startup when a replica is down: it is simply left out until healthy
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRouter(primary, replicas, maxLagBytes, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaRouter));
+    }
+
+    @Bean
+    public ReplicaReadFilter replicaReadFilter(
+            @Value("${datasource.replicas.read-paths:/api/v1/products,/api/v1/providers}") String readPaths) {
+        return new ReplicaReadFilter(Arrays.stream(readPaths.split(",")).map(String::trim).filter(path -> !path.isEmpty()).toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.backend.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * DataSource view of the ReplicaRouter. Wrapped in a LazyConnectionDataSourceProxy so the physical
+ * connection is only requested once the transaction (and its read-only flag) has been set up.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaRouter router;
+
+    ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return router.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Checked, as the JDBC contract expects; the pooled targets do not support it either
+        throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by the replica router");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        // Lets pool metrics and health indicators reach the primary Hikari pool
+        if (iface.isInstance(router.primary())) {
+            return (T) router.primary();
+        }
+        return super.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(router.primary()) || super.isWrapperFor(iface);
+    }
+}
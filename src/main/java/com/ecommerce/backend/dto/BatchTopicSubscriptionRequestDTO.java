@@ -0,0 +1,37 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Setter
+@Getter
+public class BatchTopicSubscriptionRequestDTO {
+    @NotEmpty
+    @Size(max = 100000)
+    private List<@NotBlank String> deviceTokens = new ArrayList<>();
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotBlank String> topicNames = new ArrayList<>();
+
+    public List<String> getDeviceTokens() {
+        return deviceTokens;
+    }
+
+    public void setDeviceTokens(List<String> deviceTokens) {
+        this.deviceTokens = deviceTokens;
+    }
+
+    public List<String> getTopicNames() {
+        return topicNames;
+    }
+
+    public void setTopicNames(List<String> topicNames) {
+        this.topicNames = topicNames;
+    }
+}
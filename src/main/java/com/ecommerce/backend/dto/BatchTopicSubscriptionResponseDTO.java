@@ -0,0 +1,93 @@
+package com.ecommerce.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch topic (un)subscription: totals over all token/topic pairs plus the failed pairs.
+ */
+public class BatchTopicSubscriptionResponseDTO {
+
+    /**
+     * One token that could not be (un)subscribed from one topic.
+     */
+    public record TokenErrorDTO(String topicName, String deviceToken, String reason) {
+    }
+
+    private int topicCount;
+    private int tokenCount;
+    private int fcmCalls;
+    private long successCount;
+    private long failureCount;
+    private long elapsedMillis;
+    private List<TokenErrorDTO> errors;
+
+    public BatchTopicSubscriptionResponseDTO() {
+    }
+
+    public BatchTopicSubscriptionResponseDTO(int topicCount, int tokenCount, int fcmCalls, long successCount,
+                                             long elapsedMillis, List<TokenErrorDTO> errors) {
+        this.topicCount = topicCount;
+        this.tokenCount = tokenCount;
+        this.fcmCalls = fcmCalls;
+        this.successCount = successCount;
+        this.failureCount = errors.size();
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors;
+    }
+
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    public void setTopicCount(int topicCount) {
+        this.topicCount = topicCount;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public void setTokenCount(int tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    public int getFcmCalls() {
+        return fcmCalls;
+    }
+
+    public void setFcmCalls(int fcmCalls) {
+        this.fcmCalls = fcmCalls;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(long successCount) {
+        this.successCount = successCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(long failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<TokenErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<TokenErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
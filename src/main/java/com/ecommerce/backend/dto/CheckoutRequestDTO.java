@@ -0,0 +1,26 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The cart to check out; prices are taken from the products, never from the client.
+ */
+public class CheckoutRequestDTO {
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@Valid StockReservationItemDTO> items = new ArrayList<>();
+
+    public List<StockReservationItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockReservationItemDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class DeviceRegistrationRequestDTO {
+    @NotBlank
+    @Size(max = 512)
+    private String deviceToken;
+
+    @Pattern(regexp = "android|ios|web", message = "Platform must be one of android, ios, web")
+    private String platform;
+
+    public String getDeviceToken() {
+        return deviceToken;
+    }
+
+    public void setDeviceToken(String deviceToken) {
+        this.deviceToken = deviceToken;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+}
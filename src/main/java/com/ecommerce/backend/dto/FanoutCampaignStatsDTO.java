@@ -0,0 +1,143 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.notification.FanoutCampaign;
+
+import java.time.Instant;
+
+/**
+ * Delivery statistics of a multicast fan-out campaign.
+ */
+public class FanoutCampaignStatsDTO {
+
+    private String campaignId;
+    private boolean finished;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long totalTokens;
+    private long delivered;
+    private long failed;
+    private long retried;
+    private long chunksSent;
+    private double throughputPerSecond;
+    // Tokens FCM reported as permanently invalid; they are pruned from the device registry
+    private long invalidTokenCount;
+    // Set when FCM rejected the message itself (e.g. a malformed payload)
+    private String messageError;
+
+    public FanoutCampaignStatsDTO() {
+    }
+
+    /**
+     * Conversion constructor: snapshot of the campaign's current counters.
+     */
+    public FanoutCampaignStatsDTO(FanoutCampaign campaign) {
+        this.campaignId = campaign.getId();
+        this.finished = campaign.isFinished();
+        this.startedAt = campaign.getStartedAt();
+        this.finishedAt = campaign.getFinishedAt();
+        this.totalTokens = campaign.getTotalTokens();
+        this.delivered = campaign.getDelivered();
+        this.failed = campaign.getFailed();
+        this.retried = campaign.getRetried();
+        this.chunksSent = campaign.getChunksSent();
+        this.throughputPerSecond = campaign.getThroughputPerSecond();
+        this.invalidTokenCount = campaign.getInvalidTokenCount();
+        this.messageError = campaign.getMessageError();
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public void setCampaignId(String campaignId) {
+        this.campaignId = campaignId;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+
+    public void setTotalTokens(long totalTokens) {
+        this.totalTokens = totalTokens;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRetried() {
+        return retried;
+    }
+
+    public void setRetried(long retried) {
+        this.retried = retried;
+    }
+
+    public long getChunksSent() {
+        return chunksSent;
+    }
+
+    public void setChunksSent(long chunksSent) {
+        this.chunksSent = chunksSent;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public void setThroughputPerSecond(double throughputPerSecond) {
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public long getInvalidTokenCount() {
+        return invalidTokenCount;
+    }
+
+    public void setInvalidTokenCount(long invalidTokenCount) {
+        this.invalidTokenCount = invalidTokenCount;
+    }
+
+    public String getMessageError() {
+        return messageError;
+    }
+
+    public void setMessageError(String messageError) {
+        this.messageError = messageError;
+    }
+}
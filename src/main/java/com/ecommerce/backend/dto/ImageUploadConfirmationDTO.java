@@ -0,0 +1,20 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Sent by the client after a pre-signed upload completed, to attach the object to the entity.
+ */
+public class ImageUploadConfirmationDTO {
+
+    @NotBlank(message = "Object key is required")
+    private String objectKey;
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public void setObjectKey(String objectKey) {
+        this.objectKey = objectKey;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.notification.NotificationJob;
+import com.ecommerce.backend.notification.NotificationJobStatus;
+
+import java.time.Instant;
+
+/**
+ * Status of an accepted notification request, returned with 202 Accepted and by the job status endpoint.
+ */
+public class NotificationJobResponseDTO {
+
+    private String jobId;
+    private String channel;
+    private NotificationJobStatus status;
+    private Instant createdAt;
+    private Instant completedAt;
+    private String messageId;
+    private int successCount;
+    private int failureCount;
+    private String error;
+    private String errorCode;
+
+    public NotificationJobResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: snapshot of the job's current state.
+     */
+    public NotificationJobResponseDTO(NotificationJob job) {
+        this.jobId = job.getId();
+        this.channel = job.getChannel();
+        this.status = job.getStatus();
+        this.createdAt = job.getCreatedAt();
+        this.completedAt = job.getCompletedAt();
+        this.messageId = job.getMessageId();
+        this.successCount = job.getSuccessCount();
+        this.failureCount = job.getFailureCount();
+        this.error = job.getError();
+        this.errorCode = job.getErrorCode();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public NotificationJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(NotificationJobStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(int failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.backend.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,6 +17,9 @@ public class NotificationRequestDTO {
     private String body;
     private String image;
     private Map<String, String> data = new HashMap<>();
+    // Optional: messages with the same key for the same target are coalesced (only the latest is sent)
+    @Size(max = 64)
+    private String collapseKey;
 
     public String getTitle() {
         return title;
@@ -48,4 +52,12 @@ public class NotificationRequestDTO {
     public void setData(Map<String, String> data) {
         this.data = data;
     }
-}
\ No newline at end of file
+
+    public String getCollapseKey() {
+        return collapseKey;
+    }
+
+    public void setCollapseKey(String collapseKey) {
+        this.collapseKey = collapseKey;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.OrderItem;
+
+public class OrderItemDTO {
+
+    private Long productId;
+    private int quantity;
+    private int unitPrice;
+
+    public OrderItemDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO.
+     */
+    public OrderItemDTO(OrderItem item) {
+        this.productId = item.getProductId();
+        this.quantity = item.getQuantity();
+        this.unitPrice = item.getUnitPrice();
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(int unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
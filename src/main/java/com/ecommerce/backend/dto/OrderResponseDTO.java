@@ -0,0 +1,70 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.CustomerOrder;
+import com.ecommerce.backend.model.OrderStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+public class OrderResponseDTO {
+
+    private Long id;
+    private OrderStatus status;
+    private long totalAmount;
+    private Instant createdAt;
+    private List<OrderItemDTO> items;
+
+    public OrderResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO.
+     */
+    public OrderResponseDTO(CustomerOrder order) {
+        this.id = order.getId();
+        this.status = order.getStatus();
+        this.totalAmount = order.getTotalAmount();
+        this.createdAt = order.getCreatedAt();
+        this.items = order.getItems().stream().map(OrderItemDTO::new).toList();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public long getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(long totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<OrderItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDTO> items) {
+        this.items = items;
+    }
+}
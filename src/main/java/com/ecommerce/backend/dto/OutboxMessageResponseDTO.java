@@ -0,0 +1,102 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.model.OutboxStatus;
+
+import java.time.Instant;
+
+/**
+ * Delivery state of a notification recorded in the outbox.
+ */
+public class OutboxMessageResponseDTO {
+
+    private Long id;
+    private String kind;
+    private OutboxStatus status;
+    private int attempts;
+    private Instant createdAt;
+    private Instant availableAt;
+    private Instant processedAt;
+    private String lastError;
+
+    public OutboxMessageResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO (the payload is not echoed back).
+     */
+    public OutboxMessageResponseDTO(OutboxMessage message) {
+        this.id = message.getId();
+        this.kind = message.getKind();
+        this.status = message.getStatus();
+        this.attempts = message.getAttempts();
+        this.createdAt = message.getCreatedAt();
+        this.availableAt = message.getAvailableAt();
+        this.processedAt = message.getProcessedAt();
+        this.lastError = message.getLastError();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Instant availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
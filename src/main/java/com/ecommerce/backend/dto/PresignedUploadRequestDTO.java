@@ -0,0 +1,48 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Request body for asking a direct-to-storage upload URL for an entity image.
+ */
+public class PresignedUploadRequestDTO {
+
+    // Original file name, only used to keep the file extension
+    private String filename;
+
+    @NotBlank(message = "Content type is required")
+    @Pattern(regexp = "image/[A-Za-z0-9.+-]+", message = "Only image uploads are allowed")
+    private String contentType;
+
+    // Exact size of the file in bytes; the upload URL is only valid for a body of this length
+    @NotNull(message = "Content length is required")
+    @Positive(message = "Content length must be positive")
+    private Long contentLength;
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes a pre-signed upload: the client sends the image bytes with the given method,
+ * URL and headers directly to storage, then confirms the objectKey on the entity's image endpoint.
+ */
+public class PresignedUploadResponseDTO {
+
+    private String objectKey;
+    private String publicUrl;
+    private String uploadUrl;
+    private String method;
+    private Map<String, List<String>> headers;
+    private Instant expiresAt;
+
+    public PresignedUploadResponseDTO() {
+    }
+
+    public PresignedUploadResponseDTO(String objectKey, String publicUrl, String uploadUrl, String method,
+                                      Map<String, List<String>> headers, Instant expiresAt) {
+        this.objectKey = objectKey;
+        this.publicUrl = publicUrl;
+        this.uploadUrl = uploadUrl;
+        this.method = method;
+        this.headers = headers;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public void setObjectKey(String objectKey) {
+        this.objectKey = objectKey;
+    }
+
+    public String getPublicUrl() {
+        return publicUrl;
+    }
+
+    public void setPublicUrl(String publicUrl) {
+        this.publicUrl = publicUrl;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public void setUploadUrl(String uploadUrl) {
+        this.uploadUrl = uploadUrl;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, List<String>> headers) {
+        this.headers = headers;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
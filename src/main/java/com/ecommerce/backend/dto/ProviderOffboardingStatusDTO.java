@@ -0,0 +1,102 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.ProviderOffboarding;
+import com.ecommerce.backend.model.ProviderOffboardingStatus;
+
+import java.time.Instant;
+
+/**
+ * Progress of a provider offboarding.
+ */
+public class ProviderOffboardingStatusDTO {
+
+    private Long providerId;
+    private ProviderOffboardingStatus status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long productsDeleted;
+    private long productsArchived;
+    private long imagesDeleted;
+    private long imageFailures;
+
+    public ProviderOffboardingStatusDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO.
+     */
+    public ProviderOffboardingStatusDTO(ProviderOffboarding offboarding) {
+        this.providerId = offboarding.getProviderId();
+        this.status = offboarding.getStatus();
+        this.startedAt = offboarding.getStartedAt();
+        this.finishedAt = offboarding.getFinishedAt();
+        this.productsDeleted = offboarding.getProductsDeleted();
+        this.productsArchived = offboarding.getProductsArchived();
+        this.imagesDeleted = offboarding.getImagesDeleted();
+        this.imageFailures = offboarding.getImageFailures();
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public ProviderOffboardingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ProviderOffboardingStatus status) {
+        this.status = status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getProductsDeleted() {
+        return productsDeleted;
+    }
+
+    public void setProductsDeleted(long productsDeleted) {
+        this.productsDeleted = productsDeleted;
+    }
+
+    public long getProductsArchived() {
+        return productsArchived;
+    }
+
+    public void setProductsArchived(long productsArchived) {
+        this.productsArchived = productsArchived;
+    }
+
+    public long getImagesDeleted() {
+        return imagesDeleted;
+    }
+
+    public void setImagesDeleted(long imagesDeleted) {
+        this.imagesDeleted = imagesDeleted;
+    }
+
+    public long getImageFailures() {
+        return imageFailures;
+    }
+
+    public void setImageFailures(long imageFailures) {
+        this.imageFailures = imageFailures;
+    }
+}
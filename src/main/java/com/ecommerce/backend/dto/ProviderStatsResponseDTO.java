@@ -0,0 +1,59 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.stats.ProviderStats;
+
+/**
+ * Dashboard figures of a provider; inventoryValue is in the unit of the product prices.
+ */
+public class ProviderStatsResponseDTO {
+
+    private Long providerId;
+    private long productCount;
+    private long stockUnits;
+    private long inventoryValue;
+
+    public ProviderStatsResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: ProviderStats -> DTO.
+     */
+    public ProviderStatsResponseDTO(ProviderStats stats) {
+        this.providerId = stats.providerId();
+        this.productCount = stats.productCount();
+        this.stockUnits = stats.stockUnits();
+        this.inventoryValue = stats.inventoryValue();
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
+
+    public long getStockUnits() {
+        return stockUnits;
+    }
+
+    public void setStockUnits(long stockUnits) {
+        this.stockUnits = stockUnits;
+    }
+
+    public long getInventoryValue() {
+        return inventoryValue;
+    }
+
+    public void setInventoryValue(long inventoryValue) {
+        this.inventoryValue = inventoryValue;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.ScheduledNotification;
+import com.ecommerce.backend.model.ScheduledNotificationStatus;
+
+import java.time.Instant;
+
+/**
+ * State of a scheduled notification. Once DISPATCHED, delivery is tracked by the outbox message.
+ */
+public class ScheduledNotificationResponseDTO {
+
+    private Long id;
+    private String kind;
+    private Instant sendAt;
+    private ScheduledNotificationStatus status;
+    private Instant createdAt;
+    private Instant dispatchedAt;
+    private Long outboxMessageId;
+
+    public ScheduledNotificationResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO.
+     */
+    public ScheduledNotificationResponseDTO(ScheduledNotification notification) {
+        this.id = notification.getId();
+        this.kind = notification.getKind();
+        this.sendAt = notification.getSendAt();
+        this.status = notification.getStatus();
+        this.createdAt = notification.getCreatedAt();
+        this.dispatchedAt = notification.getDispatchedAt();
+        this.outboxMessageId = notification.getOutboxMessageId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public Instant getSendAt() {
+        return sendAt;
+    }
+
+    public void setSendAt(Instant sendAt) {
+        this.sendAt = sendAt;
+    }
+
+    public ScheduledNotificationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ScheduledNotificationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getDispatchedAt() {
+        return dispatchedAt;
+    }
+
+    public void setDispatchedAt(Instant dispatchedAt) {
+        this.dispatchedAt = dispatchedAt;
+    }
+
+    public Long getOutboxMessageId() {
+        return outboxMessageId;
+    }
+
+    public void setOutboxMessageId(Long outboxMessageId) {
+        this.outboxMessageId = outboxMessageId;
+    }
+}
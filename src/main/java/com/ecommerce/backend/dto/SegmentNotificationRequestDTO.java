@@ -0,0 +1,44 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Notification for every registered device matching the segment. Filters left empty are ignored,
+ * so an empty segment targets all devices seen within the activity window.
+ */
+@Setter
+@Getter
+public class SegmentNotificationRequestDTO extends NotificationRequestDTO {
+    // e.g. "ROLE_USER"
+    private String roleName;
+    private Long providerId;
+    // Only devices that registered / refreshed their token within this many days
+    @Positive
+    private Integer activeWithinDays;
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    public void setRoleName(String roleName) {
+        this.roleName = roleName;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public Integer getActiveWithinDays() {
+        return activeWithinDays;
+    }
+
+    public void setActiveWithinDays(Integer activeWithinDays) {
+        this.activeWithinDays = activeWithinDays;
+    }
+}
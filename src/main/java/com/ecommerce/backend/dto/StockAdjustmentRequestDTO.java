@@ -0,0 +1,20 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Stock to add (positive) or remove (negative) for a product.
+ */
+public class StockAdjustmentRequestDTO {
+
+    @NotNull
+    private Integer delta;
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
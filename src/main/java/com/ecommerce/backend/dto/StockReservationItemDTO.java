@@ -0,0 +1,45 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.StockReservation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One product line of a reservation (request and response).
+ */
+public class StockReservationItemDTO {
+
+    @NotNull
+    private Long productId;
+    @Min(1)
+    @Max(10000)
+    private int quantity;
+
+    public StockReservationItemDTO() {
+    }
+
+    /**
+     * Conversion constructor: Entity -> DTO.
+     */
+    public StockReservationItemDTO(StockReservation reservation) {
+        this.productId = reservation.getProductId();
+        this.quantity = reservation.getQuantity();
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
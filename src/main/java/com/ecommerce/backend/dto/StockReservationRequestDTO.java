@@ -0,0 +1,35 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StockReservationRequestDTO {
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@Valid StockReservationItemDTO> items = new ArrayList<>();
+    // Optional; the server default applies when missing
+    @Positive
+    private Long ttlSeconds;
+
+    public List<StockReservationItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockReservationItemDTO> items) {
+        this.items = items;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.model.StockReservationStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State of a reservation; all its lines share the status and expiry time.
+ */
+public class StockReservationResponseDTO {
+
+    private String reservationId;
+    private StockReservationStatus status;
+    private Instant expiresAt;
+    private List<StockReservationItemDTO> items;
+
+    public StockReservationResponseDTO() {
+    }
+
+    /**
+     * Conversion constructor: the lines of one reservation -> DTO.
+     */
+    public StockReservationResponseDTO(List<StockReservation> lines) {
+        StockReservation first = lines.get(0);
+        this.reservationId = first.getReservationId();
+        this.status = first.getStatus();
+        this.expiresAt = first.getExpiresAt();
+        this.items = lines.stream().map(StockReservationItemDTO::new).toList();
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public StockReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StockReservationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public List<StockReservationItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockReservationItemDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of the upload shard migration job.
+ */
+public class UploadMigrationStatusDTO {
+
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long scanned;
+    private long migrated;
+    private long skipped;
+    private long failed;
+    private String lastError;
+
+    public UploadMigrationStatusDTO() {
+    }
+
+    public UploadMigrationStatusDTO(boolean running, Instant startedAt, Instant finishedAt, long scanned,
+                                    long migrated, long skipped, long failed, String lastError) {
+        this.running = running;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.scanned = scanned;
+        this.migrated = migrated;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.lastError = lastError;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public void setScanned(long scanned) {
+        this.scanned = scanned;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public void setMigrated(long migrated) {
+        this.migrated = migrated;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class UserNotificationRequestDTO extends NotificationRequestDTO {
+    @NotNull
+    private Long userId;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.backend.instrumentation;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every DataSource bean with InstrumentedDataSource so per-request query statistics see
+ * all JDBC traffic, whatever opens the connection (Hibernate, JdbcTemplate, Flyway).
+ */
+@Component
+@ConditionalOnProperty(name = "instrumentation.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceInstrumentationPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return InstrumentedDataSource.wrap(dataSource);
+        }
+        return bean;
+    }
+}
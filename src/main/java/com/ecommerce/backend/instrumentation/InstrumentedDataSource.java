@@ -0,0 +1,184 @@
+package com.ecommerce.backend.instrumentation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+/**
+ * Wraps a DataSource so that connections, statements and result sets report to the
+ * QueryStatistics of the current thread. Connections report the time getConnection() waited
+ * and, on close, how long they were held.
+ *
+ * The wrappers are plain JDK proxies; unwrap() and isWrapperFor() go to the real objects so
+ * Hikari and Hibernate still see the driver's classes. When no statistics scope is open the
+ * only cost is the proxy call itself.
+ */
+public final class InstrumentedDataSource {
+
+    private InstrumentedDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        if (Proxy.isProxyClass(dataSource.getClass()) && Proxy.getInvocationHandler(dataSource) instanceof DataSourceHandler) {
+            return dataSource;
+        }
+        return proxy(DataSource.class, new DataSourceHandler(dataSource));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Common handling of the java.sql.Wrapper methods, which must see the real object.
+     */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        protected final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+                Class<?> type = (Class<?>) args[0];
+                if (name.equals("isWrapperFor")) {
+                    return type.isInstance(target) || (Boolean) invoke(target, method, args);
+                }
+                return type.isInstance(target) ? target : invoke(target, method, args);
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return handle(proxy, method, args);
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class DataSourceHandler extends DelegatingHandler {
+
+        DataSourceHandler(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("getConnection")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            Connection connection = (Connection) invoke(target, method, args);
+            long acquired = System.nanoTime();
+            QueryStatistics statistics = QueryStatistics.current();
+            if (statistics != null) {
+                statistics.recordConnectionAcquired(acquired - start);
+            }
+            return proxy(Connection.class, new ConnectionHandler(connection, statistics, acquired));
+        }
+    }
+
+    private static final class ConnectionHandler extends DelegatingHandler {
+
+        // Scope the connection was taken in (null if none), told how long it was held on close
+        private final QueryStatistics statistics;
+        private final long acquiredAt;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, QueryStatistics statistics, long acquiredAt) {
+            super(target);
+            this.statistics = statistics;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && !closed) {
+                closed = true;
+                if (statistics != null) {
+                    statistics.recordConnectionReleased(System.nanoTime() - acquiredAt);
+                }
+            }
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler extends DelegatingHandler {
+
+        // SQL of a prepared statement; plain statements pass it to execute*()
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            super(target);
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            QueryStatistics statistics = QueryStatistics.current();
+            Object result;
+            if (statistics != null && name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    result = invoke(target, method, args);
+                } finally {
+                    statistics.recordStatement(sql, System.nanoTime() - start);
+                }
+            } else {
+                result = invoke(target, method, args);
+            }
+            if (result instanceof ResultSet resultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler extends DelegatingHandler {
+
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryStatistics statistics = QueryStatistics.current();
+                if (statistics != null) {
+                    statistics.recordRow();
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.backend.instrumentation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC work done by one unit of work (usually one HTTP request): number of statements executed,
+ * rows read and time spent in the driver, plus how often each distinct SQL text ran, and the
+ * connections it took: time spent waiting for them and time they were held.
+ *
+ * Statistics are bound to the current thread by open() and filled in by the instrumented
+ * DataSource. Statements executed while no scope is open are not counted.
+ */
+public final class QueryStatistics {
+
+    // Bounds the memory one long-running scope can use for the per-statement counts
+    private static final int MAX_DISTINCT_STATEMENTS = 500;
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+    private long rows;
+    private long jdbcNanos;
+    private int connections;
+    private long connectionAcquireNanos;
+    private long connectionHoldNanos;
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    /**
+     * Binds statistics to the current thread. If a scope is already open (e.g. a test wrapping a
+     * MockMvc call) the new scope joins it and closing it leaves the outer one in place.
+     */
+    public static Scope open() {
+        QueryStatistics existing = CURRENT.get();
+        if (existing != null) {
+            return new Scope(existing, false);
+        }
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return new Scope(statistics, true);
+    }
+
+    /**
+     * @return the statistics of the current thread, or null if no scope is open.
+     */
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        queries++;
+        jdbcNanos += nanos;
+        if (sql != null && (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql))) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    void recordConnectionAcquired(long nanos) {
+        connections++;
+        connectionAcquireNanos += nanos;
+    }
+
+    void recordConnectionReleased(long heldNanos) {
+        connectionHoldNanos += heldNanos;
+    }
+
+    public int getQueries() { return queries; }
+    public long getRows() { return rows; }
+    public long getJdbcNanos() { return jdbcNanos; }
+    public int getConnections() { return connections; }
+    public long getConnectionAcquireNanos() { return connectionAcquireNanos; }
+    public long getConnectionHoldNanos() { return connectionHoldNanos; }
+    public Map<String, Integer> getStatementCounts() { return Map.copyOf(statementCounts); }
+
+    /**
+     * @return the SQL text executed most often in this scope, with its count.
+     */
+    public Optional<Map.Entry<String, Integer>> mostRepeatedStatement() {
+        return statementCounts.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+
+    public void reset() {
+        queries = 0;
+        rows = 0;
+        jdbcNanos = 0;
+        connections = 0;
+        connectionAcquireNanos = 0;
+        connectionHoldNanos = 0;
+        statementCounts.clear();
+    }
+
+    /**
+     * Unbinds the statistics from the thread when the scope that created them is closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final QueryStatistics statistics;
+        private final boolean owner;
+
+        private Scope(QueryStatistics statistics, boolean owner) {
+            this.statistics = statistics;
+            this.owner = owner;
+        }
+
+        public QueryStatistics statistics() {
+            return statistics;
+        }
+
+        @Override
+        public void close() {
+            if (owner) {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.backend.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the JDBC statistics of each HTTP request and records them per controller route:
+ *
+ * jdbc.request.queries{route, method}    statements executed per request
+ * jdbc.request.rows{route, method}       rows read per request
+ * jdbc.request.time{route, method}       time spent in the driver per request
+ * jdbc.request.n_plus_one{route, method} requests that repeated one statement at least the threshold
+ * jdbc.request.connection.acquire{route, method} time waiting for pooled connections per request
+ * jdbc.request.connection.hold{route, method}    time connections were held per request
+ *
+ * A route with a hold time well above its jdbc.request.time keeps connections while doing other
+ * work (e.g. serializing a lazy entity graph), and leaves fewer of them to the requests waiting.
+ *
+ * A request that runs the same SQL text threshold times or more is the usual sign of an N+1
+ * (a lazy association loaded row by row); it is logged with the offending statement.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "instrumentation.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    // Requests that did not reach a controller (static resources, rejected by security, 404)
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public QueryStatisticsFilter(MeterRegistry meterRegistry,
+                                 @Value("${instrumentation.jdbc.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryStatistics.Scope scope = QueryStatistics.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                record(request, scope.statistics());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern == null ? UNMATCHED_ROUTE : pattern.toString();
+        String method = request.getMethod();
+
+        DistributionSummary.builder("jdbc.request.queries")
+                .description("JDBC statements executed per HTTP request")
+                .tag("route", route)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getQueries());
+        DistributionSummary.builder("jdbc.request.rows")
+                .description("Rows read from JDBC result sets per HTTP request")
+                .tag("route", route)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("jdbc.request.time")
+                .description("Time spent executing JDBC statements per HTTP request")
+                .tag("route", route)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (statistics.getConnections() > 0) {
+            Timer.builder("jdbc.request.connection.acquire")
+                    .description("Time spent waiting for pooled connections per HTTP request")
+                    .tag("route", route)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(statistics.getConnectionAcquireNanos(), TimeUnit.NANOSECONDS);
+            Timer.builder("jdbc.request.connection.hold")
+                    .description("Time pooled connections were held per HTTP request")
+                    .tag("route", route)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(statistics.getConnectionHoldNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        statistics.mostRepeatedStatement()
+                .filter(statement -> statement.getValue() >= nPlusOneThreshold)
+                .ifPresent(statement -> reportNPlusOne(route, method, statistics, statement));
+    }
+
+    private void reportNPlusOne(String route, String method, QueryStatistics statistics, Map.Entry<String, Integer> statement) {
+        Counter.builder("jdbc.request.n_plus_one")
+                .description("Requests that executed the same statement at least the N+1 threshold")
+                .tag("route", route)
+                .tag("method", method)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Possible N+1 on {} {}: statement executed {} times ({} queries in total): {}",
+                method, route, statement.getValue(), statistics.getQueries(), statement.getKey());
+    }
+}
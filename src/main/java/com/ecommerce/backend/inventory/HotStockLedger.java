@@ -0,0 +1,235 @@
+package com.ecommerce.backend.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock for hot products, so their reservations do not all queue on one product row lock.
+ *
+ * The ledger leases blocks of stock from the database (the product row is decremented when the
+ * block is taken) and hands reservations out of it with a CAS on one of several stripes. A leased
+ * block is spread over all stripes, and a caller whose stripe runs short tries the others before it
+ * takes the product's lock; under the lock the stripes are gathered first, and only the shortfall is
+ * leased. Released reservations go back to the ledger. The flush returns whatever stock the ledger
+ * holds to the database in one update per product, so the product row lags by at most one flush
+ * interval.
+ *
+ * Overselling is impossible: the ledger only ever holds stock the database already gave up. If the
+ * node dies, the stock held in memory is lost until the quantity is corrected (undercounted, never
+ * oversold), which is why only a few explicitly configured products go through the ledger.
+ */
+@Slf4j
+@Component
+public class HotStockLedger {
+
+    private final InventoryStore inventoryStore;
+    // Leases and returns commit on their own, whatever happens to the reservation's transaction
+    private final TransactionTemplate independentTransaction;
+    private final boolean enabled;
+    private final Set<Long> hotProductIds;
+    private final int stripes;
+    private final int leaseSize;
+    private final Map<Long, Allowance> allowances = new ConcurrentHashMap<>();
+    private final Counter leases;
+
+    public HotStockLedger(InventoryStore inventoryStore,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${inventory.hot-ledger.enabled:false}") boolean enabled,
+                          @Value("${inventory.hot-ledger.product-ids:}") Set<Long> hotProductIds,
+                          @Value("${inventory.hot-ledger.stripes:8}") int stripes,
+                          @Value("${inventory.hot-ledger.lease-size:100}") int leaseSize) {
+        this.inventoryStore = inventoryStore;
+        this.independentTransaction = new TransactionTemplate(transactionManager);
+        this.independentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+        this.stripes = stripes;
+        this.leaseSize = leaseSize;
+        this.leases = Counter.builder("inventory.ledger.leases")
+                .description("Blocks of stock leased from the database by the hot-product ledger")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.held", allowances,
+                        all -> all.values().stream().mapToLong(Allowance::total).sum())
+                .description("Units of stock held in memory by the hot-product ledger")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(Long productId) {
+        return enabled && hotProductIds.contains(productId);
+    }
+
+    /**
+     * Takes the quantity from the ledger, leasing more stock from the database when needed.
+     * @return false if the product does not have that much stock left.
+     */
+    public boolean tryTake(Long productId, int quantity) {
+        Allowance allowance = allowances.computeIfAbsent(productId, id -> new Allowance(stripes));
+        if (allowance.tryTakeAny(allowance.homeStripe(), quantity)) {
+            return true;
+        }
+        // No single stripe holds enough. One lease per product at a time; the others wait and
+        // usually find the new block. A lock rather than synchronized: the lease is JDBC I/O, which
+        // would pin a virtual thread's carrier
+        allowance.lock.lock();
+        try {
+            if (allowance.tryTakeAny(allowance.homeStripe(), quantity)) {
+                return true;
+            }
+            // Gather what the stripes hold and only lease the shortfall
+            long total = allowance.drain();
+            if (total < quantity) {
+                int shortfall = (int) (quantity - total);
+                Integer leased = independentTransaction.execute(status ->
+                        inventoryStore.lease(productId, Math.max(shortfall, leaseSize)));
+                if (leased != null && leased > 0) {
+                    leases.increment();
+                    total += leased;
+                }
+            }
+            if (total >= quantity) {
+                allowance.spread(total - quantity);
+                return true;
+            }
+            allowance.spread(total);
+            return false;
+        } finally {
+            allowance.lock.unlock();
+        }
+    }
+
+    /**
+     * Puts released stock back into the ledger.
+     */
+    public void giveBack(Long productId, int quantity) {
+        Allowance allowance = allowances.computeIfAbsent(productId, id -> new Allowance(stripes));
+        allowance.add(allowance.homeStripe(), quantity);
+    }
+
+    /**
+     * Returns the stock held in memory to the product rows.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-ledger.flush-interval-ms:1000}")
+    public void flush() {
+        allowances.forEach((productId, allowance) -> {
+            long held;
+            allowance.lock.lock();
+            try {
+                held = allowance.drain();
+            } finally {
+                allowance.lock.unlock();
+            }
+            if (held == 0) {
+                return;
+            }
+            try {
+                independentTransaction.executeWithoutResult(status -> inventoryStore.increment(productId, (int) held));
+            } catch (RuntimeException e) {
+                // Keep the stock in memory and try again on the next flush
+                allowance.spread(held);
+                log.warn("Could not return {} units of product {} to the database: {}", held, productId, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Stock of one product held in memory, spread over stripes to keep CAS contention low.
+     */
+    private static final class Allowance {
+
+        private final AtomicLong[] stripes;
+        // Serializes leases and flushes of the product
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Allowance(int stripeCount) {
+            this.stripes = new AtomicLong[stripeCount];
+            Arrays.setAll(stripes, i -> new AtomicLong());
+        }
+
+        // A random stripe per call rather than one per thread: virtual threads are short-lived, and
+        // it spreads concurrent callers the same way without a deprecated thread id
+        int homeStripe() {
+            return ThreadLocalRandom.current().nextInt(stripes.length);
+        }
+
+        /**
+         * Takes the quantity from the first stripe, starting at the given one, that holds enough.
+         */
+        boolean tryTakeAny(int firstStripe, int quantity) {
+            for (int i = 0; i < stripes.length; i++) {
+                if (tryTake((firstStripe + i) % stripes.length, quantity)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean tryTake(int stripe, int quantity) {
+            AtomicLong cell = stripes[stripe];
+            long current;
+            do {
+                current = cell.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!cell.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        void add(int stripe, long quantity) {
+            stripes[stripe].addAndGet(quantity);
+        }
+
+        /**
+         * Adds the quantity evenly over all stripes, so callers on any stripe find stock.
+         */
+        void spread(long quantity) {
+            long share = quantity / stripes.length;
+            long remainder = quantity % stripes.length;
+            for (int i = 0; i < stripes.length; i++) {
+                long amount = share + (i < remainder ? 1 : 0);
+                if (amount > 0) {
+                    stripes[i].addAndGet(amount);
+                }
+            }
+        }
+
+        long drain() {
+            long total = 0;
+            for (AtomicLong cell : stripes) {
+                total += cell.getAndSet(0);
+            }
+            return total;
+        }
+
+        long total() {
+            long total = 0;
+            for (AtomicLong cell : stripes) {
+                total += cell.get();
+            }
+            return total;
+        }
+    }
+}
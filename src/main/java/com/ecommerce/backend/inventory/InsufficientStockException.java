@@ -0,0 +1,25 @@
+package com.ecommerce.backend.inventory;
+
+/**
+ * Thrown when a product does not have the requested quantity in stock (or does not exist).
+ * Nothing of the failed reservation stays reserved.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int requested;
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Insufficient stock for product " + productId + " (requested " + requested + ")");
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
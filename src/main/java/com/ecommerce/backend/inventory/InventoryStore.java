@@ -0,0 +1,148 @@
+package com.ecommerce.backend.inventory;
+
+import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.responsecache.ProductResponseCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Atomic changes of product.stock_quantity.
+ *
+ * Stock is never read, changed in memory and written back: every change is a single conditional
+ * UPDATE, so concurrent reservations cannot lose updates and a decrement that would go below zero
+ * simply matches no row. The statements go through JDBC in the caller's transaction rather than
+ * through Hibernate, so they do not invalidate the whole Product cache region; only the cached
+ * entries (and cached GET responses) of the changed products are evicted once the transaction
+ * committed.
+ *
+ * Every statement also filters on the product's provider_id, so on a partitioned product table (V8_1)
+ * it touches one partition instead of probing the id index of all of them. A product never changes
+ * provider, so the provider of each product is looked up once and kept in memory.
+ */
+@Component
+public class InventoryStore {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity - ? WHERE id = ? AND provider_id = ? AND stock_quantity >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ? AND provider_id = ?";
+    // Takes up to the requested amount, as much as there is
+    private static final String LEASE_SQL =
+            "UPDATE product p SET stock_quantity = p.stock_quantity - l.leased " +
+            "FROM (SELECT id, LEAST(?, stock_quantity) AS leased FROM product WHERE id = ? AND provider_id = ? FOR UPDATE) l " +
+            "WHERE p.id = l.id AND p.provider_id = ? AND l.leased > 0 " +
+            "RETURNING l.leased";
+    private static final String PROVIDER_SQL = "SELECT provider_id FROM product WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductResponseCache productResponseCache;
+    private final Cache<Long, Long> providerIds;
+
+    public InventoryStore(JdbcTemplate jdbcTemplate,
+                          EntityManagerFactory entityManagerFactory,
+                          ProductResponseCache productResponseCache,
+                          @Value("${inventory.provider-ids.max-size:100000}") long providerIdsMaxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.productResponseCache = productResponseCache;
+        this.providerIds = Caffeine.newBuilder().maximumSize(providerIdsMaxSize).build();
+    }
+
+    /**
+     * Takes the quantities of all lines in one JDBC batch.
+     * @throws InsufficientStockException for the first line that could not be taken; the caller's
+     *         transaction must then roll back, which restores the lines taken before it.
+     */
+    public void decrementAll(List<ReservationLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<Long> lineProviderIds = lines.stream().map(line -> providerOf(line.productId())).toList();
+        List<Object[]> arguments = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationLine line = lines.get(i);
+            arguments.add(new Object[]{line.quantity(), line.productId(), lineProviderIds.get(i), line.quantity()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, arguments);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new InsufficientStockException(lines.get(i).productId(), lines.get(i).quantity());
+            }
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            evictAfterCommit(lines.get(i).productId(), lineProviderIds.get(i));
+        }
+    }
+
+    public void increment(Long productId, int quantity) {
+        Long providerId = providerOf(productId);
+        jdbcTemplate.update(INCREMENT_SQL, quantity, productId, providerId);
+        evictAfterCommit(productId, providerId);
+    }
+
+    /**
+     * Adds (positive) or removes (negative) stock; a removal never takes the stock below zero.
+     * @return false if the product does not exist or has less stock than the removal.
+     */
+    public boolean adjust(Long productId, int delta) {
+        Long providerId = providerOf(productId);
+        if (providerId == null) {
+            return false;
+        }
+        int updated = delta >= 0
+                ? jdbcTemplate.update(INCREMENT_SQL, delta, productId, providerId)
+                : jdbcTemplate.update(DECREMENT_SQL, -delta, productId, providerId, -delta);
+        evictAfterCommit(productId, providerId);
+        return updated > 0;
+    }
+
+    /**
+     * Takes up to maxQuantity of the product's stock.
+     * @return the quantity taken (0 if the product has no stock left).
+     */
+    public int lease(Long productId, int maxQuantity) {
+        Long providerId = providerOf(productId);
+        if (providerId == null) {
+            return 0;
+        }
+        List<Integer> leased = jdbcTemplate.queryForList(LEASE_SQL, Integer.class, maxQuantity, productId, providerId, providerId);
+        evictAfterCommit(productId, providerId);
+        return leased.isEmpty() ? 0 : leased.get(0);
+    }
+
+    /**
+     * @return the product's provider, or null if the product does not exist (not remembered, so a
+     *         product created later is found).
+     */
+    private Long providerOf(Long productId) {
+        return providerIds.get(productId, id ->
+                DataAccessUtils.singleResult(jdbcTemplate.queryForList(PROVIDER_SQL, Long.class, id)));
+    }
+
+    private void evictAfterCommit(Long productId, Long providerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(Product.class, productId);
+                }
+            });
+        } else {
+            entityManagerFactory.getCache().evict(Product.class, productId);
+        }
+        // After the entity cache eviction, so no response can be rebuilt from the stale entity once
+        // it is dropped. Stock is in the product response and in the provider's product list.
+        productResponseCache.invalidateProductAfterCommit(productId, providerId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.backend.inventory;
+
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.model.StockReservationStatus;
+import com.ecommerce.backend.repository.StockReservationRepository;
+import com.ecommerce.backend.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Gives the stock of reservations that were neither committed nor released back once their TTL
+ * passed. Every node runs the job; SKIP LOCKED keeps them (and concurrent commits) apart.
+ */
+@Slf4j
+@Component
+public class ReservationExpiryJob {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ReservationExpiryJob(StockReservationRepository stockReservationRepository,
+                                InventoryService inventoryService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${inventory.reservations.expiry-batch-size:500}") int batchSize) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.expiry-interval-ms:10000}")
+    public void expireReservations() {
+        int expired;
+        int total = 0;
+        do {
+            expired = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                List<StockReservation> lines = stockReservationRepository.lockExpired(now, batchSize);
+                inventoryService.returnStock(lines, StockReservationStatus.EXPIRED, now);
+                return lines.size();
+            });
+            total += expired;
+        } while (expired == batchSize);
+        if (total > 0) {
+            log.info("Expired {} reservation lines", total);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.backend.inventory;
+
+/**
+ * A quantity of one product to reserve.
+ */
+public record ReservationLine(Long productId, int quantity) {
+
+    public ReservationLine {
+        if (productId == null || quantity <= 0) {
+            throw new IllegalArgumentException("A reservation line needs a product and a positive quantity");
+        }
+    }
+}
@@ -14,6 +14,7 @@ public class ProductMapper {
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
         dto.setProductImageUrl(product.getProductImageUrl());
+        dto.setStockQuantity(product.getStockQuantity());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity representing the 'device_token' table: the FCM registration tokens of a user's devices.
+ * A token belongs to at most one user (unique), so re-registering a device moves it to the new user.
+ */
+@Entity
+@Table(name = "device_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_device_token_token", columnNames = "token"),
+        // Recipient resolution walks tokens per user in id order (keyset pagination)
+        indexes = @Index(name = "idx_device_token_user_id", columnList = "user_id, id"))
+public class DeviceToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "token", nullable = false, length = 512)
+    private String token;
+
+    // e.g. "android", "ios", "web"
+    @Column(name = "platform", length = 32)
+    private String platform;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private Instant lastSeenAt;
+
+    // --- Getters and Setters ---
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public String getPlatform() { return platform; }
+    public void setPlatform(String platform) { this.platform = platform; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(Instant lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * JPA Entity representing the 'order_items' table: one product line of an order, with the price
+ * the product had at checkout.
+ */
+@Entity
+@Table(name = "order_items",
+        indexes = @Index(name = "idx_order_items_order_id", columnList = "order_id"))
+public class OrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_seq")
+    @SequenceGenerator(name = "order_items_id_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private CustomerOrder order;
+
+    // Plain id: checkout prices lines with a projection and never loads the product entity
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "unit_price", nullable = false)
+    private int unitPrice;
+
+    // --- Getters and Setters ---
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public CustomerOrder getOrder() { return order; }
+    public void setOrder(CustomerOrder order) { this.order = order; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public int getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(int unitPrice) { this.unitPrice = unitPrice; }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.backend.model;
+
+public enum OrderStatus {
+    // Priced, stock taken, awaiting payment / fulfilment
+    PLACED
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity representing the 'outbox_message' table: work (notifications, domain events) recorded
+ * in the same transaction as the business change that caused it and delivered afterwards by the OutboxRelay.
+ */
+@Entity
+@Table(name = "outbox_message",
+        // The relay looks for due messages by status and due time
+        indexes = @Index(name = "idx_outbox_message_status_available_at", columnList = "status, available_at"))
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Selects the OutboxHandler, e.g. "notification.device"
+    @Column(name = "kind", nullable = false, length = 64)
+    private String kind;
+
+    // JSON document understood by the handler of the kind
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Not delivered before this time (used for retry backoff)
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    // While IN_FLIGHT: after this time another node may claim the message again
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Checkpoint of a delivery in steps (e.g. a fan-out's recipient batches); a retry continues after it
+    @Column(name = "progress", nullable = false)
+    private long progress;
+
+    // User whose request recorded the message; null for background work (e.g. scheduled sends)
+    @Column(name = "submitted_by")
+    private String submittedBy;
+
+    // --- Getters and Setters ---
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public OutboxStatus getStatus() { return status; }
+    public void setStatus(OutboxStatus status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getAvailableAt() { return availableAt; }
+    public void setAvailableAt(Instant availableAt) { this.availableAt = availableAt; }
+
+    public Instant getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public Instant getProcessedAt() { return processedAt; }
+    public void setProcessedAt(Instant processedAt) { this.processedAt = processedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public long getProgress() { return progress; }
+    public void setProgress(long progress) { this.progress = progress; }
+
+    public String getSubmittedBy() { return submittedBy; }
+    public void setSubmittedBy(String submittedBy) { this.submittedBy = submittedBy; }
+}
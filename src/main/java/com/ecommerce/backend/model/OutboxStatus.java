@@ -0,0 +1,11 @@
+package com.ecommerce.backend.model;
+
+public enum OutboxStatus {
+    // Waiting for a relay (again, after a retryable failure)
+    PENDING,
+    // Claimed by a relay node until its lease expires
+    IN_FLIGHT,
+    SENT,
+    // Gave up after the maximum number of attempts
+    FAILED
+}
@@ -1,8 +1,12 @@
 package com.ecommerce.backend.model;
 
+import com.ecommerce.backend.responsecache.ProductResponseCacheListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.PartitionKey;
 
 /**
  * JPA Entity representing the 'product' table in the PostgreSQL database.
@@ -10,7 +14,10 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@EntityListeners(ProductResponseCacheListener.class)
 public class Product {
 
     @Id
@@ -28,7 +35,8 @@ public class Product {
     // Use BigDecimal for accurate currency storage
     private int price;
 
-    @Column(name = "stock_quantity", nullable = false)
+    // Changed only through InventoryStore's atomic updates, never by writing the entity back
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     private Integer stockQuantity;
 
     @Column(name = "product_image_url")
@@ -39,6 +47,13 @@ public class Product {
     @JsonIgnore
     private Provider provider;
 
+    // Read-only copy of the provider column. As the partition key it is added to Hibernate's UPDATE
+    // and DELETE statements, which then touch one partition when product is partitioned (V8_1)
+    @PartitionKey
+    @Column(name = "provider_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long providerId;
+
     public Product() {
     }
 
@@ -49,7 +64,7 @@ public class Product {
         this.price = price;
         this.stockQuantity = stockQuantity;
         this.productImageUrl = productImageUrl;
-        this.provider = provider;
+        setProvider(provider);
     }
     // --- Getters and Setters ---
 
@@ -59,6 +74,11 @@ public class Product {
 
     public void setProvider(Provider provider) {
         this.provider = provider;
+        this.providerId = provider == null ? null : provider.getId();
+    }
+
+    public Long getProviderId() {
+        return providerId;
     }
 
     public Long getId() {
@@ -3,10 +3,15 @@ package com.ecommerce.backend.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
 @Table(name = "provider")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "provider")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Provider {
 
@@ -28,6 +33,11 @@ public class Provider {
     @Column(name = "profile_image_url")
     private String profileImageUrl;
 
+    // Set when the provider is offboarded; soft-deleted providers and their products are hidden from reads.
+    // Only written by ProviderRepository.softDelete, so saving a stale copy cannot undo it
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private Instant deletedAt;
+
     public Provider() {
     }
 
@@ -78,6 +88,14 @@ public class Provider {
         this.profileImageUrl = profileImageUrl;
     }
 
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     // --- Equals and HashCode (Best practice for JPA entities) ---
 
     @Override
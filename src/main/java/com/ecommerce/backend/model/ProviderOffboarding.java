@@ -0,0 +1,74 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity representing the 'provider_offboarding' table: progress of removing the products
+ * of a soft-deleted provider. Kept after completion as a record of what was removed.
+ */
+@Entity
+@Table(name = "provider_offboarding")
+public class ProviderOffboarding {
+
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ProviderOffboardingStatus status;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "last_product_id", nullable = false)
+    private long lastProductId;
+
+    @Column(name = "products_deleted", nullable = false)
+    private long productsDeleted;
+
+    // Products referenced by orders are kept with no stock
+    @Column(name = "products_archived", nullable = false)
+    private long productsArchived;
+
+    @Column(name = "images_deleted", nullable = false)
+    private long imagesDeleted;
+
+    // Left to the orphaned-upload sweeper
+    @Column(name = "image_failures", nullable = false)
+    private long imageFailures;
+
+    // --- Getters and Setters ---
+
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+
+    public ProviderOffboardingStatus getStatus() { return status; }
+    public void setStatus(ProviderOffboardingStatus status) { this.status = status; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getLastProductId() { return lastProductId; }
+    public void setLastProductId(long lastProductId) { this.lastProductId = lastProductId; }
+
+    public long getProductsDeleted() { return productsDeleted; }
+    public void setProductsDeleted(long productsDeleted) { this.productsDeleted = productsDeleted; }
+
+    public long getProductsArchived() { return productsArchived; }
+    public void setProductsArchived(long productsArchived) { this.productsArchived = productsArchived; }
+
+    public long getImagesDeleted() { return imagesDeleted; }
+    public void setImagesDeleted(long imagesDeleted) { this.imagesDeleted = imagesDeleted; }
+
+    public long getImageFailures() { return imageFailures; }
+    public void setImageFailures(long imageFailures) { this.imageFailures = imageFailures; }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.backend.model;
+
+public enum ProviderOffboardingStatus {
+    // Products are being removed in batches
+    RUNNING,
+    // No products left; the provider row stays, soft-deleted
+    COMPLETED
+}
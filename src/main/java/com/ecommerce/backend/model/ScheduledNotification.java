@@ -0,0 +1,70 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity representing the 'scheduled_notification' table: a notification request to be sent at
+ * a later time. When due it is moved into the outbox, which delivers it.
+ */
+@Entity
+@Table(name = "scheduled_notification",
+        // Startup / horizon loading looks for pending items by send time
+        indexes = @Index(name = "idx_scheduled_notification_status_send_at", columnList = "status, send_at"))
+public class ScheduledNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Outbox kind used at send time, e.g. "notification.topic"
+    @Column(name = "kind", nullable = false, length = 64)
+    private String kind;
+
+    // The notification request as JSON
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "send_at", nullable = false)
+    private Instant sendAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ScheduledNotificationStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "dispatched_at")
+    private Instant dispatchedAt;
+
+    @Column(name = "outbox_message_id")
+    private Long outboxMessageId;
+
+    // --- Getters and Setters ---
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Instant getSendAt() { return sendAt; }
+    public void setSendAt(Instant sendAt) { this.sendAt = sendAt; }
+
+    public ScheduledNotificationStatus getStatus() { return status; }
+    public void setStatus(ScheduledNotificationStatus status) { this.status = status; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getDispatchedAt() { return dispatchedAt; }
+    public void setDispatchedAt(Instant dispatchedAt) { this.dispatchedAt = dispatchedAt; }
+
+    public Long getOutboxMessageId() { return outboxMessageId; }
+    public void setOutboxMessageId(Long outboxMessageId) { this.outboxMessageId = outboxMessageId; }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.backend.model;
+
+public enum ScheduledNotificationStatus {
+    // Waiting for its send time
+    SCHEDULED,
+    // Handed over to the outbox for delivery
+    DISPATCHED,
+    CANCELLED
+}
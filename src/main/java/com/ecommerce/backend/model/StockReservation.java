@@ -0,0 +1,81 @@
+package com.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity representing the 'stock_reservation' table: one product line of a reservation.
+ * The stock is taken from product.stock_quantity when the reservation is made; releasing or
+ * expiring it gives the stock back, committing keeps it taken.
+ */
+@Entity
+@Table(name = "stock_reservation",
+        indexes = {
+                @Index(name = "idx_stock_reservation_reservation_id", columnList = "reservation_id"),
+                // The expiry job looks for active reservations past their expiry time
+                @Index(name = "idx_stock_reservation_status_expires_at", columnList = "status, expires_at")
+        })
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Shared by all lines reserved together (UUID)
+    @Column(name = "reservation_id", nullable = false, length = 36)
+    private String reservationId;
+
+    // Plain id rather than an association: reserving never needs the product entity
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private StockReservationStatus status;
+
+    // Taken from the in-memory hot-product ledger instead of the product row
+    @Column(name = "from_ledger", nullable = false)
+    private boolean fromLedger;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    // --- Getters and Setters ---
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getReservationId() { return reservationId; }
+    public void setReservationId(String reservationId) { this.reservationId = reservationId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public StockReservationStatus getStatus() { return status; }
+    public void setStatus(StockReservationStatus status) { this.status = status; }
+
+    public boolean isFromLedger() { return fromLedger; }
+    public void setFromLedger(boolean fromLedger) { this.fromLedger = fromLedger; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+}
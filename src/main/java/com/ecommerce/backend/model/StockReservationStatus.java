@@ -0,0 +1,11 @@
+package com.ecommerce.backend.model;
+
+public enum StockReservationStatus {
+    // Stock is held for the reservation until it is committed, released or expires
+    ACTIVE,
+    // The sale went through; the stock stays taken
+    COMMITTED,
+    RELEASED,
+    // Not committed before expires_at; the stock went back to the product
+    EXPIRED
+}
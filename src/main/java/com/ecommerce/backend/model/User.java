@@ -1,6 +1,8 @@
 package com.ecommerce.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Set;
 
 @Entity
@@ -21,6 +23,7 @@ public class User {
     private Long providerId;
 
     @ManyToMany(fetch = FetchType.EAGER) // Fetch roles immediately
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
     @JoinTable(
             name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
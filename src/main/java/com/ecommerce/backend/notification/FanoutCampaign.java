@@ -0,0 +1,207 @@
+package com.ecommerce.backend.notification;
+
+import com.google.firebase.messaging.MulticastMessage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * One fan-out of the same notification to many device tokens, with live delivery statistics.
+ * Counters are updated concurrently by FCM callbacks of the individual chunks.
+ *
+ * Tokens arrive in batches (one per dispatch() call), each with a position in the audience: the
+ * token count so far for a list, the last device-token id for a keyset-paged query. Once a batch
+ * and every earlier one finished, its position is reported as a checkpoint, so a later attempt of
+ * the same fan-out can continue after it. A batch whose tokens gave up on transient errors stops
+ * the checkpoints: a later attempt sends it again, together with everything after it.
+ */
+public class FanoutCampaign {
+
+    private final String id;
+    // The campaign's job, whose owners may read its statistics
+    private final NotificationJob job;
+    private final Function<List<String>, MulticastMessage> messageFactory;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    // Set when FCM rejected the message itself (INVALID_ARGUMENT): the campaign's job fails
+    private volatile String messageError;
+
+    final AtomicLong totalTokens = new AtomicLong();
+    final AtomicLong delivered = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicLong retried = new AtomicLong();
+    final AtomicLong chunksSent = new AtomicLong();
+    final Queue<String> invalidTokens = new ConcurrentLinkedQueue<>();
+
+    // Chunks handed to FCM (or waiting for a retry) that have not completed yet
+    final AtomicInteger pendingChunks = new AtomicInteger();
+    final AtomicBoolean submissionComplete = new AtomicBoolean();
+    private final CompletableFuture<FanoutCampaign> completion = new CompletableFuture<>();
+
+    // Batches whose checkpoint was not reported yet, in dispatch order; guarded by this
+    private final Deque<Batch> openBatches = new ArrayDeque<>();
+    private final LongConsumer checkpoints;
+    private boolean checkpointsStopped;
+
+    /**
+     * The chunks of one dispatch() call.
+     */
+    static final class Batch {
+        private final long position;
+        // Chunks not finished yet, including scheduled retries
+        final AtomicInteger pendingChunks;
+        volatile boolean retriesExhausted;
+
+        private Batch(long position, int chunks) {
+            this.position = position;
+            this.pendingChunks = new AtomicInteger(chunks);
+        }
+    }
+
+    FanoutCampaign(NotificationJob job, Function<List<String>, MulticastMessage> messageFactory, LongConsumer checkpoints) {
+        this.id = job.getId();
+        this.job = job;
+        this.messageFactory = messageFactory;
+        this.checkpoints = checkpoints;
+    }
+
+    MulticastMessage messageFor(List<String> tokens) {
+        return messageFactory.apply(tokens);
+    }
+
+    synchronized Batch openBatch(long position, int chunks) {
+        Batch batch = new Batch(position, chunks);
+        if (!checkpointsStopped) {
+            openBatches.add(batch);
+            if (chunks == 0) {
+                advanceCheckpoint();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Called once per finished chunk of the batch, after a retry of its tokens was scheduled.
+     */
+    void chunkFinished(Batch batch) {
+        if (batch.pendingChunks.decrementAndGet() == 0) {
+            synchronized (this) {
+                advanceCheckpoint();
+            }
+        }
+    }
+
+    private void advanceCheckpoint() {
+        Long reached = null;
+        Batch head;
+        while ((head = openBatches.peek()) != null && head.pendingChunks.get() == 0) {
+            if (head.retriesExhausted) {
+                checkpointsStopped = true;
+                openBatches.clear();
+                break;
+            }
+            openBatches.poll();
+            reached = head.position;
+        }
+        if (reached != null) {
+            checkpoints.accept(reached);
+        }
+    }
+
+    /**
+     * Completes the campaign once all tokens were submitted and every chunk finished.
+     * @return true for the one call that actually completed it.
+     */
+    boolean completeIfDone() {
+        if (submissionComplete.get() && pendingChunks.get() == 0 && !completion.isDone()) {
+            finishedAt = Instant.now();
+            return completion.complete(this);
+        }
+        return false;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isOwnedBy(String username) {
+        return job.isOwnedBy(username);
+    }
+
+    public CompletableFuture<FanoutCampaign> completion() {
+        return completion;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return completion.isDone();
+    }
+
+    public long getTotalTokens() {
+        return totalTokens.get();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getChunksSent() {
+        return chunksSent.get();
+    }
+
+    public List<String> getInvalidTokens() {
+        return List.copyOf(invalidTokens);
+    }
+
+    public int getInvalidTokenCount() {
+        return invalidTokens.size();
+    }
+
+    void rejectMessage(String error) {
+        if (messageError == null) {
+            messageError = error;
+        }
+    }
+
+    /**
+     * @return why FCM rejected the message itself, or null if it did not.
+     */
+    public String getMessageError() {
+        return messageError;
+    }
+
+    /**
+     * Deliveries per second since the campaign started (until it finished).
+     */
+    public double getThroughputPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return delivered.get() * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.backend.notification;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel (Varghese and Lauck): a ring of buckets, one per tick. A timeout goes into
+ * the bucket of its deadline tick modulo the ring size, so scheduling is O(1) however many
+ * timeouts are pending. A single worker thread visits one bucket per tick and hands every
+ * timeout that expired at that tick to the consumer as one batch. Timeouts further away than one
+ * revolution share buckets with nearer ones and are skipped until their revolution comes.
+ *
+ * Deadlines are rounded up to the tick; a deadline in the past fires on the next tick.
+ */
+@Slf4j
+class HashedTimerWheel<T> {
+
+    private record Timeout<T>(T value, long deadlineTick) {
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    // Each bucket is guarded by its own monitor
+    private final List<Timeout<T>>[] buckets;
+    private final Consumer<List<T>> expiredConsumer;
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    // The next tick the worker will process; only ever increases
+    private volatile long currentTick;
+
+    /**
+     * @param wheelSize Number of buckets, rounded up to a power of two.
+     * @param expiredConsumer Receives each batch of expired values on the worker thread; must not block for long.
+     */
+    @SuppressWarnings("unchecked")
+    HashedTimerWheel(String name, Duration tick, int wheelSize, Consumer<List<T>> expiredConsumer) {
+        this.tickNanos = tick.toNanos();
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.expiredConsumer = expiredConsumer;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    void start() {
+        worker.start();
+    }
+
+    void stop() {
+        worker.interrupt();
+    }
+
+    void schedule(T value, Instant deadline) {
+        long delayNanos = Duration.between(Instant.now(), deadline).toNanos();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        // Round up: never fire before the deadline
+        long deadlineTick = Math.max(0, (elapsedNanos + Math.max(0, delayNanos) + tickNanos - 1) / tickNanos);
+        while (true) {
+            List<Timeout<T>> bucket = buckets[(int) (deadlineTick & mask)];
+            synchronized (bucket) {
+                // Read under the bucket lock: the worker advances past a tick while holding its bucket
+                long tick = currentTick;
+                if (deadlineTick < tick) {
+                    deadlineTick = tick;
+                    continue;
+                }
+                bucket.add(new Timeout<>(value, deadlineTick));
+                return;
+            }
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long waitNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            try {
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<T> expired = new ArrayList<>();
+            List<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                Iterator<Timeout<T>> iterator = bucket.iterator();
+                while (iterator.hasNext()) {
+                    Timeout<T> timeout = iterator.next();
+                    if (timeout.deadlineTick() <= tick) {
+                        expired.add(timeout.value());
+                        iterator.remove();
+                    }
+                }
+                currentTick = tick + 1;
+            }
+            if (!expired.isEmpty()) {
+                try {
+                    expiredConsumer.accept(expired);
+                } catch (RuntimeException e) {
+                    log.error("Timer wheel consumer failed for {} timeouts", expired.size(), e);
+                }
+            }
+            tick++;
+        }
+    }
+}
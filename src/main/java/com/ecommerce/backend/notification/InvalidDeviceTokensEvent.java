@@ -0,0 +1,10 @@
+package com.ecommerce.backend.notification;
+
+import java.util.List;
+
+/**
+ * Published when FCM reported device tokens as permanently invalid (unregistered app,
+ * malformed token, wrong sender). Listeners should stop sending to them.
+ */
+public record InvalidDeviceTokensEvent(String campaignId, List<String> tokens) {
+}
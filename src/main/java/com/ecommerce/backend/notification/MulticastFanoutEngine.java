@@ -0,0 +1,289 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.notification.transport.PushSendResult;
+import com.ecommerce.backend.notification.transport.PushTransport;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.messaging.MulticastMessage;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Sends one notification to any number of device tokens.
+ *
+ * Token lists are split into chunks of at most FCM's multicast limit (500) and sent with
+ * the transport's sendEachForMulticast, with a bounded number of chunks in flight. Tokens that failed with a
+ * transient error (UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED) are re-sent with jittered exponential
+ * backoff; tokens FCM reports as permanently invalid (UNREGISTERED, SENDER_ID_MISMATCH) are
+ * collected and published as an InvalidDeviceTokensEvent so they can be pruned. INVALID_ARGUMENT
+ * rejects the message, not the token: no token is pruned for it and the campaign's job fails.
+ */
+@Slf4j
+@Component
+public class MulticastFanoutEngine {
+
+    // FCM rejects multicast messages with more tokens than this
+    public static final int FCM_MULTICAST_LIMIT = 500;
+
+    private final PushTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationMetrics metrics;
+    private final int chunkSize;
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final Duration retention;
+    private final Semaphore chunkPermits;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, FanoutCampaign> campaigns = new ConcurrentHashMap<>();
+
+    public MulticastFanoutEngine(PushTransport transport,
+                                 ApplicationEventPublisher eventPublisher,
+                                 NotificationMetrics metrics,
+                                 @Value("${notifications.fanout.chunk-size:500}") int chunkSize,
+                                 @Value("${notifications.fanout.max-parallel-chunks:8}") int maxParallelChunks,
+                                 @Value("${notifications.fanout.max-retries:4}") int maxRetries,
+                                 @Value("${notifications.fanout.base-backoff-ms:500}") long baseBackoffMs,
+                                 @Value("${notifications.fanout.max-backoff-ms:30000}") long maxBackoffMs,
+                                 @Value("${notifications.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.chunkSize = Math.min(chunkSize, FCM_MULTICAST_LIMIT);
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.chunkPermits = new Semaphore(maxParallelChunks);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-fanout-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("notifications.fanout.chunks.in_flight", chunkPermits, permits -> maxParallelChunks - permits.availablePermits())
+                .description("Multicast chunks awaiting the push service's answer")
+                .register(metrics.registry());
+        Gauge.builder("notifications.fanout.campaigns.active", campaigns,
+                        all -> all.values().stream().filter(campaign -> !campaign.isFinished()).count())
+                .description("Fan-out campaigns still sending")
+                .register(metrics.registry());
+    }
+
+    /**
+     * Creates a campaign; tokens are then added with dispatch() and the campaign closed with finishSubmission().
+     *
+     * @param job The notification job; the campaign has its id and its owners.
+     * @param messageFactory Builds the multicast message for one chunk of tokens.
+     * @param checkpoints Receives the position of every batch that finished together with all earlier ones.
+     */
+    public FanoutCampaign launch(NotificationJob job, Function<List<String>, MulticastMessage> messageFactory,
+                                 LongConsumer checkpoints) {
+        FanoutCampaign campaign = new FanoutCampaign(job, messageFactory, checkpoints);
+        campaigns.put(campaign.getId(), campaign);
+        return campaign;
+    }
+
+    /**
+     * Splits the tokens into chunks and sends them. Blocks the calling (dispatch) thread while the
+     * maximum number of chunks is in flight, which throttles how fast large audiences are read.
+     *
+     * @param position Position of the batch's last token in the audience, reported as the campaign's
+     *                 checkpoint once the batch and all earlier ones finished.
+     */
+    public void dispatch(FanoutCampaign campaign, List<String> tokens, long position) throws InterruptedException {
+        campaign.totalTokens.addAndGet(tokens.size());
+        FanoutCampaign.Batch batch = campaign.openBatch(position, (tokens.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> chunk = List.copyOf(tokens.subList(from, Math.min(from + chunkSize, tokens.size())));
+            chunkPermits.acquire();
+            campaign.pendingChunks.incrementAndGet();
+            sendChunk(campaign, batch, chunk, 0);
+        }
+    }
+
+    /**
+     * Marks that no more tokens will be added; the campaign completes once its last chunk finished.
+     */
+    public void finishSubmission(FanoutCampaign campaign) {
+        campaign.submissionComplete.set(true);
+        completeIfDone(campaign);
+    }
+
+    public Optional<FanoutCampaign> find(String id) {
+        return Optional.ofNullable(campaigns.get(id));
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.jobs.cleanup-interval-ms:60000}")
+    public void evictFinishedCampaigns() {
+        Instant cutoff = Instant.now().minus(retention);
+        campaigns.values().removeIf(campaign -> campaign.isFinished() && campaign.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * Sends one chunk. The caller holds a chunk permit, which is released when FCM answered.
+     */
+    private void sendChunk(FanoutCampaign campaign, FanoutCampaign.Batch batch, List<String> tokens, int attempt) {
+        ApiFuture<List<PushSendResult>> future;
+        long startNanos = System.nanoTime();
+        try {
+            campaign.chunksSent.incrementAndGet();
+            future = transport.sendEachForMulticast(campaign.messageFor(tokens), tokens);
+        } catch (RuntimeException e) {
+            chunkPermits.release();
+            onChunkFailure(campaign, batch, tokens, attempt, e);
+            return;
+        }
+        ApiFutures.addCallback(future, new ApiFutureCallback<List<PushSendResult>>() {
+            @Override
+            public void onSuccess(List<PushSendResult> response) {
+                chunkPermits.release();
+                metrics.recordChunkLatency(true, System.nanoTime() - startNanos);
+                onChunkResponse(campaign, batch, tokens, attempt, response);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                chunkPermits.release();
+                metrics.recordChunkLatency(false, System.nanoTime() - startNanos);
+                onChunkFailure(campaign, batch, tokens, attempt, t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void onChunkResponse(FanoutCampaign campaign, FanoutCampaign.Batch batch, List<String> tokens, int attempt,
+                                 List<PushSendResult> responses) {
+        List<String> retryTokens = new ArrayList<>();
+        Map<PushErrorCode, Integer> errorCounts = new EnumMap<>(PushErrorCode.class);
+        long delivered = 0;
+        // Responses are in the same order as the tokens of the message
+        for (int i = 0; i < responses.size(); i++) {
+            PushSendResult sendResponse = responses.get(i);
+            if (sendResponse.isSuccessful()) {
+                delivered++;
+                continue;
+            }
+            PushErrorCode errorCode = sendResponse.errorCode();
+            errorCounts.merge(errorCode, 1, Integer::sum);
+            if (errorCode.isTransient()) {
+                retryTokens.add(tokens.get(i));
+            } else {
+                campaign.failed.incrementAndGet();
+                if (errorCode.isInvalidToken()) {
+                    campaign.invalidTokens.add(tokens.get(i));
+                } else if (errorCode.isMessageError()) {
+                    campaign.rejectMessage(errorCode.name() + ": " + sendResponse.errorMessage());
+                }
+            }
+        }
+        campaign.delivered.addAndGet(delivered);
+        // One counter update per outcome and error code, not per token
+        metrics.recordFanoutTokens("delivered", NotificationMetrics.NO_ERROR, delivered);
+        errorCounts.forEach((errorCode, count) -> metrics.recordFanoutTokens(
+                errorCode.isTransient() ? "retryable" : errorCode.isInvalidToken() ? "invalid" : "failed",
+                errorCode.name(), count));
+        retryOrFail(campaign, batch, retryTokens, attempt);
+        chunkDone(campaign, batch);
+    }
+
+    private void onChunkFailure(FanoutCampaign campaign, FanoutCampaign.Batch batch, List<String> tokens, int attempt, Throwable t) {
+        // The whole request failed (network, auth, throttling): retry the chunk if the cause is transient
+        PushErrorCode errorCode = t instanceof PushTransportException e ? e.getErrorCode() : null;
+        metrics.recordFanoutTokens("request_failed", errorCode == null ? t.getClass().getSimpleName() : errorCode.name(), tokens.size());
+        if (errorCode == null || errorCode == PushErrorCode.UNKNOWN || errorCode.isTransient()) {
+            retryOrFail(campaign, batch, tokens, attempt);
+        } else {
+            log.warn("Fan-out campaign {}: chunk of {} tokens failed permanently: {}", campaign.getId(), tokens.size(), t.getMessage());
+            campaign.failed.addAndGet(tokens.size());
+            if (errorCode.isMessageError()) {
+                campaign.rejectMessage(errorCode.name() + ": " + t.getMessage());
+            }
+        }
+        chunkDone(campaign, batch);
+    }
+
+    private void retryOrFail(FanoutCampaign campaign, FanoutCampaign.Batch batch, List<String> tokens, int attempt) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (attempt >= maxRetries) {
+            log.warn("Fan-out campaign {}: giving up on {} tokens after {} retries", campaign.getId(), tokens.size(), attempt);
+            metrics.recordFanoutTokens("retries_exhausted", NotificationMetrics.NO_ERROR, tokens.size());
+            campaign.failed.addAndGet(tokens.size());
+            batch.retriesExhausted = true;
+            return;
+        }
+        campaign.retried.addAndGet(tokens.size());
+        campaign.pendingChunks.incrementAndGet();
+        batch.pendingChunks.incrementAndGet();
+        scheduleRetry(campaign, batch, tokens, attempt + 1, backoffMillis(attempt));
+    }
+
+    /**
+     * Retries never block the scheduler thread: if no chunk permit is free, the retry is postponed.
+     */
+    private void scheduleRetry(FanoutCampaign campaign, FanoutCampaign.Batch batch, List<String> tokens, int attempt, long delayMs) {
+        retryScheduler.schedule(() -> {
+            if (chunkPermits.tryAcquire()) {
+                sendChunk(campaign, batch, tokens, attempt);
+            } else {
+                scheduleRetry(campaign, batch, tokens, attempt, Math.max(50, baseBackoffMs / 4));
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * "Full jitter" exponential backoff: a random delay between 0 and base * 2^attempt, capped.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void chunkDone(FanoutCampaign campaign, FanoutCampaign.Batch batch) {
+        campaign.chunkFinished(batch);
+        campaign.pendingChunks.decrementAndGet();
+        completeIfDone(campaign);
+    }
+
+    private void completeIfDone(FanoutCampaign campaign) {
+        if (campaign.completeIfDone()) {
+            log.info("Fan-out campaign {} finished: {} tokens, {} delivered, {} failed, {} invalid, {}/s",
+                    campaign.getId(), campaign.getTotalTokens(), campaign.getDelivered(), campaign.getFailed(),
+                    campaign.invalidTokens.size(), String.format("%.1f", campaign.getThroughputPerSecond()));
+            if (!campaign.invalidTokens.isEmpty()) {
+                eventPublisher.publishEvent(new InvalidDeviceTokensEvent(campaign.getId(), campaign.getInvalidTokens()));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.backend.notification;
+
+import com.google.api.core.ApiFuture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Collapses bursts of notifications for the same target (device token or topic) and collapse key.
+ *
+ * The first message for a target + key opens a window; messages arriving while it is open replace
+ * the pending one and share its job. When the window closes only the latest message is sent, so a
+ * burst of price / stock updates costs one FCM call. Messages without a collapse key are not delayed.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    private static final class Window {
+        final NotificationJob job;
+        // Written inside ConcurrentHashMap.compute, read after remove: both lock the same bin
+        volatile Supplier<ApiFuture<String>> latest;
+        volatile int superseded;
+
+        Window(NotificationJob job, Supplier<ApiFuture<String>> latest) {
+            this.job = job;
+            this.latest = latest;
+        }
+    }
+
+    private final NotificationDispatcher dispatcher;
+    private final NotificationJobRegistry jobRegistry;
+    private final MeterRegistry meterRegistry;
+    private final long windowMs;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationCoalescer(NotificationDispatcher dispatcher,
+                                 NotificationJobRegistry jobRegistry,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notifications.coalesce.window-ms:2000}") long windowMs) {
+        this.dispatcher = dispatcher;
+        this.jobRegistry = jobRegistry;
+        this.meterRegistry = meterRegistry;
+        this.windowMs = windowMs;
+        Gauge.builder("notifications.coalesce.open_windows", windows, Map::size)
+                .description("Coalescing windows currently holding back a message")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the message through the dispatcher, coalesced with other messages for the same target and key.
+     *
+     * @param target The device token or topic name.
+     * @param collapseKey Caller-supplied key; null or blank sends immediately.
+     * @return the job that will carry the latest message of the window.
+     * @throws java.util.concurrent.RejectedExecutionException if sent immediately and the dispatch queue is full.
+     */
+    public NotificationJob submit(String channel, String target, String collapseKey, Supplier<ApiFuture<String>> send) {
+        if (windowMs <= 0 || collapseKey == null || collapseKey.isBlank()) {
+            return dispatcher.submitMessage(channel, send);
+        }
+        String key = channel + '|' + target + '|' + collapseKey;
+        boolean[] opened = new boolean[1];
+        Window window = windows.compute(key, (k, current) -> {
+            if (current == null) {
+                opened[0] = true;
+                return new Window(dispatcher.createDeferredJob(channel), send);
+            }
+            current.latest = send;
+            current.superseded++;
+            // The caller gets the shared job and must be able to poll it
+            jobRegistry.addCurrentUser(current.job);
+            return current;
+        });
+        counter("notifications.coalesce.received", "Messages submitted with a collapse key", channel).increment();
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(key), windowMs, TimeUnit.MILLISECONDS);
+        }
+        return window.job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // Do not drop what is still held back: send it right away
+        for (String key : new ArrayList<>(windows.keySet())) {
+            flush(key);
+        }
+    }
+
+    private void flush(String key) {
+        Window window = windows.remove(key);
+        if (window == null) {
+            return;
+        }
+        String channel = window.job.getChannel();
+        counter("notifications.coalesce.sent", "Messages sent after their coalescing window closed", channel).increment();
+        if (window.superseded > 0) {
+            counter("notifications.coalesce.saved", "Sends avoided because a newer message replaced them", channel)
+                    .increment(window.superseded);
+            log.debug("Coalesced {} notifications for {} into job {}", window.superseded + 1, key, window.job.getId());
+        }
+        dispatcher.dispatchDeferred(window.job, window.latest);
+    }
+
+    private Counter counter(String name, String description, String channel) {
+        // Meters are registered once and then looked up by name and tags
+        return Counter.builder(name)
+                .description(description)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,213 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs notification sends off the request threads.
+ *
+ * Requests are queued on a small bounded executor; when the queue is full the submission is
+ * rejected (the controller answers 503) instead of piling up work. Dispatch threads only hand the
+ * message to FCM with sendAsync and never wait for the answer: completion is recorded by an
+ * ApiFuture callback. A semaphore caps the number of sends in flight at FCM.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationJobRegistry jobRegistry;
+    private final NotificationMetrics metrics;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+
+    public NotificationDispatcher(NotificationJobRegistry jobRegistry,
+                                  NotificationMetrics metrics,
+                                  @Value("${notifications.dispatch.threads:4}") int threads,
+                                  @Value("${notifications.dispatch.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notifications.dispatch.max-in-flight:200}") int maxInFlight,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jobRegistry = jobRegistry;
+        this.metrics = metrics;
+        this.inFlight = new Semaphore(maxInFlight);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The pool size stays the concurrency limit either way; virtual threads just do not
+        // occupy a platform thread while waiting for an in-flight permit
+        ThreadFactory threadFactory = virtualThreads
+                ? new VirtualThreadTaskExecutor("notification-dispatch-").getVirtualThreadFactory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "notification-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("notifications.dispatch.queue.size", executor, e -> e.getQueue().size())
+                .description("Notification jobs waiting for a dispatch thread")
+                .register(metrics.registry());
+        Gauge.builder("notifications.dispatch.in_flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Single-message sends awaiting the push service's answer")
+                .register(metrics.registry());
+    }
+
+    /**
+     * Queues a single-message send (device or topic).
+     * @throws RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob submitMessage(String channel, Supplier<ApiFuture<String>> send) {
+        return submit(channel, send, (job, messageId) -> job.succeed(messageId, 1, 0));
+    }
+
+    /**
+     * Registers a job now whose message is only handed over later with dispatchDeferred().
+     * Used by the coalescer, which holds messages back for the length of its window.
+     */
+    NotificationJob createDeferredJob(String channel) {
+        return track(jobRegistry.create(channel));
+    }
+
+    /**
+     * Queues the send of a job created with createDeferredJob(). There is no caller left to answer
+     * 503 to, so a full queue fails the job instead of throwing.
+     */
+    void dispatchDeferred(NotificationJob job, Supplier<ApiFuture<String>> send) {
+        try {
+            executor.execute(() -> dispatch(job, send, (sentJob, messageId) -> sentJob.succeed(messageId, 1, 0)));
+            metrics.recordSubmission(job.getChannel(), true);
+        } catch (RejectedExecutionException e) {
+            log.warn("Notification job {} ({}) dropped: dispatch queue is full", job.getId(), job.getChannel());
+            metrics.recordSubmission(job.getChannel(), false);
+            job.fail("Dispatch queue is full", "QUEUE_FULL");
+        }
+    }
+
+    /**
+     * Queues a fan-out campaign. The work runs on a dispatch thread (it may block while the fan-out
+     * engine throttles chunks) and the job completes with the campaign's delivery counts.
+     * @throws RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob submitCampaign(String channel, CampaignWork work) {
+        NotificationJob job = jobRegistry.create(channel);
+        try {
+            executor.execute(() -> runCampaign(job, work));
+        } catch (RejectedExecutionException e) {
+            jobRegistry.remove(job);
+            metrics.recordSubmission(channel, false);
+            throw e;
+        }
+        metrics.recordSubmission(channel, true);
+        return track(job);
+    }
+
+    /**
+     * Starts a fan-out for the given job and returns the future of its completion.
+     */
+    @FunctionalInterface
+    public interface CampaignWork {
+        CompletableFuture<FanoutCampaign> start(NotificationJob job) throws Exception;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> NotificationJob submit(String channel, Supplier<ApiFuture<T>> send, BiConsumer<NotificationJob, T> completion) {
+        NotificationJob job = jobRegistry.create(channel);
+        try {
+            executor.execute(() -> dispatch(job, send, completion));
+        } catch (RejectedExecutionException e) {
+            jobRegistry.remove(job);
+            metrics.recordSubmission(channel, false);
+            throw e;
+        }
+        metrics.recordSubmission(channel, true);
+        return track(job);
+    }
+
+    private NotificationJob track(NotificationJob job) {
+        job.completion().thenAccept(metrics::recordJobCompleted);
+        return job;
+    }
+
+    private static String errorCodeOf(Throwable t) {
+        return t instanceof PushTransportException e ? e.getErrorCode().name() : t.getClass().getSimpleName();
+    }
+
+    private void runCampaign(NotificationJob job, CampaignWork work) {
+        job.markSending();
+        try {
+            work.start(job).whenComplete((campaign, error) -> {
+                if (error != null) {
+                    job.fail(error.getMessage(), errorCodeOf(error));
+                } else if (campaign.getMessageError() != null) {
+                    job.fail(campaign.getMessageError(), PushErrorCode.INVALID_ARGUMENT.name());
+                } else {
+                    job.succeed(null, (int) campaign.getDelivered(), (int) campaign.getFailed());
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Dispatch interrupted");
+        } catch (Exception e) {
+            log.warn("Notification job {} ({}) could not be dispatched: {}", job.getId(), job.getChannel(), e.getMessage());
+            job.fail(e.getMessage(), errorCodeOf(e));
+        }
+    }
+
+    private <T> void dispatch(NotificationJob job, Supplier<ApiFuture<T>> send, BiConsumer<NotificationJob, T> completion) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Dispatch interrupted");
+            return;
+        }
+        try {
+            job.markSending();
+            ApiFuture<T> future = send.get();
+            ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    inFlight.release();
+                    completion.accept(job, result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    inFlight.release();
+                    log.warn("Notification job {} ({}) failed: {}", job.getId(), job.getChannel(), t.getMessage());
+                    job.fail(t.getMessage(), errorCodeOf(t));
+                }
+            }, MoreExecutors.directExecutor());
+        } catch (RuntimeException e) {
+            // Building or handing over the message failed before FCM was involved
+            inFlight.release();
+            log.warn("Notification job {} ({}) could not be dispatched: {}", job.getId(), job.getChannel(), e.getMessage());
+            job.fail(e.getMessage(), errorCodeOf(e));
+        }
+    }
+}
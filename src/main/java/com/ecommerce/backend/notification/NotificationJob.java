@@ -0,0 +1,117 @@
+package com.ecommerce.backend.notification;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks one accepted notification request from the 202 response until FCM answered.
+ * Updated from dispatch and FCM callback threads, read by the status endpoint.
+ */
+public class NotificationJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String channel;
+    private final Instant createdAt = Instant.now();
+    // Users who submitted the job (several when coalesced); only they and admins may read it
+    private final Set<String> owners = ConcurrentHashMap.newKeySet();
+
+    private volatile NotificationJobStatus status = NotificationJobStatus.QUEUED;
+    private volatile Instant completedAt;
+    private volatile String messageId;
+    private volatile int successCount;
+    private volatile int failureCount;
+    private volatile String error;
+    // Push error code (e.g. UNAVAILABLE) or exception type of a failed job
+    private volatile String errorCode;
+    private final CompletableFuture<NotificationJob> completion = new CompletableFuture<>();
+
+    public NotificationJob(String channel) {
+        this.channel = channel;
+    }
+
+    void addOwner(String username) {
+        if (username != null) {
+            owners.add(username);
+        }
+    }
+
+    public boolean isOwnedBy(String username) {
+        return username != null && owners.contains(username);
+    }
+
+    void markSending() {
+        this.status = NotificationJobStatus.SENDING;
+    }
+
+    void succeed(String messageId, int successCount, int failureCount) {
+        this.messageId = messageId;
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.completedAt = Instant.now();
+        this.status = NotificationJobStatus.SUCCEEDED;
+        completion.complete(this);
+    }
+
+    void fail(String error) {
+        fail(error, null);
+    }
+
+    void fail(String error, String errorCode) {
+        this.error = error;
+        this.errorCode = errorCode;
+        this.failureCount = Math.max(1, failureCount);
+        this.completedAt = Instant.now();
+        this.status = NotificationJobStatus.FAILED;
+        completion.complete(this);
+    }
+
+    /**
+     * Completes (normally, also for FAILED jobs) once the job reached a final status.
+     */
+    public CompletableFuture<NotificationJob> completion() {
+        return completion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public NotificationJobStatus getStatus() {
+        return status;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of notification jobs, queried by the job status endpoint.
+ * Finished jobs are kept for a retention period and then forgotten.
+ *
+ * A job belongs to the authenticated user whose request created it (or joined it, see
+ * NotificationCoalescer). Jobs created anonymously or by scheduled sends have no owner.
+ */
+@Component
+public class NotificationJobRegistry {
+
+    private final Map<String, NotificationJob> jobs = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    public NotificationJobRegistry(@Value("${notifications.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public NotificationJob create(String channel) {
+        NotificationJob job = new NotificationJob(channel);
+        addCurrentUser(job);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Makes the user of the current request an owner of the job as well.
+     */
+    void addCurrentUser(NotificationJob job) {
+        job.addOwner(CurrentUser.username());
+    }
+
+    public Optional<NotificationJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    void remove(NotificationJob job) {
+        jobs.remove(job.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.jobs.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getCompletedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.backend.notification;
+
+/**
+ * Lifecycle of an accepted notification request.
+ */
+public enum NotificationJobStatus {
+    // Accepted and waiting for a dispatch thread
+    QUEUED,
+    // Handed to FCM, waiting for its response
+    SENDING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
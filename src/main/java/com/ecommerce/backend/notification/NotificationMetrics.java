@@ -0,0 +1,91 @@
+package com.ecommerce.backend.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Meters of the notification subsystem, exported through /actuator/metrics and /actuator/prometheus.
+ *
+ * notifications.requests{channel, outcome}             accepted / rejected submissions per endpoint
+ * notifications.sends{channel, outcome, error_code}    completed jobs
+ * notifications.send.latency{channel, outcome}         accept -> FCM answer, histogram
+ * notifications.fanout.tokens{outcome, error_code}     per-token results of multicast chunks
+ * notifications.fanout.chunk.latency{outcome}          FCM multicast call time, histogram
+ *
+ * Gauges (queue sizes, in-flight counts) are registered by the components that own the state.
+ */
+@Component
+public class NotificationMetrics {
+
+    public static final String NO_ERROR = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public NotificationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public MeterRegistry registry() {
+        return meterRegistry;
+    }
+
+    void recordSubmission(String channel, boolean accepted) {
+        Counter.builder("notifications.requests")
+                .description("Notification requests by endpoint and whether the dispatch queue accepted them")
+                .tag("channel", channel)
+                .tag("outcome", accepted ? "accepted" : "rejected")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    void recordJobCompleted(NotificationJob job) {
+        String outcome = job.getStatus() == NotificationJobStatus.SUCCEEDED ? "success" : "failure";
+        String errorCode = job.getErrorCode() == null ? NO_ERROR : job.getErrorCode();
+        Counter.builder("notifications.sends")
+                .description("Completed notification jobs by outcome and push error code")
+                .tag("channel", job.getChannel())
+                .tag("outcome", outcome)
+                .tag("error_code", errorCode)
+                .register(meterRegistry)
+                .increment();
+        if (job.getCompletedAt() != null) {
+            latencyTimer("notifications.send.latency", "Time from accepting a notification to the push service's answer")
+                    .tag("channel", job.getChannel())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.between(job.getCreatedAt(), job.getCompletedAt()));
+        }
+    }
+
+    void recordFanoutTokens(String outcome, String errorCode, long count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("notifications.fanout.tokens")
+                .description("Per-token results of fan-out chunks (delivered, retried, failed, invalid)")
+                .tag("outcome", outcome)
+                .tag("error_code", errorCode)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    void recordChunkLatency(boolean succeeded, long nanos) {
+        latencyTimer("notifications.fanout.chunk.latency", "Duration of one multicast call to the push service")
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    private Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60));
+    }
+}
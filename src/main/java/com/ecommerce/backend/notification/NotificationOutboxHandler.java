@@ -0,0 +1,80 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.dto.AllDevicesNotificationRequestDTO;
+import com.ecommerce.backend.dto.DeviceNotificationRequestDTO;
+import com.ecommerce.backend.dto.SegmentNotificationRequestDTO;
+import com.ecommerce.backend.dto.TopicNotificationRequestDTO;
+import com.ecommerce.backend.dto.UserNotificationRequestDTO;
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.outbox.DeliveryProgress;
+import com.ecommerce.backend.outbox.NonRetryableDeliveryException;
+import com.ecommerce.backend.outbox.OutboxHandler;
+import com.ecommerce.backend.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Delivers notification requests recorded in the outbox through the regular NotificationService
+ * pipeline (bounded dispatcher, async FCM calls, fan-out engine). The payload is the request DTO as JSON.
+ * Fan-outs (multicast, user, segment) checkpoint their recipient batches, so a retry only sends to
+ * the recipients after the last saved checkpoint.
+ */
+@Component
+public class NotificationOutboxHandler implements OutboxHandler {
+
+    public static final String DEVICE = "notification.device";
+    public static final String TOPIC = "notification.topic";
+    public static final String MULTICAST = "notification.multicast";
+    public static final String USER = "notification.user";
+    public static final String SEGMENT = "notification.segment";
+
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    public NotificationOutboxHandler(NotificationService notificationService, ObjectMapper objectMapper) {
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Set<String> kinds() {
+        return Set.of(DEVICE, TOPIC, MULTICAST, USER, SEGMENT);
+    }
+
+    @Override
+    public CompletableFuture<?> handle(String kind, String payload, DeliveryProgress progress) throws Exception {
+        NotificationJob job = switch (kind) {
+            case DEVICE -> notificationService.sendNotificationToDevice(
+                    objectMapper.readValue(payload, DeviceNotificationRequestDTO.class));
+            case TOPIC -> notificationService.sendPushNotificationToTopic(
+                    objectMapper.readValue(payload, TopicNotificationRequestDTO.class));
+            case MULTICAST -> notificationService.sendMulticastNotification(
+                    objectMapper.readValue(payload, AllDevicesNotificationRequestDTO.class), progress);
+            case USER -> notificationService.sendToUser(
+                    objectMapper.readValue(payload, UserNotificationRequestDTO.class), progress);
+            case SEGMENT -> notificationService.sendToSegment(
+                    objectMapper.readValue(payload, SegmentNotificationRequestDTO.class), progress);
+            default -> throw new IllegalArgumentException("Unsupported notification kind " + kind);
+        };
+        // A FAILED job means FCM rejected the request as a whole: let the relay retry it, unless
+        // the error says a retry cannot succeed (e.g. the device token is unregistered)
+        return job.completion().thenApply(completed -> {
+            if (completed.getStatus() == NotificationJobStatus.FAILED) {
+                throw new CompletionException(isPermanent(completed.getErrorCode())
+                        ? new NonRetryableDeliveryException(completed.getErrorCode() + ": " + completed.getError())
+                        : new IllegalStateException(completed.getError()));
+            }
+            return completed;
+        });
+    }
+
+    private static boolean isPermanent(String errorCode) {
+        return Arrays.stream(PushErrorCode.values())
+                .anyMatch(code -> code.name().equals(errorCode) && code.isPermanent());
+    }
+}
@@ -0,0 +1,190 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.model.ScheduledNotification;
+import com.ecommerce.backend.model.ScheduledNotificationStatus;
+import com.ecommerce.backend.outbox.DeliveryProgress;
+import com.ecommerce.backend.outbox.OutboxService;
+import com.ecommerce.backend.repository.ScheduledNotificationRef;
+import com.ecommerce.backend.repository.ScheduledNotificationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fires scheduled notifications at their send time.
+ *
+ * Pending notifications due within the horizon are held in a hashed timer wheel (ids only), loaded
+ * from the database at startup and topped up periodically; notifications scheduled through this
+ * node are added directly. When a tick fires, all ids due at that tick are moved into the outbox
+ * in batches: one transaction per batch locks the rows (SKIP LOCKED, so several nodes holding the
+ * same ids never both dispatch one), writes the outbox messages and marks the rows DISPATCHED.
+ * If that transaction fails the rows stay SCHEDULED and the next refill fires them again.
+ *
+ * With notifications.outbox.enabled=false there is no relay to deliver outbox messages: the rows
+ * are marked DISPATCHED the same way and, once that committed, handed straight to the
+ * NotificationOutboxHandler. Delivery is then at-most-once (a node dying in between loses them).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notifications.scheduled.enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduledNotificationTimer {
+
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
+    private final OutboxService outboxService;
+    private final NotificationOutboxHandler directHandler;
+    private final boolean outboxEnabled;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+    private final HashedTimerWheel<Long> wheel;
+    // Ids currently in the wheel; removing one cancels it lazily
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scheduled-notification-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ScheduledNotificationTimer(ScheduledNotificationRepository scheduledNotificationRepository,
+                                      OutboxService outboxService,
+                                      NotificationOutboxHandler directHandler,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${notifications.outbox.enabled:false}") boolean outboxEnabled,
+                                      @Value("${notifications.scheduled.tick-ms:1000}") long tickMs,
+                                      @Value("${notifications.scheduled.wheel-size:4096}") int wheelSize,
+                                      @Value("${notifications.scheduled.horizon-minutes:60}") long horizonMinutes,
+                                      @Value("${notifications.scheduled.batch-size:500}") int batchSize) {
+        this.scheduledNotificationRepository = scheduledNotificationRepository;
+        this.outboxService = outboxService;
+        this.directHandler = directHandler;
+        this.outboxEnabled = outboxEnabled;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimerWheel<>("scheduled-notification-timer", Duration.ofMillis(tickMs), wheelSize, this::onExpired);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wheel.start();
+        // Recover everything due within the horizon, including sends missed while the app was down
+        refill();
+    }
+
+    /**
+     * Loads pending notifications that entered the horizon, or were scheduled through another node.
+     */
+    @Scheduled(initialDelayString = "${notifications.scheduled.refill-interval-ms:60000}",
+            fixedDelayString = "${notifications.scheduled.refill-interval-ms:60000}")
+    public void refill() {
+        Instant until = Instant.now().plus(horizon);
+        Long afterId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<ScheduledNotificationRef> page = scheduledNotificationRepository.findPendingBefore(
+                    until, afterId, PageRequest.of(0, batchSize));
+            for (ScheduledNotificationRef ref : page) {
+                if (tracked.add(ref.getId())) {
+                    wheel.schedule(ref.getId(), ref.getSendAt());
+                    loaded++;
+                }
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled notifications due before {}", loaded, until);
+        }
+    }
+
+    /**
+     * Adds a just-committed notification if it is due within the horizon (later ones come with a refill).
+     */
+    public void track(Long id, Instant sendAt) {
+        if (sendAt.isBefore(Instant.now().plus(horizon)) && tracked.add(id)) {
+            wheel.schedule(id, sendAt);
+        }
+    }
+
+    public void untrack(Long id) {
+        tracked.remove(id);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        dispatchExecutor.shutdown();
+    }
+
+    /**
+     * Runs on the wheel thread: keep it short and move the database work to the dispatch thread.
+     */
+    private void onExpired(List<Long> ids) {
+        List<Long> due = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (tracked.remove(id)) {
+                due.add(id);
+            }
+        }
+        if (!due.isEmpty()) {
+            dispatchExecutor.execute(() -> dispatch(due));
+        }
+    }
+
+    private void dispatch(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            List<ScheduledNotification> dispatched;
+            try {
+                dispatched = transactionTemplate.execute(status -> {
+                    Instant now = Instant.now();
+                    List<ScheduledNotification> pending = scheduledNotificationRepository.lockPending(batch);
+                    for (ScheduledNotification notification : pending) {
+                        if (outboxEnabled) {
+                            OutboxMessage message = outboxService.enqueueJson(notification.getKind(), notification.getPayload());
+                            notification.setOutboxMessageId(message.getId());
+                        }
+                        notification.setStatus(ScheduledNotificationStatus.DISPATCHED);
+                        notification.setDispatchedAt(now);
+                    }
+                    return pending;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not dispatch {} scheduled notifications, they will be retried on the next refill: {}",
+                        batch.size(), e.getMessage());
+                continue;
+            }
+            log.debug("Dispatched {} of {} due scheduled notifications", dispatched.size(), batch.size());
+            if (!outboxEnabled) {
+                dispatched.forEach(this::sendDirectly);
+            }
+        }
+    }
+
+    private void sendDirectly(ScheduledNotification notification) {
+        try {
+            directHandler.handle(notification.getKind(), notification.getPayload(), DeliveryProgress.NONE);
+        } catch (Exception e) {
+            log.warn("Scheduled notification {} could not be sent: {}", notification.getId(), e.getMessage());
+        }
+    }
+}
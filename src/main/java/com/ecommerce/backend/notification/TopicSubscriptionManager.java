@@ -0,0 +1,176 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO.TokenErrorDTO;
+import com.ecommerce.backend.notification.transport.PushTransport;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.ecommerce.backend.notification.transport.TopicManagementResult;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscribes / unsubscribes many tokens to many topics with as few FCM calls as possible.
+ *
+ * Tokens are de-duplicated and split into chunks of FCM's topic-management limit (1000 tokens per
+ * call); the calls for all chunks and topics run concurrently, bounded by a semaphore, and the
+ * per-token errors FCM returns are mapped back to the token and topic they belong to.
+ *
+ * The request thread waits at most timeout-seconds in total. Every token/topic pair whose call was
+ * not answered by then (or not even issued, because all permits were taken) is reported as an
+ * error with reason TIMEOUT; FCM may or may not have applied it, so the caller can retry those.
+ */
+@Slf4j
+@Component
+public class TopicSubscriptionManager {
+
+    // FCM rejects topic-management requests with more tokens than this
+    public static final int FCM_TOPIC_BATCH_LIMIT = 1000;
+
+    public static final String TIMEOUT_REASON = "TIMEOUT";
+
+    @FunctionalInterface
+    private interface TopicCall {
+        ApiFuture<TopicManagementResult> apply(List<String> tokens, String topic);
+    }
+
+    /**
+     * One (topic, chunk) call; its outcome is recorded once, by the callback or by the timeout.
+     */
+    private record ChunkCall(String topic, List<String> chunk, AtomicBoolean settled) {
+
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    private final PushTransport transport;
+    private final int chunkSize;
+    private final Semaphore callPermits;
+    private final long timeoutSeconds;
+
+    public TopicSubscriptionManager(PushTransport transport,
+                                    @Value("${notifications.topics.chunk-size:1000}") int chunkSize,
+                                    @Value("${notifications.topics.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                    @Value("${notifications.topics.timeout-seconds:30}") long timeoutSeconds) {
+        this.transport = transport;
+        this.chunkSize = Math.min(chunkSize, FCM_TOPIC_BATCH_LIMIT);
+        this.callPermits = new Semaphore(maxConcurrentCalls);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public BatchTopicSubscriptionResponseDTO subscribe(Collection<String> tokens, Collection<String> topics)
+            throws InterruptedException {
+        return manage(tokens, topics, transport::subscribeToTopic);
+    }
+
+    public BatchTopicSubscriptionResponseDTO unsubscribe(Collection<String> tokens, Collection<String> topics)
+            throws InterruptedException {
+        return manage(tokens, topics, transport::unsubscribeFromTopic);
+    }
+
+    private BatchTopicSubscriptionResponseDTO manage(Collection<String> tokens, Collection<String> topics, TopicCall call)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        List<String> uniqueTokens = List.copyOf(new LinkedHashSet<>(tokens));
+        List<String> uniqueTopics = List.copyOf(new LinkedHashSet<>(topics));
+        List<ChunkCall> chunkCalls = new ArrayList<>();
+        for (String topic : uniqueTopics) {
+            for (int from = 0; from < uniqueTokens.size(); from += chunkSize) {
+                chunkCalls.add(new ChunkCall(topic, uniqueTokens.subList(from, Math.min(from + chunkSize, uniqueTokens.size())),
+                        new AtomicBoolean()));
+            }
+        }
+        int calls = chunkCalls.size();
+
+        AtomicLong succeeded = new AtomicLong();
+        Queue<TokenErrorDTO> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(calls);
+
+        // 1. Issue one call per (topic, chunk); the semaphore caps how many are outstanding
+        for (ChunkCall chunkCall : chunkCalls) {
+            if (!callPermits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                break; // Out of time: the calls not issued are reported below
+            }
+            String topic = chunkCall.topic();
+            List<String> chunk = chunkCall.chunk();
+            ApiFuture<TopicManagementResult> future;
+            try {
+                future = call.apply(chunk, topic);
+            } catch (RuntimeException e) {
+                callPermits.release();
+                if (chunkCall.settle()) {
+                    failChunk(topic, chunk, e, errors);
+                }
+                done.countDown();
+                continue;
+            }
+            ApiFutures.addCallback(future, new ApiFutureCallback<TopicManagementResult>() {
+                @Override
+                public void onSuccess(TopicManagementResult result) {
+                    callPermits.release();
+                    // A late answer was already reported as timed out
+                    if (chunkCall.settle()) {
+                        succeeded.addAndGet(result.successCount());
+                        for (TopicManagementResult.TokenError error : result.errors()) {
+                            errors.add(new TokenErrorDTO(topic, chunk.get(error.index()), error.reason()));
+                        }
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    callPermits.release();
+                    if (chunkCall.settle()) {
+                        failChunk(topic, chunk, t, errors);
+                    }
+                    done.countDown();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        // 2. Wait for the stragglers, then report every pair without an answer
+        if (!done.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            int unanswered = 0;
+            for (ChunkCall chunkCall : chunkCalls) {
+                if (chunkCall.settle()) {
+                    unanswered++;
+                    for (String token : chunkCall.chunk()) {
+                        errors.add(new TokenErrorDTO(chunkCall.topic(), token, TIMEOUT_REASON));
+                    }
+                }
+            }
+            log.warn("Batch topic management timed out after {}s with {} of {} calls unanswered",
+                    timeoutSeconds, unanswered, calls);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchTopicSubscriptionResponseDTO(uniqueTopics.size(), uniqueTokens.size(), calls,
+                succeeded.get(), elapsedMillis, new ArrayList<>(errors));
+    }
+
+    private void failChunk(String topic, List<String> chunk, Throwable t, Queue<TokenErrorDTO> errors) {
+        String reason = t instanceof PushTransportException e ? e.getErrorCode().name() : String.valueOf(t.getMessage());
+        log.warn("Topic management call for {} ({} tokens) failed: {}", topic, chunk.size(), t.getMessage());
+        for (String token : chunk) {
+            errors.add(new TokenErrorDTO(topic, token, reason));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.backend.notification.transport;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.SendResponse;
+import com.google.firebase.messaging.TopicManagementResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends through Firebase Cloud Messaging (the default transport).
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.transport", havingValue = "firebase", matchIfMissing = true)
+public class FirebasePushTransport implements PushTransport {
+
+    private final FirebaseMessaging messaging;
+
+    public FirebasePushTransport(FirebaseApp firebaseApp) {
+        this.messaging = FirebaseMessaging.getInstance(firebaseApp);
+    }
+
+    @Override
+    public ApiFuture<String> send(Message message) {
+        return translateFailure(messaging.sendAsync(message));
+    }
+
+    @Override
+    public ApiFuture<List<PushSendResult>> sendEachForMulticast(MulticastMessage message, List<String> tokens) {
+        ApiFuture<List<PushSendResult>> results = ApiFutures.transform(
+                messaging.sendEachForMulticastAsync(message), FirebasePushTransport::toResults, MoreExecutors.directExecutor());
+        return translateFailure(results);
+    }
+
+    @Override
+    public ApiFuture<TopicManagementResult> subscribeToTopic(List<String> tokens, String topic) {
+        return translateFailure(ApiFutures.transform(
+                messaging.subscribeToTopicAsync(tokens, topic), FirebasePushTransport::toResult, MoreExecutors.directExecutor()));
+    }
+
+    @Override
+    public ApiFuture<TopicManagementResult> unsubscribeFromTopic(List<String> tokens, String topic) {
+        return translateFailure(ApiFutures.transform(
+                messaging.unsubscribeFromTopicAsync(tokens, topic), FirebasePushTransport::toResult, MoreExecutors.directExecutor()));
+    }
+
+    private static List<PushSendResult> toResults(BatchResponse response) {
+        List<PushSendResult> results = new ArrayList<>(response.getResponses().size());
+        for (SendResponse sendResponse : response.getResponses()) {
+            if (sendResponse.isSuccessful()) {
+                results.add(PushSendResult.success(sendResponse.getMessageId()));
+            } else {
+                FirebaseMessagingException e = sendResponse.getException();
+                results.add(PushSendResult.failure(toErrorCode(e.getMessagingErrorCode()), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private static TopicManagementResult toResult(TopicManagementResponse response) {
+        List<TopicManagementResult.TokenError> errors = new ArrayList<>();
+        for (TopicManagementResponse.Error error : response.getErrors()) {
+            errors.add(new TopicManagementResult.TokenError(error.getIndex(), error.getReason()));
+        }
+        return new TopicManagementResult(response.getSuccessCount(), errors);
+    }
+
+    private static <T> ApiFuture<T> translateFailure(ApiFuture<T> future) {
+        return ApiFutures.catchingAsync(future, FirebaseMessagingException.class,
+                e -> ApiFutures.immediateFailedFuture(new PushTransportException(
+                        toErrorCode(e.getMessagingErrorCode()), e.getMessage(), e)),
+                MoreExecutors.directExecutor());
+    }
+
+    private static PushErrorCode toErrorCode(MessagingErrorCode code) {
+        if (code == null) {
+            return PushErrorCode.UNKNOWN;
+        }
+        try {
+            return PushErrorCode.valueOf(code.name());
+        } catch (IllegalArgumentException e) {
+            return PushErrorCode.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.backend.notification.transport;
+
+/**
+ * Transport-neutral error codes, mirroring FCM's MessagingErrorCode.
+ */
+public enum PushErrorCode {
+    INVALID_ARGUMENT,
+    INTERNAL,
+    QUOTA_EXCEEDED,
+    SENDER_ID_MISMATCH,
+    THIRD_PARTY_AUTH_ERROR,
+    UNAVAILABLE,
+    UNREGISTERED,
+    // The transport did not report a specific code
+    UNKNOWN;
+
+    /**
+     * @return true if the same request may succeed when retried later.
+     */
+    public boolean isTransient() {
+        return this == UNAVAILABLE || this == INTERNAL || this == QUOTA_EXCEEDED;
+    }
+
+    /**
+     * @return true if the same request fails again however often it is retried.
+     */
+    public boolean isPermanent() {
+        return this == UNREGISTERED || this == SENDER_ID_MISMATCH || this == INVALID_ARGUMENT;
+    }
+
+    /**
+     * @return true if the device token will never work again and should be removed.
+     */
+    public boolean isInvalidToken() {
+        return this == UNREGISTERED || this == SENDER_ID_MISMATCH;
+    }
+
+    /**
+     * @return true if the message itself was rejected (e.g. a malformed payload), whichever token
+     *         it was sent to. Says nothing about the token, which must be kept.
+     */
+    public boolean isMessageError() {
+        return this == INVALID_ARGUMENT;
+    }
+}
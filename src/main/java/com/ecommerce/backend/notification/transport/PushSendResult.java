@@ -0,0 +1,22 @@
+package com.ecommerce.backend.notification.transport;
+
+/**
+ * Outcome for one token of a multicast send.
+ *
+ * @param messageId Set when the message was accepted.
+ * @param errorCode Set when it was not.
+ */
+public record PushSendResult(String messageId, PushErrorCode errorCode, String errorMessage) {
+
+    public static PushSendResult success(String messageId) {
+        return new PushSendResult(messageId, null, null);
+    }
+
+    public static PushSendResult failure(PushErrorCode errorCode, String errorMessage) {
+        return new PushSendResult(null, errorCode, errorMessage);
+    }
+
+    public boolean isSuccessful() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.backend.notification.transport;
+
+import com.google.api.core.ApiFuture;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MulticastMessage;
+
+import java.util.List;
+
+/**
+ * Delivers push messages. Messages are built with the FCM builders (plain value objects); results
+ * use our own types so that implementations other than Firebase can produce them.
+ *
+ * All methods are asynchronous: futures fail with PushTransportException.
+ */
+public interface PushTransport {
+
+    /**
+     * @return the future message id.
+     */
+    ApiFuture<String> send(Message message);
+
+    /**
+     * Sends one message to every token of a multicast message.
+     *
+     * @param tokens The tokens the message was built with, in the same order.
+     * @return one result per token, in token order.
+     */
+    ApiFuture<List<PushSendResult>> sendEachForMulticast(MulticastMessage message, List<String> tokens);
+
+    ApiFuture<TopicManagementResult> subscribeToTopic(List<String> tokens, String topic);
+
+    ApiFuture<TopicManagementResult> unsubscribeFromTopic(List<String> tokens, String topic);
+}
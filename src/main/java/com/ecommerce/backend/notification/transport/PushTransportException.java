@@ -0,0 +1,22 @@
+package com.ecommerce.backend.notification.transport;
+
+/**
+ * A push request failed as a whole (as opposed to single tokens of a multicast).
+ */
+public class PushTransportException extends Exception {
+
+    private final PushErrorCode errorCode;
+
+    public PushTransportException(PushErrorCode errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    public PushTransportException(PushErrorCode errorCode, String message) {
+        this(errorCode, message, null);
+    }
+
+    public PushErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.backend.notification.transport;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MulticastMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for FCM, for running offline and for load tests: nothing leaves the JVM.
+ *
+ * Every call completes after a random latency (base + uniform jitter) on a small scheduler, so
+ * callers see the same asynchronous behaviour as with FCM. Configurable fractions of requests fail
+ * transiently (UNAVAILABLE) or with an unregistered token; multicast outcomes are drawn per token.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notifications.transport", havingValue = "simulated")
+public class SimulatedPushTransport implements PushTransport {
+
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double transientErrorRate;
+    private final double invalidTokenRate;
+    private final AtomicLong messageIds = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    public SimulatedPushTransport(@Value("${notifications.transport.simulated.latency-ms:40}") long latencyMs,
+                                  @Value("${notifications.transport.simulated.latency-jitter-ms:20}") long latencyJitterMs,
+                                  @Value("${notifications.transport.simulated.transient-error-rate:0.0}") double transientErrorRate,
+                                  @Value("${notifications.transport.simulated.invalid-token-rate:0.0}") double invalidTokenRate,
+                                  @Value("${notifications.transport.simulated.threads:2}") int threads) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.transientErrorRate = transientErrorRate;
+        this.invalidTokenRate = invalidTokenRate;
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulated-push-transport");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.warn("Using the simulated push transport: notifications are NOT delivered to devices");
+    }
+
+    @Override
+    public ApiFuture<String> send(Message message) {
+        return later(() -> {
+            PushErrorCode error = drawError();
+            if (error != null) {
+                throw new PushTransportException(error, "Simulated " + error);
+            }
+            return nextMessageId();
+        });
+    }
+
+    @Override
+    public ApiFuture<List<PushSendResult>> sendEachForMulticast(MulticastMessage message, List<String> tokens) {
+        return later(() -> {
+            List<PushSendResult> results = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                PushErrorCode error = drawError();
+                results.add(error == null
+                        ? PushSendResult.success(nextMessageId())
+                        : PushSendResult.failure(error, "Simulated " + error));
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public ApiFuture<TopicManagementResult> subscribeToTopic(List<String> tokens, String topic) {
+        return later(() -> manageTopic(tokens));
+    }
+
+    @Override
+    public ApiFuture<TopicManagementResult> unsubscribeFromTopic(List<String> tokens, String topic) {
+        return later(() -> manageTopic(tokens));
+    }
+
+    /**
+     * @return messages accepted so far (one per token for multicasts); used by load tests.
+     */
+    public long getAcceptedMessages() {
+        return messageIds.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Outcome<T> {
+        T get() throws PushTransportException;
+    }
+
+    private <T> ApiFuture<T> later(Outcome<T> outcome) {
+        SettableApiFuture<T> future = SettableApiFuture.create();
+        long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+        scheduler.schedule(() -> {
+            try {
+                future.set(outcome.get());
+            } catch (PushTransportException e) {
+                future.setException(e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private TopicManagementResult manageTopic(List<String> tokens) {
+        List<TopicManagementResult.TokenError> errors = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (ThreadLocalRandom.current().nextDouble() < invalidTokenRate) {
+                errors.add(new TopicManagementResult.TokenError(i, "registration-token-not-registered"));
+            }
+        }
+        return new TopicManagementResult(tokens.size() - errors.size(), errors);
+    }
+
+    /**
+     * @return null for a successful send.
+     */
+    private PushErrorCode drawError() {
+        double draw = ThreadLocalRandom.current().nextDouble();
+        if (draw < transientErrorRate) {
+            return PushErrorCode.UNAVAILABLE;
+        }
+        if (draw < transientErrorRate + invalidTokenRate) {
+            return PushErrorCode.UNREGISTERED;
+        }
+        return null;
+    }
+
+    private String nextMessageId() {
+        return "projects/simulated/messages/" + messageIds.incrementAndGet();
+    }
+}
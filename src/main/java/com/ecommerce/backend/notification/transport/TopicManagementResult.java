@@ -0,0 +1,18 @@
+package com.ecommerce.backend.notification.transport;
+
+import java.util.List;
+
+/**
+ * Outcome of a topic (un)subscription for a list of tokens.
+ *
+ * @param errors Failed tokens, by index into the submitted list.
+ */
+public record TopicManagementResult(int successCount, List<TokenError> errors) {
+
+    public record TokenError(int index, String reason) {
+    }
+
+    public int getFailureCount() {
+        return errors.size();
+    }
+}
@@ -0,0 +1,206 @@
+package com.ecommerce.backend.offboarding;
+
+import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.model.Provider;
+import com.ecommerce.backend.model.ProviderOffboarding;
+import com.ecommerce.backend.model.ProviderOffboardingStatus;
+import com.ecommerce.backend.repository.ProviderOffboardingRepository;
+import com.ecommerce.backend.service.FileStorageService;
+import com.ecommerce.backend.storage.StorageBackend;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes the products of offboarded providers in bounded batches, one short transaction each:
+ * products nobody ordered are deleted (their reservations and category links with them), products
+ * referenced by order items are archived, i.e. kept with no stock under the soft-deleted provider.
+ * Once a batch committed, the removed products are evicted from the second-level cache and their
+ * images are deleted from storage.
+ *
+ * Progress is stored on the provider_offboarding row, so the job resumes after a restart; nodes
+ * lock different offboardings with SKIP LOCKED.
+ */
+@Slf4j
+@Component
+public class ProviderOffboardingJob {
+
+    private record ProductRow(long id, String imageUrl, boolean ordered) {
+    }
+
+    private record Batch(Long providerId, List<Long> changedIds, List<String> imageUrls, boolean completed) {
+    }
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT p.id, p.product_image_url, " +
+            "EXISTS (SELECT 1 FROM order_items oi WHERE oi.product_id = p.id) AS ordered " +
+            "FROM product p WHERE p.provider_id = ? AND p.id > ? ORDER BY p.id LIMIT ?";
+    private static final String DELETE_RESERVATIONS_SQL = "DELETE FROM stock_reservation WHERE product_id = ANY (?)";
+    // product_category rows go with ON DELETE CASCADE (or its trigger when product is partitioned).
+    // The provider_id condition confines both statements to one partition of a partitioned product.
+    private static final String DELETE_PRODUCTS_SQL = "DELETE FROM product WHERE provider_id = ? AND id = ANY (?)";
+    private static final String ARCHIVE_PRODUCTS_SQL =
+            "UPDATE product SET stock_quantity = 0 WHERE provider_id = ? AND id = ANY (?) AND stock_quantity > 0";
+    // Returns the URL it cleared
+    private static final String CLEAR_PROVIDER_IMAGE_SQL =
+            "UPDATE provider p SET profile_image_url = NULL " +
+            "FROM (SELECT id, profile_image_url FROM provider WHERE id = ? FOR UPDATE) old " +
+            "WHERE p.id = old.id AND old.profile_image_url IS NOT NULL " +
+            "RETURNING old.profile_image_url";
+
+    private final ProviderOffboardingRepository providerOffboardingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final FileStorageService fileStorageService;
+    private final StorageBackend storageBackend;
+    private final int batchSize;
+    private final long pauseBetweenBatchesMs;
+
+    public ProviderOffboardingJob(ProviderOffboardingRepository providerOffboardingRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  EntityManagerFactory entityManagerFactory,
+                                  FileStorageService fileStorageService,
+                                  StorageBackend storageBackend,
+                                  @Value("${providers.offboarding.batch-size:500}") int batchSize,
+                                  @Value("${providers.offboarding.pause-between-batches-ms:200}") long pauseBetweenBatchesMs) {
+        this.providerOffboardingRepository = providerOffboardingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.fileStorageService = fileStorageService;
+        this.storageBackend = storageBackend;
+        this.batchSize = batchSize;
+        this.pauseBetweenBatchesMs = pauseBetweenBatchesMs;
+    }
+
+    @Scheduled(fixedDelayString = "${providers.offboarding.poll-interval-ms:10000}")
+    public void processOffboardings() {
+        try {
+            Batch batch;
+            while ((batch = transactionTemplate.execute(status -> nextBatch())) != null) {
+                afterBatch(batch);
+                // Throttle so offboarding a large supplier never competes with request traffic
+                if (pauseBetweenBatchesMs > 0) {
+                    Thread.sleep(pauseBetweenBatchesMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one batch of the oldest running offboarding.
+     * @return null if no offboarding is waiting.
+     */
+    private Batch nextBatch() {
+        ProviderOffboarding offboarding = providerOffboardingRepository.lockNextRunning().orElse(null);
+        if (offboarding == null) {
+            return null;
+        }
+        Long providerId = offboarding.getProviderId();
+        List<ProductRow> rows = jdbcTemplate.query(SELECT_BATCH_SQL,
+                (rs, row) -> new ProductRow(rs.getLong("id"), rs.getString("product_image_url"), rs.getBoolean("ordered")),
+                providerId, offboarding.getLastProductId(), batchSize);
+
+        if (rows.isEmpty()) {
+            // All products gone: the provider's own image is the last thing to clean up
+            List<String> providerImage = jdbcTemplate.queryForList(CLEAR_PROVIDER_IMAGE_SQL, String.class, providerId);
+            offboarding.setStatus(ProviderOffboardingStatus.COMPLETED);
+            offboarding.setFinishedAt(Instant.now());
+            return new Batch(providerId, List.of(), providerImage, true);
+        }
+
+        List<Long> deletedIds = new ArrayList<>();
+        List<Long> archivedIds = new ArrayList<>();
+        List<String> imageUrls = new ArrayList<>();
+        for (ProductRow row : rows) {
+            if (row.ordered()) {
+                archivedIds.add(row.id());
+            } else {
+                deletedIds.add(row.id());
+                if (row.imageUrl() != null) {
+                    imageUrls.add(row.imageUrl());
+                }
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            updateAll(DELETE_RESERVATIONS_SQL, deletedIds);
+            updateProducts(DELETE_PRODUCTS_SQL, providerId, deletedIds);
+        }
+        if (!archivedIds.isEmpty()) {
+            updateProducts(ARCHIVE_PRODUCTS_SQL, providerId, archivedIds);
+        }
+        offboarding.setLastProductId(rows.get(rows.size() - 1).id());
+        offboarding.setProductsDeleted(offboarding.getProductsDeleted() + deletedIds.size());
+        offboarding.setProductsArchived(offboarding.getProductsArchived() + archivedIds.size());
+        List<Long> changedIds = new ArrayList<>(deletedIds);
+        changedIds.addAll(archivedIds);
+        return new Batch(providerId, changedIds, imageUrls, false);
+    }
+
+    /**
+     * Runs after the batch committed: cache eviction and file deletion cannot be rolled back.
+     */
+    private void afterBatch(Batch batch) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        batch.changedIds().forEach(id -> cache.evictEntityData(Product.class, id));
+        if (batch.completed()) {
+            cache.evictEntityData(Provider.class, batch.providerId());
+        }
+        // The rows went away behind Hibernate's back, so it does not know the cached results are stale
+        cache.evictQueryRegion("products-by-provider");
+
+        int deleted = 0;
+        int failed = 0;
+        for (String imageUrl : batch.imageUrls()) {
+            String key = fileStorageService.toObjectKey(imageUrl);
+            if (key == null) {
+                continue;
+            }
+            try {
+                storageBackend.delete(fileStorageService.resolveStoredKey(key));
+                deleted++;
+            } catch (IOException e) {
+                // The orphaned-upload sweeper deletes it later
+                failed++;
+                log.warn("Could not delete image {} of offboarded provider {}: {}", key, batch.providerId(), e.getMessage());
+            }
+        }
+        if (deleted > 0 || failed > 0) {
+            int imagesDeleted = deleted;
+            int imageFailures = failed;
+            transactionTemplate.executeWithoutResult(status -> providerOffboardingRepository.findById(batch.providerId())
+                    .ifPresent(offboarding -> {
+                        offboarding.setImagesDeleted(offboarding.getImagesDeleted() + imagesDeleted);
+                        offboarding.setImageFailures(offboarding.getImageFailures() + imageFailures);
+                    }));
+        }
+        if (batch.completed()) {
+            log.info("Offboarding of provider {} completed", batch.providerId());
+        }
+    }
+
+    private void updateAll(String sql, List<Long> ids) {
+        jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    private void updateProducts(String sql, Long providerId, List<Long> ids) {
+        jdbcTemplate.update(sql, ps -> {
+            ps.setLong(1, providerId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.backend.order;
+
+import com.ecommerce.backend.model.CustomerOrder;
+
+/**
+ * The order of a checkout; replayed is true when the idempotency key had already been used for
+ * the same lines and nothing new was placed.
+ */
+public record CheckoutResult(CustomerOrder order, boolean replayed) {
+}
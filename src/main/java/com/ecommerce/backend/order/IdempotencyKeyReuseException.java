@@ -0,0 +1,19 @@
+package com.ecommerce.backend.order;
+
+/**
+ * Thrown when a checkout reuses an idempotency key of the same user with different lines.
+ * The existing order is left untouched.
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different checkout");
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
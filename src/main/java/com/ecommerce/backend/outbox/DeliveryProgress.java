@@ -0,0 +1,33 @@
+package com.ecommerce.backend.outbox;
+
+/**
+ * How far the delivery of a message got, for handlers that deliver in steps (e.g. the recipient
+ * batches of a fan-out). The relay keeps the latest checkpoint with the message, so a retry, or a
+ * node taking over an expired lease, continues after it instead of starting over.
+ */
+public interface DeliveryProgress {
+
+    /**
+     * For deliveries outside the outbox: starts from the beginning and keeps no checkpoint.
+     */
+    DeliveryProgress NONE = new DeliveryProgress() {
+        @Override
+        public long resumeAfter() {
+            return 0;
+        }
+
+        @Override
+        public void checkpoint(long position) {
+        }
+    };
+
+    /**
+     * @return the checkpoint reached by earlier attempts, 0 if there is none.
+     */
+    long resumeAfter();
+
+    /**
+     * Records that everything up to and including the position was delivered. Positions only grow.
+     */
+    void checkpoint(long position);
+}
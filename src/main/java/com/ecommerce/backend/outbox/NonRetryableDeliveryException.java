@@ -0,0 +1,13 @@
+package com.ecommerce.backend.outbox;
+
+/**
+ * Completes an OutboxHandler's future when delivering the message again cannot succeed (e.g. the
+ * recipient's device token is unregistered): the relay marks the message FAILED at once instead of
+ * retrying it until the attempts run out.
+ */
+public class NonRetryableDeliveryException extends RuntimeException {
+
+    public NonRetryableDeliveryException(String message) {
+        super(message);
+    }
+}
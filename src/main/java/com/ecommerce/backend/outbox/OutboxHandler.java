@@ -0,0 +1,26 @@
+package com.ecommerce.backend.outbox;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers outbox messages of one or more kinds. Implementations are picked up as beans by the OutboxRelay.
+ */
+public interface OutboxHandler {
+
+    /**
+     * @return the message kinds this handler delivers, e.g. "notification.device".
+     */
+    Set<String> kinds();
+
+    /**
+     * Starts delivering a message without blocking the relay thread.
+     *
+     * @param progress Where earlier attempts got to; handlers that deliver in steps resume after it
+     *                 and report their own checkpoints to it. Others can ignore it.
+     * @return a future completing when the message was delivered, or exceptionally if it should be retried.
+     * @throws java.util.concurrent.RejectedExecutionException if there is no capacity right now; the
+     *         message is released and picked up again without counting the attempt.
+     */
+    CompletableFuture<?> handle(String kind, String payload, DeliveryProgress progress) throws Exception;
+}
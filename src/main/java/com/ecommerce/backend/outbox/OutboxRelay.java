@@ -0,0 +1,286 @@
+package com.ecommerce.backend.outbox;
+
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.model.OutboxStatus;
+import com.ecommerce.backend.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the outbox. Every node runs a relay; they never deliver the same message twice in parallel:
+ *
+ * 1. A short transaction locks a batch of due rows with FOR UPDATE SKIP LOCKED (other nodes skip
+ *    them and take the next rows), marks them IN_FLIGHT with a lease and commits.
+ * 2. The messages are handed to their handlers, which deliver them asynchronously and in parallel.
+ * 3. Each completion marks its row SENT, or PENDING again with jittered backoff (FAILED after the
+ *    last attempt, or at once for a NonRetryableDeliveryException). Completions are written on the
+ *    relay's own threads, never on the handler's (e.g. FCM callback) threads. Updates are fenced by
+ *    the attempt number, so a node that lost its lease cannot overwrite the outcome of the node that
+ *    re-claimed the row.
+ *
+ * While a message is being delivered its lease is renewed every lease-renewal-interval-ms, so a long
+ * fan-out, or a job queued behind other sends, is not claimed and sent again by another node. A
+ * node that dies mid-delivery stops renewing; its rows are claimed again once the lease expires,
+ * so delivery is at-least-once.
+ *
+ * Handlers that deliver in steps (fan-outs) report checkpoints through DeliveryProgress. The latest
+ * one is saved with every lease renewal and with a failed attempt, and the next attempt resumes
+ * after it. Only the steps after the last saved checkpoint can be delivered twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notifications.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private record Claim(Long id, String kind, String payload, int attempt, long progress) {
+    }
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final Duration sentRetention;
+    // Messages handed to handlers and not completed yet, across polls
+    private final Semaphore inFlight;
+    // Claims of this node that are not settled yet (id -> attempt), whose leases are renewed
+    private final Map<Long, Integer> leased = new ConcurrentHashMap<>();
+    // Latest progress checkpoint reported for a claim, saved with the next renewal or outcome
+    private final Map<Long, Long> checkpoints = new ConcurrentHashMap<>();
+    // Writes delivery outcomes, off the handlers' completion threads
+    private final ExecutorService completionExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       List<OutboxHandler> handlerBeans,
+                       @Value("${notifications.outbox.batch-size:100}") int batchSize,
+                       @Value("${notifications.outbox.lease-seconds:300}") long leaseSeconds,
+                       @Value("${notifications.outbox.max-in-flight:500}") int maxInFlight,
+                       @Value("${notifications.outbox.max-attempts:8}") int maxAttempts,
+                       @Value("${notifications.outbox.base-backoff-ms:1000}") long baseBackoffMs,
+                       @Value("${notifications.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                       @Value("${notifications.outbox.sent-retention-hours:24}") long sentRetentionHours,
+                       @Value("${notifications.outbox.completion-threads:2}") int completionThreads) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.sentRetention = Duration.ofHours(sentRetentionHours);
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.completionExecutor = Executors.newFixedThreadPool(completionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("notifications.outbox.in_flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Outbox messages handed to handlers by this node and not completed yet")
+                .register(meterRegistry);
+        for (OutboxHandler handler : handlerBeans) {
+            for (String kind : handler.kinds()) {
+                OutboxHandler previous = handlers.put(kind, handler);
+                if (previous != null) {
+                    throw new IllegalStateException("Outbox kind " + kind + " has two handlers: "
+                            + previous.getClass().getSimpleName() + " and " + handler.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:500}")
+    public void poll() {
+        // Keep claiming while batches come back full, as long as there is capacity for them
+        while (true) {
+            int capacity = Math.min(batchSize, inFlight.availablePermits());
+            if (capacity == 0) {
+                return;
+            }
+            List<Claim> claims = claim(capacity);
+            for (Claim claim : claims) {
+                deliver(claim);
+            }
+            if (claims.size() < capacity) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Extends the lease of every message this node is still delivering and saves the progress
+     * checkpoints reported since the last renewal. A message whose row moved
+     * on (the lease was lost before a renewal got through) is dropped from the set; its outcome
+     * will not be written, as the fenced updates no longer match.
+     */
+    @Scheduled(fixedDelayString = "${notifications.outbox.lease-renewal-interval-ms:60000}")
+    public void renewLeases() {
+        if (leased.isEmpty()) {
+            return;
+        }
+        Instant lockedUntil = Instant.now().plus(lease);
+        transactionTemplate.executeWithoutResult(status -> leased.forEach((id, attempt) -> {
+            if (outboxMessageRepository.renewLease(id, attempt, lockedUntil, checkpoints.getOrDefault(id, 0L)) == 0) {
+                log.warn("Outbox message {} lost its lease during delivery (attempt {})", id, attempt);
+                leased.remove(id, attempt);
+            }
+        }));
+        // Checkpoints reported after their claim was settled
+        checkpoints.keySet().retainAll(leased.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        completionExecutor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.cleanup-interval-ms:3600000}")
+    public void deleteSentMessages() {
+        int deleted = outboxMessageRepository.deleteSentBefore(Instant.now().minus(sentRetention));
+        if (deleted > 0) {
+            log.info("Deleted {} delivered outbox messages", deleted);
+        }
+    }
+
+    private List<Claim> claim(int limit) {
+        List<Claim> claims = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Claim> batch = new ArrayList<>();
+            for (OutboxMessage message : outboxMessageRepository.lockDueBatch(now, limit)) {
+                message.setStatus(OutboxStatus.IN_FLIGHT);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setLockedUntil(now.plus(lease));
+                batch.add(new Claim(message.getId(), message.getKind(), message.getPayload(), message.getAttempts(),
+                        message.getProgress()));
+            }
+            return batch;
+        });
+        if (claims == null) {
+            return List.of();
+        }
+        claims.forEach(claim -> leased.put(claim.id(), claim.attempt()));
+        return claims;
+    }
+
+    private void deliver(Claim claim) {
+        OutboxHandler handler = handlers.get(claim.kind());
+        if (handler == null) {
+            leased.remove(claim.id(), claim.attempt());
+            outboxMessageRepository.markUndelivered(claim.id(), claim.attempt(), OutboxStatus.FAILED,
+                    Instant.now(), "No handler for kind " + claim.kind(), Instant.now(), claim.progress());
+            return;
+        }
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<?> delivery;
+        try {
+            delivery = handler.handle(claim.kind(), claim.payload(), progressOf(claim));
+        } catch (RejectedExecutionException e) {
+            // Downstream is saturated: give the message back without burning an attempt
+            inFlight.release();
+            leased.remove(claim.id(), claim.attempt());
+            outboxMessageRepository.release(claim.id(), claim.attempt(), Instant.now().plusMillis(baseBackoffMs));
+            return;
+        } catch (Exception e) {
+            inFlight.release();
+            onFailure(claim, e);
+            return;
+        }
+        delivery.whenCompleteAsync((result, error) -> {
+            inFlight.release();
+            if (error == null) {
+                leased.remove(claim.id(), claim.attempt());
+                checkpoints.remove(claim.id());
+                outboxMessageRepository.markSent(claim.id(), claim.attempt(), Instant.now());
+                recordOutcome(claim, "sent");
+            } else {
+                onFailure(claim, error);
+            }
+        }, completionExecutor);
+    }
+
+    private DeliveryProgress progressOf(Claim claim) {
+        return new DeliveryProgress() {
+            @Override
+            public long resumeAfter() {
+                return claim.progress();
+            }
+
+            @Override
+            public void checkpoint(long position) {
+                if (leased.containsKey(claim.id())) {
+                    checkpoints.merge(claim.id(), position, Math::max);
+                }
+            }
+        };
+    }
+
+    private void onFailure(Claim claim, Throwable error) {
+        leased.remove(claim.id(), claim.attempt());
+        Long checkpoint = checkpoints.remove(claim.id());
+        long progress = checkpoint != null ? Math.max(checkpoint, claim.progress()) : claim.progress();
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = String.valueOf(cause.getMessage());
+        if (message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+        Instant now = Instant.now();
+        if (cause instanceof NonRetryableDeliveryException || claim.attempt() >= maxAttempts) {
+            log.warn("Outbox message {} ({}) failed permanently after {} attempts: {}",
+                    claim.id(), claim.kind(), claim.attempt(), message);
+            outboxMessageRepository.markUndelivered(claim.id(), claim.attempt(), OutboxStatus.FAILED, now, message, now, progress);
+            recordOutcome(claim, "failed");
+        } else {
+            outboxMessageRepository.markUndelivered(claim.id(), claim.attempt(), OutboxStatus.PENDING,
+                    now.plusMillis(backoffMillis(claim.attempt())), message, null, progress);
+            recordOutcome(claim, "retry");
+        }
+    }
+
+    private void recordOutcome(Claim claim, String outcome) {
+        Counter.builder("notifications.outbox.deliveries")
+                .description("Outbox delivery attempts by message kind and outcome")
+                .tag("kind", claim.kind())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * "Full jitter" exponential backoff, like the fan-out engine's retries.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.backend.outbox;
+
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.model.OutboxStatus;
+import com.ecommerce.backend.repository.OutboxMessageRepository;
+import com.ecommerce.backend.security.CurrentUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Records work to be delivered after the current transaction commits.
+ *
+ * enqueue() joins the caller's transaction: the message is written if and only if the business
+ * change is, so a rollback never leaves a phantom notification and a crash after the commit never
+ * loses one. Delivery is at-least-once; see OutboxRelay.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes a message of the given kind; the payload is stored as JSON.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public OutboxMessage enqueue(String kind, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload of kind " + kind + " is not serializable", e);
+        }
+        return enqueueJson(kind, json);
+    }
+
+    /**
+     * Writes a message whose payload is already serialized. The user of the current request, if
+     * any, is recorded as its submitter.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public OutboxMessage enqueueJson(String kind, String json) {
+        Instant now = Instant.now();
+        OutboxMessage message = new OutboxMessage();
+        message.setKind(kind);
+        message.setPayload(json);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setCreatedAt(now);
+        message.setAvailableAt(now);
+        message.setSubmittedBy(CurrentUser.username());
+        return outboxMessageRepository.save(message);
+    }
+
+    public Optional<OutboxMessage> find(Long id) {
+        return outboxMessageRepository.findById(id);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.CustomerOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Long> {
+
+    /**
+     * The order a user placed with an idempotency key, with its items (unique constraint uk_orders_user_id_idempotency_key).
+     */
+    @Query("select distinct o from CustomerOrder o left join fetch o.items " +
+            "where o.userId = :userId and o.idempotencyKey = :idempotencyKey")
+    Optional<CustomerOrder> findByUserIdAndIdempotencyKey(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * An order with its items, only if it belongs to the user.
+     */
+    @Query("select distinct o from CustomerOrder o left join fetch o.items where o.id = :id and o.userId = :userId")
+    Optional<CustomerOrder> findOwnedWithItems(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Keyset page of a user's orders, newest first (index idx_orders_user_id_id). Items are loaded in batches.
+     */
+    @Query("select o from CustomerOrder o where o.userId = :userId and o.id < :beforeId order by o.id desc")
+    List<CustomerOrder> findPageByUserId(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Pageable page);
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.backend.repository;
+
+/**
+ * Projection of a device token row used for keyset-paginated recipient resolution.
+ */
+public interface DeviceTokenRef {
+
+    Long getId();
+
+    String getToken();
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.DeviceToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
+
+    /**
+     * Registers a token for a user, or refreshes it if the token is already known
+     * (a single statement, so concurrent registrations of the same device cannot duplicate it).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO device_token (user_id, token, platform, created_at, last_seen_at) " +
+            "VALUES (:userId, :token, :platform, now(), now()) " +
+            "ON CONFLICT (token) DO UPDATE SET user_id = EXCLUDED.user_id, " +
+            "platform = EXCLUDED.platform, last_seen_at = now()",
+            nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("token") String token, @Param("platform") String platform);
+
+    /**
+     * Keyset page of the tokens of one user.
+     */
+    @Query("select d.id as id, d.token as token from DeviceToken d " +
+            "where d.user.id = :userId and d.id > :afterId order by d.id")
+    List<DeviceTokenRef> findUserTokensAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Keyset page of the tokens of a segment. Null filters are ignored.
+     */
+    @Query("select d.id as id, d.token as token from DeviceToken d " +
+            "where d.id > :afterId and d.lastSeenAt >= :seenSince " +
+            "and (:providerId is null or d.user.providerId = :providerId) " +
+            "and (:roleName is null or exists (select 1 from User u join u.roles r " +
+            "where u = d.user and r.name = :roleName)) " +
+            "order by d.id")
+    List<DeviceTokenRef> findSegmentTokensAfter(@Param("roleName") String roleName,
+                                                @Param("providerId") Long providerId,
+                                                @Param("seenSince") Instant seenSince,
+                                                @Param("afterId") Long afterId,
+                                                Pageable page);
+
+    @Modifying
+    @Query("delete from DeviceToken d where d.token in :tokens")
+    int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
+
+    @Modifying
+    @Query("delete from DeviceToken d where d.token = :token and d.user.id = :userId")
+    int deleteByTokenAndUserId(@Param("token") String token, @Param("userId") Long userId);
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.backend.repository;
+
+/**
+ * Projection of an entity id and the public URL of its image.
+ */
+public interface ImageReference {
+
+    Long getId();
+
+    String getImageUrl();
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.backend.repository;
+
+import java.util.Locale;
+
+/**
+ * Builds LIKE patterns for the name searches. Queries using them declare escape '\',
+ * so wildcards typed by the user are matched literally.
+ */
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * @return a lower-case pattern matching names that contain the term anywhere.
+     */
+    public static String containing(String term) {
+        String escaped = term.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
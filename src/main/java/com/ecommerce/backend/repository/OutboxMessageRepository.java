@@ -0,0 +1,88 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.OutboxMessage;
+import com.ecommerce.backend.model.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Locks a batch of due messages: pending ones whose backoff elapsed, and in-flight ones whose
+     * lease expired (their node died). SKIP LOCKED lets concurrent relays each take a different batch
+     * instead of waiting on each other. Must run in a transaction, which should set the lease.
+     */
+    @Query(value = "SELECT * FROM outbox_message " +
+            "WHERE (status = 'PENDING' AND available_at <= :now) " +
+            "OR (status = 'IN_FLIGHT' AND locked_until < :now) " +
+            "ORDER BY available_at, id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxMessage> lockDueBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Records a successful delivery. The attempt number fences off a node whose lease expired
+     * and whose message was meanwhile claimed again by another node.
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.status = com.ecommerce.backend.model.OutboxStatus.SENT, " +
+            "m.processedAt = :now, m.lockedUntil = null, m.lastError = null " +
+            "where m.id = :id and m.attempts = :attempt " +
+            "and m.status = com.ecommerce.backend.model.OutboxStatus.IN_FLIGHT")
+    int markSent(@Param("id") Long id, @Param("attempt") int attempt, @Param("now") Instant now);
+
+    /**
+     * Puts a message back to PENDING (retry after availableAt) or FAILED, fenced like markSent.
+     * The progress checkpoint only moves forward.
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.status = :status, m.availableAt = :availableAt, " +
+            "m.lockedUntil = null, m.lastError = :error, m.processedAt = :processedAt, " +
+            "m.progress = greatest(m.progress, :progress) " +
+            "where m.id = :id and m.attempts = :attempt " +
+            "and m.status = com.ecommerce.backend.model.OutboxStatus.IN_FLIGHT")
+    int markUndelivered(@Param("id") Long id, @Param("attempt") int attempt,
+                        @Param("status") OutboxStatus status,
+                        @Param("availableAt") Instant availableAt, @Param("error") String error,
+                        @Param("processedAt") Instant processedAt, @Param("progress") long progress);
+
+    /**
+     * Extends the lease of a message still being delivered and saves its progress checkpoint,
+     * fenced like markSent.
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.lockedUntil = :lockedUntil, m.progress = greatest(m.progress, :progress) " +
+            "where m.id = :id and m.attempts = :attempt " +
+            "and m.status = com.ecommerce.backend.model.OutboxStatus.IN_FLIGHT")
+    int renewLease(@Param("id") Long id, @Param("attempt") int attempt, @Param("lockedUntil") Instant lockedUntil,
+                   @Param("progress") long progress);
+
+    /**
+     * Releases a claimed message without counting the attempt (the relay had no capacity for it).
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.status = com.ecommerce.backend.model.OutboxStatus.PENDING, " +
+            "m.attempts = m.attempts - 1, m.lockedUntil = null, m.availableAt = :availableAt " +
+            "where m.id = :id and m.attempts = :attempt " +
+            "and m.status = com.ecommerce.backend.model.OutboxStatus.IN_FLIGHT")
+    int release(@Param("id") Long id, @Param("attempt") int attempt, @Param("availableAt") Instant availableAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxMessage m where m.status = com.ecommerce.backend.model.OutboxStatus.SENT " +
+            "and m.processedAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Instant cutoff);
+}
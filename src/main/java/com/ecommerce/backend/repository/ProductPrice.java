@@ -0,0 +1,11 @@
+package com.ecommerce.backend.repository;
+
+/**
+ * Projection of a product id and its current price.
+ */
+public interface ProductPrice {
+
+    Long getId();
+
+    int getPrice();
+}
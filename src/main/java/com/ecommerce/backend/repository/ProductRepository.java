@@ -1,17 +1,95 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Product entity. Spring Data JPA automatically provides
  * implementations for standard CRUD methods (findAll, findById, save, delete, etc.).
+ *
+ * Provider-scoped queries filter on p.providerId, the product's own provider_id column, so with
+ * product hash-partitioned by provider (migration V8_1) they read a single partition.
  */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     // Custom query method example: find products by name (Spring automatically infers SQL)
     Product findByName(String name);
-    List<Product> findByProviderId(Long providerId);
+
+    /**
+     * All products, except those of offboarded providers (they are being removed in the background).
+     */
+    @Query("select p from Product p where p.provider.deletedAt is null")
+    List<Product> findAllOfActiveProviders();
+
+    /**
+     * The product unless its provider is offboarded.
+     */
+    @Query("select p from Product p where p.id = :id and p.provider.deletedAt is null")
+    Optional<Product> findVisibleById(@Param("id") Long id);
+
+    /**
+     * Results are kept in the query cache (region products-by-provider); Hibernate drops them as soon
+     * as any product or provider row changes through it (the offboarding job evicts the region after
+     * its JDBC deletes), and the products themselves come from the entity cache.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "products-by-provider")
+    })
+    @Query("select p from Product p where p.providerId = :providerId and p.provider.deletedAt is null")
+    List<Product> findByProviderId(@Param("providerId") Long providerId);
+
+    /**
+     * Keyset page of a provider's products, ordered by id (index idx_product_provider_id_id).
+     */
+    @Query("select p from Product p where p.providerId = :providerId and p.id > :afterId " +
+            "and p.provider.deletedAt is null order by p.id")
+    List<Product> findPageByProviderId(@Param("providerId") Long providerId, @Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Case-insensitive substring search on the name (trigram index idx_product_name_trgm).
+     * @param pattern a pattern built with LikePatterns.containing().
+     */
+    @Query("select p from Product p where lower(p.name) like :pattern escape '\\' " +
+            "and p.provider.deletedAt is null order by p.name, p.id")
+    List<Product> searchByName(@Param("pattern") String pattern, Pageable page);
+
+    /**
+     * Current prices of the given products in one query; unknown ids and products of offboarded
+     * providers are missing from the result.
+     */
+    @Query("select p.id as id, p.price as price from Product p where p.id in :ids and p.provider.deletedAt is null")
+    List<ProductPrice> findPrices(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the subset of the given image URLs that are still referenced by a product.
+     */
+    @Query("select p.productImageUrl from Product p where p.productImageUrl in :urls")
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
+    /**
+     * Keyset page of products with an uploaded image, ordered by id.
+     */
+    @Query("select p.id as id, p.productImageUrl as imageUrl from Product p " +
+            "where p.id > :afterId and p.productImageUrl like '/images/%' order by p.id")
+    List<ImageReference> findImageReferencesAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Rewrites an image URL only if it still has the expected value (no concurrent image change).
+     * @return 1 if the row was updated, 0 otherwise.
+     */
+    @Modifying
+    @Query("update Product p set p.productImageUrl = :newUrl where p.id = :id and p.productImageUrl = :oldUrl")
+    int replaceImageUrl(@Param("id") Long id, @Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
@@ -0,0 +1,22 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.ProviderOffboarding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProviderOffboardingRepository extends JpaRepository<ProviderOffboarding, Long> {
+
+    /**
+     * Locks the oldest running offboarding. One being worked on by another node is skipped, so
+     * nodes process different providers. Must run in a transaction.
+     */
+    @Query(value = "SELECT * FROM provider_offboarding WHERE status = 'RUNNING' " +
+            "ORDER BY started_at LIMIT 1 " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<ProviderOffboarding> lockNextRunning();
+}
@@ -1,9 +1,68 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.model.Provider;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProviderRepository extends JpaRepository<Provider, Long> {
+
+    /**
+     * All providers that are not offboarded.
+     */
+    @Query("select p from Provider p where p.deletedAt is null")
+    List<Provider> findAllActive();
+
+    /**
+     * Like findById (served from the second-level cache), but empty for an offboarded provider.
+     */
+    default Optional<Provider> findActiveById(Long id) {
+        return findById(id).filter(provider -> provider.getDeletedAt() == null);
+    }
+
+    /**
+     * Soft-deletes the provider. As a bulk update it also invalidates the cached providers and the
+     * cached query results that read the provider table.
+     * @return 1 if the provider was active, 0 if it does not exist or is already deleted.
+     */
+    @Modifying
+    @Query("update Provider p set p.deletedAt = :deletedAt where p.id = :id and p.deletedAt is null")
+    int softDelete(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+    /**
+     * Case-insensitive substring search on the name (trigram index idx_provider_name_trgm).
+     * @param pattern a pattern built with LikePatterns.containing().
+     */
+    @Query("select p from Provider p where lower(p.name) like :pattern escape '\\' and p.deletedAt is null order by p.name, p.id")
+    List<Provider> searchByName(@Param("pattern") String pattern, Pageable page);
+
+    /**
+     * Returns the subset of the given image URLs that are still referenced by a provider.
+     */
+    @Query("select p.profileImageUrl from Provider p where p.profileImageUrl in :urls")
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
+    /**
+     * Keyset page of providers with an uploaded profile image, ordered by id.
+     */
+    @Query("select p.id as id, p.profileImageUrl as imageUrl from Provider p " +
+            "where p.id > :afterId and p.profileImageUrl like '/images/%' order by p.id")
+    List<ImageReference> findImageReferencesAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Rewrites an image URL only if it still has the expected value (no concurrent image change).
+     * @return 1 if the row was updated, 0 otherwise.
+     */
+    @Modifying
+    @Query("update Provider p set p.profileImageUrl = :newUrl where p.id = :id and p.profileImageUrl = :oldUrl")
+    int replaceImageUrl(@Param("id") Long id, @Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
@@ -0,0 +1,13 @@
+package com.ecommerce.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a pending scheduled notification, used to fill the in-memory timer.
+ */
+public interface ScheduledNotificationRef {
+
+    Long getId();
+
+    Instant getSendAt();
+}
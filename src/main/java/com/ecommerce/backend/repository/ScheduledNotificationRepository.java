@@ -0,0 +1,42 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.ScheduledNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, Long> {
+
+    /**
+     * Keyset page of pending notifications due before the horizon.
+     */
+    @Query("select s.id as id, s.sendAt as sendAt from ScheduledNotification s " +
+            "where s.status = com.ecommerce.backend.model.ScheduledNotificationStatus.SCHEDULED " +
+            "and s.sendAt < :horizon and s.id > :afterId order by s.id")
+    List<ScheduledNotificationRef> findPendingBefore(@Param("horizon") Instant horizon,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable page);
+
+    /**
+     * Locks the given notifications if they are still pending. Rows locked by another node are
+     * skipped: that node is dispatching them. Must run in a transaction.
+     */
+    @Query(value = "SELECT * FROM scheduled_notification " +
+            "WHERE id IN (:ids) AND status = 'SCHEDULED' " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ScheduledNotification> lockPending(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update ScheduledNotification s set s.status = com.ecommerce.backend.model.ScheduledNotificationStatus.CANCELLED " +
+            "where s.id = :id and s.status = com.ecommerce.backend.model.ScheduledNotificationStatus.SCHEDULED")
+    int cancel(@Param("id") Long id);
+}
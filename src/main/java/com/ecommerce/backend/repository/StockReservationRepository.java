@@ -0,0 +1,49 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.model.StockReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByReservationIdOrderByProductId(String reservationId);
+
+    /**
+     * Locks the still active lines of a reservation. Must run in a transaction.
+     */
+    @Query(value = "SELECT * FROM stock_reservation " +
+            "WHERE reservation_id = :reservationId AND status = 'ACTIVE' " +
+            "FOR UPDATE",
+            nativeQuery = true)
+    List<StockReservation> lockActive(@Param("reservationId") String reservationId);
+
+    /**
+     * Locks a batch of active lines past their expiry time. Rows locked by another node are
+     * skipped: that node is expiring (or someone is committing) them. Must run in a transaction.
+     */
+    @Query(value = "SELECT * FROM stock_reservation " +
+            "WHERE status = 'ACTIVE' AND expires_at < :now " +
+            "ORDER BY expires_at LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<StockReservation> lockExpired(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Moves all active lines of a reservation to the given status.
+     * @return the number of lines updated (0 if the reservation is no longer active).
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :status, r.completedAt = :now " +
+            "where r.reservationId = :reservationId and r.status = com.ecommerce.backend.model.StockReservationStatus.ACTIVE")
+    int complete(@Param("reservationId") String reservationId,
+                 @Param("status") StockReservationStatus status,
+                 @Param("now") Instant now);
+}
@@ -2,6 +2,8 @@ package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +15,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Finds a User entity based on the unique username.
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Only the id of the user, without loading the entity and its roles.
+     */
+    @Query("select u.id from User u where u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
 }
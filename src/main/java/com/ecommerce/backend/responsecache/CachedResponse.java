@@ -0,0 +1,58 @@
+package com.ecommerce.backend.responsecache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A serialized JSON response body, plus its gzip encoding when the body is large enough to gain
+ * from it.
+ *
+ * @param providerId The provider the response belongs to, so offboarding can drop it.
+ */
+public record CachedResponse(byte[] json, byte[] gzip, Long providerId) {
+
+    int weight() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /**
+     * 200 with the stored bytes as they are: gzip-encoded if the client accepts gzip and there is a
+     * gzip variant.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (gzip == null) {
+            return builder.body(json);
+        }
+        builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return acceptsGzip(acceptEncoding)
+                ? builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip)
+                : builder.body(json);
+    }
+
+    /**
+     * True if the Accept-Encoding header lists gzip (or *) without q=0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.backend.responsecache;
+
+import com.ecommerce.backend.datasource.ReplicaReadContext;
+import com.ecommerce.backend.dto.ProductResponseDTO;
+import com.ecommerce.backend.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized bodies of GET /api/v1/products/{id} and GET /api/v1/products/by-provider/{providerId},
+ * so a hit is one map lookup and a copy of the bytes to the response, with no query and no Jackson.
+ *
+ * Entries are dropped after every committed change of the product or of its provider's product
+ * list: by ProductResponseCacheListener for changes made through Hibernate, and explicitly where
+ * statements bypass it (InventoryStore, provider offboarding, the upload shard migration).
+ *
+ * A response read from the database while a change commits must not be stored after the change
+ * dropped its key. Every invalidation bumps the counter of the key's stripe; a loaded response is
+ * only stored if its stripe did not move since the load started. For the same reason a miss is
+ * loaded from the primary, never from a replica that may not have applied the change yet.
+ *
+ * Invalidation only reaches this node's cache. Entries expire after responses.cache.ttl-seconds,
+ * which bounds how long other nodes keep serving a response from before a change.
+ */
+@Component
+public class ProductResponseCache {
+
+    private record ResponseKey(boolean providerList, long id) {
+    }
+
+    private static final int STRIPES = 64;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int gzipMinBytes;
+    private final Cache<ResponseKey, CachedResponse> cache;
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    public ProductResponseCache(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${responses.cache.enabled:true}") boolean enabled,
+                                @Value("${responses.cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${responses.cache.ttl-seconds:600}") long ttlSeconds,
+                                @Value("${responses.cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ResponseKey key, CachedResponse response) -> response.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product-responses");
+    }
+
+    /**
+     * The body of GET /api/v1/products/{id}; empty (and not cached) if the loader finds no product.
+     */
+    public Optional<CachedResponse> product(Long id, Supplier<Optional<Product>> loader) {
+        ResponseKey key = new ResponseKey(false, id);
+        CachedResponse cached = enabled ? cache.getIfPresent(key) : null;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = invalidations.get(stripe(key));
+        return load(loader).map(product -> store(key, stamp, serialize(product, product.getProviderId())));
+    }
+
+    /**
+     * The body of GET /api/v1/products/by-provider/{providerId}; empty (and not cached) if the
+     * loader returns no products.
+     */
+    public Optional<CachedResponse> providerProducts(Long providerId, Supplier<List<ProductResponseDTO>> loader) {
+        ResponseKey key = new ResponseKey(true, providerId);
+        CachedResponse cached = enabled ? cache.getIfPresent(key) : null;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = invalidations.get(stripe(key));
+        List<ProductResponseDTO> products = load(loader);
+        if (products.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(store(key, stamp, serialize(products, providerId)));
+    }
+
+    /**
+     * Drops the product's response and its provider's list (if providerId is known) once the
+     * current transaction committed, or at once outside a transaction.
+     */
+    public void invalidateProductAfterCommit(Long productId, Long providerId) {
+        afterCommit(() -> {
+            invalidate(new ResponseKey(false, productId));
+            if (providerId != null) {
+                invalidate(new ResponseKey(true, providerId));
+            }
+        });
+    }
+
+    /**
+     * Drops the provider's list and the responses of all of its products, e.g. when the provider
+     * is offboarded. Runs after commit like invalidateProductAfterCommit.
+     */
+    public void invalidateProviderAfterCommit(Long providerId) {
+        afterCommit(() -> {
+            invalidate(new ResponseKey(true, providerId));
+            bumpAll();
+            cache.asMap().values().removeIf(response -> providerId.equals(response.providerId()));
+        });
+    }
+
+    /**
+     * Drops everything after commit, for bulk changes that do not know the products' providers.
+     */
+    public void invalidateAllAfterCommit() {
+        afterCommit(() -> {
+            bumpAll();
+            cache.invalidateAll();
+        });
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        // Only a stored response must not be behind; with the cache off, replicas are fine
+        return enabled ? ReplicaReadContext.onPrimary(loader) : loader.get();
+    }
+
+    private CachedResponse store(ResponseKey key, long stamp, CachedResponse response) {
+        if (enabled) {
+            // Only if no invalidation of this stripe happened while the response was loaded
+            cache.asMap().compute(key, (k, existing) -> invalidations.get(stripe(k)) == stamp ? response : existing);
+        }
+        return response;
+    }
+
+    private void invalidate(ResponseKey key) {
+        // Under the map's lock for the key, so a concurrent store either sees the new counter or is removed
+        cache.asMap().compute(key, (k, existing) -> {
+            invalidations.incrementAndGet(stripe(k));
+            return null;
+        });
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+    }
+
+    private CachedResponse serialize(Object body, Long providerId) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(json, json.length >= gzipMinBytes ? gzip(json) : null, providerId);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static int stripe(ResponseKey key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
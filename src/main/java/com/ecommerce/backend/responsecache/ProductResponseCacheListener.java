@@ -0,0 +1,28 @@
+package com.ecommerce.backend.responsecache;
+
+import com.ecommerce.backend.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached responses of a product written through Hibernate once the write committed.
+ * Registered on Product with @EntityListeners; Hibernate gets the instance from Spring.
+ */
+@Component
+public class ProductResponseCacheListener {
+
+    private final ProductResponseCache productResponseCache;
+
+    public ProductResponseCacheListener(ProductResponseCache productResponseCache) {
+        this.productResponseCache = productResponseCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void productChanged(Product product) {
+        productResponseCache.invalidateProductAfterCommit(product.getId(), product.getProviderId());
+    }
+}
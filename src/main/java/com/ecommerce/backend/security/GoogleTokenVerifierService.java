@@ -4,11 +4,13 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 
+@Slf4j
 @Service
 public class GoogleTokenVerifierService {
 
@@ -40,7 +42,7 @@ public class GoogleTokenVerifierService {
             }
         } catch (Exception e) {
             // Log the exception for debugging (e.g., token expired, signature mismatch)
-            System.err.println("Google ID Token verification failed: " + e.getMessage());
+            log.warn("Google ID Token verification failed: {}", e.getMessage());
         }
         return null; // Token is invalid
     }
@@ -0,0 +1,139 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.model.User;
+import com.ecommerce.backend.notification.InvalidDeviceTokensEvent;
+import com.ecommerce.backend.repository.DeviceTokenRef;
+import com.ecommerce.backend.repository.DeviceTokenRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side registry of the devices (FCM tokens) of each user.
+ *
+ * Recipients are resolved in keyset-paginated batches and handed to a consumer one batch at a
+ * time, so sending to a large audience never loads all tokens into memory at once.
+ */
+@Slf4j
+@Service
+public class DeviceRegistryService {
+
+    /**
+     * Receives one batch of resolved tokens, with the id of its last device token (to resume after).
+     * May block (the fan-out engine throttles the caller).
+     */
+    @FunctionalInterface
+    public interface TokenBatchConsumer {
+        void accept(List<String> tokens, long lastId) throws InterruptedException;
+    }
+
+    /**
+     * Keyset page query of a recipient set.
+     */
+    @FunctionalInterface
+    private interface TokenPage {
+        List<DeviceTokenRef> after(Long afterId, Pageable page);
+    }
+
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final UserRepository userRepository;
+    private final int batchSize;
+
+    public DeviceRegistryService(DeviceTokenRepository deviceTokenRepository,
+                                 UserRepository userRepository,
+                                 @Value("${notifications.devices.resolve-batch-size:1000}") int batchSize) {
+        this.deviceTokenRepository = deviceTokenRepository;
+        this.userRepository = userRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Registers (or refreshes) a device for the given user.
+     * A token already registered to another user moves to this one: it is the same physical device.
+     */
+    @Transactional
+    public void register(String username, String token, String platform) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        deviceTokenRepository.upsert(user.getId(), token, platform);
+    }
+
+    /**
+     * Removes a device of the given user (e.g. on logout).
+     * @return true if the token was registered to this user.
+     */
+    @Transactional
+    public boolean unregister(String username, String token) {
+        return userRepository.findByUsername(username)
+                .map(user -> deviceTokenRepository.deleteByTokenAndUserId(token, user.getId()) > 0)
+                .orElse(false);
+    }
+
+    /**
+     * Streams the tokens of one user's devices.
+     *
+     * @param afterId Only devices with a greater device-token id (0 for all).
+     */
+    public void forEachUserTokenBatch(Long userId, long afterId, TokenBatchConsumer consumer) throws InterruptedException {
+        forEachBatch(afterId, (lastId, page) -> deviceTokenRepository.findUserTokensAfter(userId, lastId, page), consumer);
+    }
+
+    /**
+     * Streams the tokens of every device matching the segment. Null filters are ignored.
+     *
+     * @param activeWithinDays Only devices seen within this many days; null for all devices.
+     * @param afterId Only devices with a greater device-token id (0 for all).
+     */
+    public void forEachSegmentTokenBatch(String roleName, Long providerId, Integer activeWithinDays, long afterId,
+                                         TokenBatchConsumer consumer) throws InterruptedException {
+        Instant seenSince = activeWithinDays == null
+                ? Instant.EPOCH
+                : Instant.now().minusSeconds(activeWithinDays * 86_400L);
+        forEachBatch(afterId, (lastId, page) -> deviceTokenRepository.findSegmentTokensAfter(
+                roleName, providerId, seenSince, lastId, page), consumer);
+    }
+
+    /**
+     * Prunes tokens FCM reported as permanently invalid after a fan-out.
+     */
+    @EventListener
+    @Transactional
+    public void onInvalidDeviceTokens(InvalidDeviceTokensEvent event) {
+        int removed = 0;
+        List<String> tokens = event.tokens();
+        // Keep the IN list of each statement bounded
+        for (int from = 0; from < tokens.size(); from += batchSize) {
+            removed += deviceTokenRepository.deleteByTokenIn(tokens.subList(from, Math.min(from + batchSize, tokens.size())));
+        }
+        log.info("Removed {} invalid device tokens reported by campaign {}", removed, event.campaignId());
+    }
+
+    private void forEachBatch(long startAfterId, TokenPage query, TokenBatchConsumer consumer) throws InterruptedException {
+        Long afterId = startAfterId;
+        while (true) {
+            List<DeviceTokenRef> page = query.after(afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+            List<String> tokens = new ArrayList<>(page.size());
+            for (DeviceTokenRef ref : page) {
+                tokens.add(ref.getToken());
+            }
+            consumer.accept(tokens, afterId);
+            if (page.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
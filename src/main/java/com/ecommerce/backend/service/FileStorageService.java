@@ -1,47 +1,47 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.dto.PresignedUploadResponseDTO;
+import com.ecommerce.backend.storage.PresignedUpload;
+import com.ecommerce.backend.storage.StorageBackend;
+import com.ecommerce.backend.storage.UploadKeyLayout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import jakarta.annotation.PostConstruct;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
- * Service responsible for handling file system operations (saving, locating, managing directories).
- * This service is designed to be generic for various entity types (e.g., providers, products).
+ * Service responsible for naming, storing and locating uploaded files.
+ * This service is designed to be generic for various entity types (e.g., providers, products);
+ * the bytes themselves are kept by the configured StorageBackend (local disk or S3-compatible bucket).
  */
 @Service
 public class FileStorageService {
 
-    // Injects the base directory from application.properties (e.g., file.upload-base-dir=uploads)
-    @Value("${file.upload-base-dir}")
-    private String uploadBaseDir;
+    // Public URL prefix for uploaded files (must match WebConfig / StorageImageRedirectController)
+    public static final String PUBLIC_URL_PREFIX = "/images/";
 
-    private Path fileStorageLocation;
+    private final StorageBackend storageBackend;
+    private final UploadKeyLayout keyLayout;
+    private final Duration presignTtl;
+    private final long maxUploadBytes;
 
-    /**
-     * Initializes the service by resolving the base storage path and creating the directory if it doesn't exist.
-     */
-    @PostConstruct
-    public void init() {
-        this.fileStorageLocation = Paths.get(uploadBaseDir).toAbsolutePath().normalize();
-        try {
-            if (!Files.exists(this.fileStorageLocation)) {
-                Files.createDirectories(this.fileStorageLocation);
-                System.out.println("Created base upload directory: " + this.fileStorageLocation);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create the base directory where uploaded files will be stored: " + uploadBaseDir, e);
-        }
+    public FileStorageService(StorageBackend storageBackend, UploadKeyLayout keyLayout,
+                              @Value("${file.storage.presign-ttl-seconds:900}") long presignTtlSeconds,
+                              @Value("${file.storage.max-upload-bytes:10485760}") long maxUploadBytes) {
+        this.storageBackend = storageBackend;
+        this.keyLayout = keyLayout;
+        this.presignTtl = Duration.ofSeconds(presignTtlSeconds);
+        this.maxUploadBytes = maxUploadBytes;
     }
 
     /**
-     * Stores a file on the file system in an entity-specific subdirectory and returns the public URL path.
+     * Stores a file in an entity-specific folder and returns the public URL path.
      *
      * @param file The file to store (MultipartFile).
      * @param entityType The subdirectory name (e.g., "providers", "products").
@@ -53,26 +53,99 @@ public class FileStorageService {
         if (file.isEmpty()) {
             throw new IOException("Cannot store empty file.");
         }
-        // 1. Ensure the entity-specific directory exists (e.g., uploads/providers)
-        Path entityPath = fileStorageLocation.resolve(entityType).normalize();
-        if (!Files.exists(entityPath)) {
-            Files.createDirectories(entityPath);
+        String objectKey = newObjectKey(entityType, entityId, file.getOriginalFilename());
+        try (InputStream content = file.getInputStream()) {
+            storageBackend.store(objectKey, content, file.getSize(), file.getContentType());
+        }
+        return toPublicUrl(objectKey);
+    }
+
+    /**
+     * Reserves a new object key for the entity and asks the backend for a direct-upload URL.
+     * The client PUTs the bytes straight to storage and then confirms the returned object key.
+     * The URL only accepts a body of the given content type and length (see isAllowedUploadSize).
+     *
+     * @return empty if the configured backend does not support direct uploads.
+     */
+    public Optional<PresignedUploadResponseDTO> presignUpload(String entityType, Long entityId, String originalFilename,
+                                                              String contentType, long contentLength) {
+        String objectKey = newObjectKey(entityType, entityId, originalFilename);
+        Optional<PresignedUpload> presigned = storageBackend.presignUpload(objectKey, contentType, contentLength, presignTtl);
+        return presigned.map(upload -> new PresignedUploadResponseDTO(
+                objectKey,
+                toPublicUrl(objectKey),
+                upload.url().toString(),
+                upload.method(),
+                upload.signedHeaders(),
+                upload.expiresAt()));
+    }
+
+    /**
+     * @return true if a direct upload of this many bytes may be signed (same limit as multipart uploads).
+     */
+    public boolean isAllowedUploadSize(long contentLength) {
+        return contentLength > 0 && contentLength <= maxUploadBytes;
+    }
+
+    /**
+     * Checks that a client-confirmed object key was issued for this entity and that the upload actually landed.
+     */
+    public boolean isUploadedObjectFor(String objectKey, String entityType, Long entityId) throws IOException {
+        if (objectKey == null || objectKey.contains("..")) {
+            return false;
+        }
+        String expectedFilenamePrefix = entityType + "_" + entityId + "_";
+        return objectKey.startsWith(entityType + "/")
+                && keyLayout.filenameOf(objectKey).startsWith(expectedFilenamePrefix)
+                && storageBackend.exists(objectKey);
+    }
+
+    /**
+     * Resolves the key an object actually lives under. Flat keys from before the sharded layout
+     * may already have been moved by the shard migration, in which case the sharded key is returned.
+     */
+    public String resolveStoredKey(String objectKey) throws IOException {
+        if (keyLayout.isSharded() && keyLayout.isFlat(objectKey) && !storageBackend.exists(objectKey)) {
+            return keyLayout.toShardedKey(objectKey);
         }
-        // 2. Create a unique filename
-        String originalFilename = file.getOriginalFilename();
+        return objectKey;
+    }
+
+    /**
+     * Resolves a download URL for an object key, when the backend serves files directly to clients.
+     */
+    public Optional<URI> presignDownload(String objectKey) {
+        return storageBackend.presignDownload(objectKey, presignTtl);
+    }
+
+    public String toPublicUrl(String objectKey) {
+        return PUBLIC_URL_PREFIX + objectKey;
+    }
+
+    /**
+     * @return the object key for a public URL path, or null if the URL does not point to an uploaded file.
+     */
+    public String toObjectKey(String publicUrl) {
+        if (publicUrl == null || !publicUrl.startsWith(PUBLIC_URL_PREFIX)) {
+            return null;
+        }
+        return publicUrl.substring(PUBLIC_URL_PREFIX.length());
+    }
+
+    private String newObjectKey(String entityType, Long entityId, String originalFilename) {
         String extension = "";
-        int dotIndex = originalFilename.lastIndexOf('.');
-        if (dotIndex > 0) {
-            extension = originalFilename.substring(dotIndex);
+        if (originalFilename != null) {
+            int dotIndex = originalFilename.lastIndexOf('.');
+            if (dotIndex > 0) {
+                extension = originalFilename.substring(dotIndex);
+            }
+        }
+        // Client-supplied names end up in object keys, so only keep plain extensions
+        if (!extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+            extension = "";
         }
-        // Example unique name: providers_123_uuid.jpg
-        String uniqueFilename = entityType + "_" + entityId + "_" + UUID.randomUUID().toString() + extension;
-        // 3. Resolve the final path for saving the file
-        Path targetLocation = entityPath.resolve(uniqueFilename);
-        // 4. Save the file to the file system
-        Files.copy(file.getInputStream(), targetLocation);
-        // 5. Return the public URL path (must match the path configured in WebConfig)
-        // Assumes WebConfig maps /images/ to the fileStorageLocation
-        return "/images/" + entityType + "/" + uniqueFilename;
+        // Example unique name: providers_123_uuid.jpg, stored under e.g. providers/3f/a2/
+        String uniqueFilename = entityType + "_" + entityId + "_" + UUID.randomUUID() + extension;
+        return keyLayout.keyFor(entityType, uniqueFilename);
     }
 }
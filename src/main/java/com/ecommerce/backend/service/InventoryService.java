@@ -0,0 +1,245 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.inventory.HotStockLedger;
+import com.ecommerce.backend.inventory.InsufficientStockException;
+import com.ecommerce.backend.inventory.InventoryStore;
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.model.StockReservationStatus;
+import com.ecommerce.backend.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Inventory reservations: stock is taken when reserved, and either kept (commit) or given back
+ * (release, or expiry after the TTL by the ReservationExpiryJob).
+ *
+ * Regular products are decremented with conditional UPDATEs in product id order (no deadlocks
+ * between reservations of overlapping products). Products configured as hot are served from the
+ * HotStockLedger before the database transaction starts, so a reservation never holds two
+ * connections.
+ */
+@Service
+public class InventoryService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryStore inventoryStore;
+    private final HotStockLedger hotStockLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final MeterRegistry meterRegistry;
+
+    public InventoryService(StockReservationRepository stockReservationRepository,
+                            InventoryStore inventoryStore,
+                            HotStockLedger hotStockLedger,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.reservations.default-ttl-seconds:900}") long defaultTtlSeconds,
+                            @Value("${inventory.reservations.max-ttl-seconds:86400}") long maxTtlSeconds) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.inventoryStore = inventoryStore;
+        this.hotStockLedger = hotStockLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+    }
+
+    /**
+     * Reserves all lines or none. Lines for the same product are merged.
+     *
+     * @param ttl How long the stock is held without a commit; null for the default.
+     * @return the reservation lines, all sharing one reservation id.
+     * @throws InsufficientStockException if any product lacks the requested quantity.
+     */
+    public List<StockReservation> reserve(Collection<ReservationLine> requestedLines, Duration ttl) {
+        Duration effectiveTtl = ttl == null ? defaultTtl : (ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl);
+        return takeStock(requestedLines, lines -> saveLines(lines, effectiveTtl), "inventory.reservations", "reserved");
+    }
+
+    /**
+     * Takes the stock of all lines and runs the work in the transaction that took it (so e.g. an
+     * order insert commits together with the stock change). If a product lacks stock or the work
+     * fails, nothing stays taken. Lines for the same product are merged.
+     *
+     * @param work Gets the merged lines, in product id order.
+     * @throws InsufficientStockException if any product lacks the requested quantity.
+     */
+    public <T> T withStockTaken(Collection<ReservationLine> requestedLines, Function<List<ReservationLine>, T> work) {
+        return takeStock(requestedLines, work, "inventory.stock.takes", "taken");
+    }
+
+    /**
+     * withStockTaken, counting the outcome in the given meter: inventory.reservations (outcome
+     * reserved) keeps the name and values reservations always had, orders count in inventory.stock.takes.
+     */
+    private <T> T takeStock(Collection<ReservationLine> requestedLines, Function<List<ReservationLine>, T> work,
+                            String meterName, String successOutcome) {
+        List<ReservationLine> lines = merge(requestedLines);
+        List<ReservationLine> hotLines = new ArrayList<>();
+        List<ReservationLine> databaseLines = new ArrayList<>();
+        for (ReservationLine line : lines) {
+            (hotStockLedger.isHot(line.productId()) ? hotLines : databaseLines).add(line);
+        }
+
+        // 1. Hot products from the in-memory ledger, outside any transaction
+        List<ReservationLine> taken = new ArrayList<>();
+        for (ReservationLine line : hotLines) {
+            if (!hotStockLedger.tryTake(line.productId(), line.quantity())) {
+                taken.forEach(done -> hotStockLedger.giveBack(done.productId(), done.quantity()));
+                recordOutcome(meterName, "insufficient");
+                throw new InsufficientStockException(line.productId(), line.quantity());
+            }
+            taken.add(line);
+        }
+
+        // 2. Everything else, plus the caller's work, in one short transaction
+        try {
+            T result = transactionTemplate.execute(status -> {
+                inventoryStore.decrementAll(databaseLines);
+                return work.apply(lines);
+            });
+            recordOutcome(meterName, successOutcome);
+            return result;
+        } catch (RuntimeException e) {
+            taken.forEach(done -> hotStockLedger.giveBack(done.productId(), done.quantity()));
+            recordOutcome(meterName, e instanceof InsufficientStockException ? "insufficient" : "error");
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the reservation final. A reservation past its expiry time is expired instead.
+     * Joins the caller's transaction if there is one.
+     *
+     * @return false if the reservation is unknown, released, expired or already committed.
+     */
+    public boolean commit(String reservationId) {
+        return transactionTemplate.execute(status -> {
+            List<StockReservation> active = stockReservationRepository.lockActive(reservationId);
+            if (active.isEmpty()) {
+                return false;
+            }
+            Instant now = Instant.now();
+            boolean complete = active.size() == stockReservationRepository.findByReservationIdOrderByProductId(reservationId).size();
+            if (!complete || active.stream().anyMatch(line -> line.getExpiresAt().isBefore(now))) {
+                // Partly collected by the expiry job, or simply too late: give everything back
+                returnStock(active, StockReservationStatus.EXPIRED, now);
+                return false;
+            }
+            active.forEach(line -> {
+                line.setStatus(StockReservationStatus.COMMITTED);
+                line.setCompletedAt(now);
+            });
+            return true;
+        });
+    }
+
+    /**
+     * Gives the stock of an active reservation back.
+     * @return false if the reservation is unknown or no longer active.
+     */
+    public boolean release(String reservationId) {
+        return transactionTemplate.execute(status -> {
+            List<StockReservation> active = stockReservationRepository.lockActive(reservationId);
+            returnStock(active, StockReservationStatus.RELEASED, Instant.now());
+            return !active.isEmpty();
+        });
+    }
+
+    public List<StockReservation> find(String reservationId) {
+        return stockReservationRepository.findByReservationIdOrderByProductId(reservationId);
+    }
+
+    /**
+     * Adds or removes stock of a product without touching the rest of the row.
+     * @return false if the product does not exist or has less stock than a removal.
+     */
+    public boolean adjustStock(Long productId, int delta) {
+        return transactionTemplate.execute(status -> inventoryStore.adjust(productId, delta));
+    }
+
+    /**
+     * Gives the stock of locked, still active lines back and moves them to the final status.
+     * Must run in the transaction that locked them.
+     */
+    public void returnStock(List<StockReservation> lines, StockReservationStatus finalStatus, Instant now) {
+        List<StockReservation> toLedger = new ArrayList<>();
+        lines.stream().sorted(Comparator.comparing(StockReservation::getProductId)).forEach(line -> {
+            if (line.isFromLedger()) {
+                toLedger.add(line);
+            } else {
+                inventoryStore.increment(line.getProductId(), line.getQuantity());
+            }
+            line.setStatus(finalStatus);
+            line.setCompletedAt(now);
+        });
+        if (!toLedger.isEmpty()) {
+            // The ledger is not transactional: only give the stock back once the status change is durable
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    toLedger.forEach(line -> hotStockLedger.giveBack(line.getProductId(), line.getQuantity()));
+                }
+            });
+        }
+    }
+
+    private List<StockReservation> saveLines(List<ReservationLine> lines, Duration ttl) {
+        String reservationId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        List<StockReservation> reservations = new ArrayList<>();
+        for (ReservationLine line : lines) {
+            StockReservation reservation = new StockReservation();
+            reservation.setReservationId(reservationId);
+            reservation.setProductId(line.productId());
+            reservation.setQuantity(line.quantity());
+            reservation.setStatus(StockReservationStatus.ACTIVE);
+            reservation.setFromLedger(hotStockLedger.isHot(line.productId()));
+            reservation.setCreatedAt(now);
+            reservation.setExpiresAt(now.plus(ttl));
+            reservations.add(reservation);
+        }
+        return stockReservationRepository.saveAll(reservations);
+    }
+
+    /**
+     * Sums quantities per product and orders the lines by product id, the lock order of all
+     * stock updates.
+     */
+    private static List<ReservationLine> merge(Collection<ReservationLine> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("A reservation needs at least one line");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        lines.forEach(line -> quantities.merge(line.productId(), line.quantity(), Math::addExact));
+        return quantities.entrySet().stream()
+                .map(entry -> new ReservationLine(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private void recordOutcome(String meterName, String outcome) {
+        Counter.builder(meterName)
+                .description("Attempts to take stock by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
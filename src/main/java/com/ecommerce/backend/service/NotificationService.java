@@ -1,10 +1,25 @@
 package com.ecommerce.backend.service;
 
 import com.ecommerce.backend.dto.AllDevicesNotificationRequestDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionRequestDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO;
 import com.ecommerce.backend.dto.DeviceNotificationRequestDTO;
+import com.ecommerce.backend.dto.NotificationRequestDTO;
 import com.ecommerce.backend.dto.NotificationSubscriptionRequestDTO;
+import com.ecommerce.backend.dto.SegmentNotificationRequestDTO;
 import com.ecommerce.backend.dto.TopicNotificationRequestDTO;
-import com.google.firebase.FirebaseApp;
+import com.ecommerce.backend.dto.UserNotificationRequestDTO;
+import com.ecommerce.backend.notification.FanoutCampaign;
+import com.ecommerce.backend.notification.MulticastFanoutEngine;
+import com.ecommerce.backend.notification.NotificationCoalescer;
+import com.ecommerce.backend.notification.NotificationDispatcher;
+import com.ecommerce.backend.notification.NotificationJob;
+import com.ecommerce.backend.notification.TopicSubscriptionManager;
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.notification.transport.PushTransport;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.ecommerce.backend.outbox.DeliveryProgress;
+import com.google.api.core.ApiFuture;
 import com.google.firebase.messaging.*;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,34 +29,68 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 @Service
 @Slf4j
 public class NotificationService {
 
-    private final FirebaseApp firebaseApp;
+    private final PushTransport transport;
+    private final NotificationDispatcher dispatcher;
+    private final MulticastFanoutEngine fanoutEngine;
+    private final DeviceRegistryService deviceRegistry;
+    private final NotificationCoalescer coalescer;
+    private final TopicSubscriptionManager topicSubscriptions;
 
-    public NotificationService(FirebaseApp firebaseApp) {
-        this.firebaseApp = firebaseApp;
+    public NotificationService(PushTransport transport, NotificationDispatcher dispatcher,
+                               MulticastFanoutEngine fanoutEngine, DeviceRegistryService deviceRegistry,
+                               NotificationCoalescer coalescer, TopicSubscriptionManager topicSubscriptions) {
+        this.transport = transport;
+        this.dispatcher = dispatcher;
+        this.fanoutEngine = fanoutEngine;
+        this.deviceRegistry = deviceRegistry;
+        this.coalescer = coalescer;
+        this.topicSubscriptions = topicSubscriptions;
     }
 
-    public void subscribeDeviceToTopic(NotificationSubscriptionRequestDTO request) throws FirebaseMessagingException {
-        FirebaseMessaging.getInstance().subscribeToTopic(
+    public void subscribeDeviceToTopic(NotificationSubscriptionRequestDTO request) throws PushTransportException {
+        await(transport.subscribeToTopic(
                 Collections.singletonList(request.getDeviceToken()),
                 request.getTopicName()
-        );
+        ));
     }
 
-    public void unsubscribeDeviceFromTopic(NotificationSubscriptionRequestDTO request) throws FirebaseMessagingException {
-        FirebaseMessaging.getInstance().unsubscribeFromTopic(
+    public void unsubscribeDeviceFromTopic(NotificationSubscriptionRequestDTO request) throws PushTransportException {
+        await(transport.unsubscribeFromTopic(
                 Collections.singletonList(request.getDeviceToken()),
                 request.getTopicName()
-        );
+        ));
     }
 
-    public void sendNotificationToDevice(DeviceNotificationRequestDTO request) throws FirebaseMessagingException, ExecutionException, InterruptedException {
-        Message fcmMessage = Message.builder()
+    /**
+     * Subscribes every token to every topic using maximum-size FCM calls executed concurrently.
+     * @return totals and the token/topic pairs that failed.
+     */
+    public BatchTopicSubscriptionResponseDTO subscribeDevicesToTopics(BatchTopicSubscriptionRequestDTO request)
+            throws InterruptedException {
+        return topicSubscriptions.subscribe(request.getDeviceTokens(), request.getTopicNames());
+    }
+
+    public BatchTopicSubscriptionResponseDTO unsubscribeDevicesFromTopics(BatchTopicSubscriptionRequestDTO request)
+            throws InterruptedException {
+        return topicSubscriptions.unsubscribe(request.getDeviceTokens(), request.getTopicNames());
+    }
+
+    /**
+     * Queues a notification for a single device and returns immediately.
+     * The returned job is completed by an FCM callback, never by blocking the caller.
+     * With a collapse key, messages to the same device within the coalescing window share one job
+     * and only the latest is sent.
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob sendNotificationToDevice(DeviceNotificationRequestDTO request) {
+        Message.Builder fcmMessage = Message.builder()
                 .setToken(request.getDeviceToken())
                 .setNotification(
                         Notification.builder()
@@ -50,15 +99,20 @@ public class NotificationService {
                                 .setImage(request.getImage())
                                 .build()
                 )
-                .putAllData(request.getData())
-                .build();
+                .putAllData(request.getData());
+        Message message = applyCollapseKey(fcmMessage, request.getCollapseKey()).build();
 
-        String response = FirebaseMessaging.getInstance(firebaseApp).sendAsync(fcmMessage).get();
-        System.out.println("sendNotificationToDevice response: {}" + response);
+        return coalescer.submit("send-to-device", request.getDeviceToken(), request.getCollapseKey(),
+                () -> transport.send(message));
     }
 
-    public void sendPushNotificationToTopic(TopicNotificationRequestDTO request) throws FirebaseMessagingException, ExecutionException, InterruptedException {
-        Message fcmMessage = Message.builder()
+    /**
+     * Queues a notification for all subscribers of a topic and returns immediately.
+     * Coalesced per topic and collapse key like sendNotificationToDevice.
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob sendPushNotificationToTopic(TopicNotificationRequestDTO request) {
+        Message.Builder fcmMessage = Message.builder()
                 .setTopic(request.getTopicName())
                 .setNotification(
                         Notification.builder()
@@ -69,16 +123,124 @@ public class NotificationService {
                 )
 //                .setAndroidConfig(getAndroidConfig(request.getTopicName()))
 //                .setApnsConfig(getApnsConfig(request.getTopicName()))
-                .putAllData(request.getData())
-                .build();
+                .putAllData(request.getData());
+        Message message = applyCollapseKey(fcmMessage, request.getCollapseKey()).build();
+
+        return coalescer.submit("send-to-topic", request.getTopicName(), request.getCollapseKey(),
+                () -> transport.send(message));
+    }
+
+    /**
+     * Queues a notification for a list of device tokens and returns immediately.
+     * Any number of tokens is accepted: the fan-out engine splits them into FCM-sized chunks.
+     * Delivery statistics are available under the job id via getCampaign().
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob sendMulticastNotification(AllDevicesNotificationRequestDTO request) {
+        return sendMulticastNotification(request, DeliveryProgress.NONE);
+    }
+
+    /**
+     * Like sendMulticastNotification(request), continuing after the first progress.resumeAfter()
+     * tokens of the list. Checkpoints are the number of leading tokens that were sent.
+     */
+    public NotificationJob sendMulticastNotification(AllDevicesNotificationRequestDTO request, DeliveryProgress progress) {
+        List<String> tokens = List.copyOf(request.getDeviceTokenList());
+        return dispatcher.submitCampaign("send-to-all", job -> {
+            FanoutCampaign campaign = fanoutEngine.launch(job, chunk -> buildMulticastMessage(request, chunk),
+                    progress::checkpoint);
+            int from = (int) Math.min(progress.resumeAfter(), tokens.size());
+            for (; from < tokens.size(); from += MulticastFanoutEngine.FCM_MULTICAST_LIMIT) {
+                int to = Math.min(from + MulticastFanoutEngine.FCM_MULTICAST_LIMIT, tokens.size());
+                fanoutEngine.dispatch(campaign, tokens.subList(from, to), to);
+            }
+            fanoutEngine.finishSubmission(campaign);
+            return campaign.completion();
+        });
+    }
+
+    /**
+     * Queues a notification for every registered device of a user.
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob sendToUser(UserNotificationRequestDTO request) {
+        return sendToUser(request, DeliveryProgress.NONE);
+    }
+
+    /**
+     * Like sendToUser(request), continuing after the device-token id progress.resumeAfter().
+     * Checkpoints are the id of the last device token that was sent.
+     */
+    public NotificationJob sendToUser(UserNotificationRequestDTO request, DeliveryProgress progress) {
+        return submitResolvedCampaign("send-to-user", request, progress,
+                (afterId, batches) -> deviceRegistry.forEachUserTokenBatch(request.getUserId(), afterId, batches));
+    }
+
+    /**
+     * Queues a notification for every registered device matching a segment (role, provider, activity).
+     * Recipients are read from the registry in batches while the fan-out runs, so the audience
+     * size affects neither the request payload nor memory.
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue is full.
+     */
+    public NotificationJob sendToSegment(SegmentNotificationRequestDTO request) {
+        return sendToSegment(request, DeliveryProgress.NONE);
+    }
+
+    /**
+     * Like sendToSegment(request), continuing after the device-token id progress.resumeAfter().
+     * Checkpoints are the id of the last device token that was sent.
+     */
+    public NotificationJob sendToSegment(SegmentNotificationRequestDTO request, DeliveryProgress progress) {
+        return submitResolvedCampaign("send-to-segment", request, progress,
+                (afterId, batches) -> deviceRegistry.forEachSegmentTokenBatch(
+                        request.getRoleName(), request.getProviderId(), request.getActiveWithinDays(), afterId, batches));
+    }
 
-        String response = FirebaseMessaging.getInstance(firebaseApp).sendAsync(fcmMessage).get();
-        System.out.println("sendNotificationToDevice response: {}" + response);
+    public Optional<FanoutCampaign> getCampaign(String campaignId) {
+        return fanoutEngine.find(campaignId);
     }
 
-    public void sendMulticastNotification(AllDevicesNotificationRequestDTO request) throws FirebaseMessagingException {
-        MulticastMessage multicastMessage = MulticastMessage.builder()
-                .addAllTokens(request.getDeviceTokenList())
+    private static <T> T await(ApiFuture<T> future) throws PushTransportException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PushTransportException(PushErrorCode.UNKNOWN, "Interrupted while waiting for the push transport", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PushTransportException transportException) {
+                throw transportException;
+            }
+            throw new PushTransportException(PushErrorCode.UNKNOWN, String.valueOf(e.getCause()), e.getCause());
+        }
+    }
+
+    /**
+     * Streams the recipients produced by the resolver, from the device-token id afterId on, into one fan-out campaign.
+     */
+    @FunctionalInterface
+    private interface RecipientResolver {
+        void resolve(long afterId, DeviceRegistryService.TokenBatchConsumer batches) throws InterruptedException;
+    }
+
+    private NotificationJob submitResolvedCampaign(String channel, NotificationRequestDTO request, DeliveryProgress progress,
+                                                   RecipientResolver recipients) {
+        return dispatcher.submitCampaign(channel, job -> {
+            FanoutCampaign campaign = fanoutEngine.launch(job, chunk -> buildMulticastMessage(request, chunk),
+                    progress::checkpoint);
+            try {
+                recipients.resolve(progress.resumeAfter(),
+                        (tokens, lastId) -> fanoutEngine.dispatch(campaign, tokens, lastId));
+            } finally {
+                // Chunks already sent still complete the campaign if resolving failed midway
+                fanoutEngine.finishSubmission(campaign);
+            }
+            return campaign.completion();
+        });
+    }
+
+    private MulticastMessage buildMulticastMessage(NotificationRequestDTO request, List<String> tokens) {
+        MulticastMessage.Builder builder = MulticastMessage.builder()
+                .addAllTokens(tokens)
                 .setNotification(
                         Notification.builder()
                                 .setTitle(request.getTitle())
@@ -86,18 +248,37 @@ public class NotificationService {
                                 .setImage(request.getImage())
                                 .build()
                 )
-                .putAllData(request.getData())
-                .build();
+                .putAllData(request.getData());
+        if (hasCollapseKey(request.getCollapseKey())) {
+            builder.setAndroidConfig(androidCollapseConfig(request.getCollapseKey()))
+                    .setApnsConfig(apnsCollapseConfig(request.getCollapseKey()));
+        }
+        return builder.build();
+    }
 
-        BatchResponse response = FirebaseMessaging.getInstance(firebaseApp).sendEachForMulticast(multicastMessage);
-        // Process the response
-        for (SendResponse sendResponse : response.getResponses()) {
-            if (sendResponse.isSuccessful()) {
-                System.out.println("Message sent successfully to: {}"+ sendResponse.getMessageId());
-            } else {
-                System.out.println("Failed to send message to: {}"+ sendResponse.getMessageId());
-                System.out.println("Error details: {}"+ sendResponse.getException().getMessage());
-            }
+    /**
+     * Also lets FCM / APNs collapse messages still queued for an offline device: it only gets the latest.
+     */
+    private Message.Builder applyCollapseKey(Message.Builder builder, String collapseKey) {
+        if (hasCollapseKey(collapseKey)) {
+            builder.setAndroidConfig(androidCollapseConfig(collapseKey))
+                    .setApnsConfig(apnsCollapseConfig(collapseKey));
         }
+        return builder;
+    }
+
+    private boolean hasCollapseKey(String collapseKey) {
+        return collapseKey != null && !collapseKey.isBlank();
+    }
+
+    private AndroidConfig androidCollapseConfig(String collapseKey) {
+        return AndroidConfig.builder().setCollapseKey(collapseKey).build();
+    }
+
+    private ApnsConfig apnsCollapseConfig(String collapseKey) {
+        return ApnsConfig.builder()
+                .putHeader("apns-collapse-id", collapseKey)
+                .setAps(Aps.builder().build())
+                .build();
     }
-}
\ No newline at end of file
+}
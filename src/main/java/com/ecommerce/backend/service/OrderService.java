@@ -0,0 +1,179 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.inventory.InsufficientStockException;
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.model.CustomerOrder;
+import com.ecommerce.backend.model.OrderItem;
+import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.order.CheckoutResult;
+import com.ecommerce.backend.order.IdempotencyKeyReuseException;
+import com.ecommerce.backend.repository.CustomerOrderRepository;
+import com.ecommerce.backend.repository.ProductPrice;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout: prices the lines, takes their stock and inserts the order in one short transaction.
+ *
+ * Every checkout carries a client-chosen idempotency key. A retry with the same key and lines
+ * returns the order of the first attempt without touching stock again; the same key with other
+ * lines is rejected. Two concurrent attempts with one key are settled by the unique constraint on
+ * (user_id, idempotency_key): the loser's transaction rolls back (stock included) and it replays
+ * the winner's order.
+ */
+@Service
+public class OrderService {
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final MeterRegistry meterRegistry;
+
+    public OrderService(CustomerOrderRepository customerOrderRepository,
+                        UserRepository userRepository,
+                        ProductRepository productRepository,
+                        InventoryService inventoryService,
+                        MeterRegistry meterRegistry) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Places an order for the lines, or replays the order placed earlier with the same key.
+     *
+     * @throws InsufficientStockException if a product lacks the quantity or does not exist.
+     * @throws IdempotencyKeyReuseException if the key was used before with different lines.
+     */
+    public CheckoutResult checkout(String username, String idempotencyKey, Collection<ReservationLine> lines) {
+        Long userId = userIdOf(username);
+        String requestHash = requestHash(lines);
+
+        Optional<CustomerOrder> existing = customerOrderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(existing.get(), requestHash);
+        }
+
+        try {
+            CustomerOrder order = inventoryService.withStockTaken(lines,
+                    merged -> placeOrder(userId, idempotencyKey, requestHash, merged));
+            recordOutcome("placed");
+            return new CheckoutResult(order, false);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent attempt with the same key committed first; our stock was rolled back
+            return customerOrderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                    .map(winner -> replay(winner, requestHash))
+                    .orElseThrow(() -> e);
+        } catch (InsufficientStockException e) {
+            recordOutcome("insufficient");
+            throw e;
+        }
+    }
+
+    public Optional<CustomerOrder> findOrder(String username, Long orderId) {
+        return customerOrderRepository.findOwnedWithItems(orderId, userIdOf(username));
+    }
+
+    /**
+     * The user's orders, newest first.
+     * @param beforeId Only orders with a smaller id (the last id of the previous page); null for the first page.
+     */
+    public List<CustomerOrder> findOrders(String username, Long beforeId, int size) {
+        return customerOrderRepository.findPageByUserId(userIdOf(username),
+                beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Runs in the transaction that took the stock: one price lookup for all lines, then the order
+     * and its items as one insert batch.
+     */
+    private CustomerOrder placeOrder(Long userId, String idempotencyKey, String requestHash, List<ReservationLine> lines) {
+        Map<Long, Integer> prices = productRepository.findPrices(lines.stream().map(ReservationLine::productId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductPrice::getId, ProductPrice::getPrice));
+
+        CustomerOrder order = new CustomerOrder();
+        order.setUserId(userId);
+        order.setIdempotencyKey(idempotencyKey);
+        order.setRequestHash(requestHash);
+        order.setStatus(OrderStatus.PLACED);
+        order.setCreatedAt(Instant.now());
+        long total = 0;
+        for (ReservationLine line : lines) {
+            Integer price = prices.get(line.productId());
+            if (price == null) {
+                throw new InsufficientStockException(line.productId(), line.quantity());
+            }
+            OrderItem item = new OrderItem();
+            item.setProductId(line.productId());
+            item.setQuantity(line.quantity());
+            item.setUnitPrice(price);
+            order.addItem(item);
+            total += (long) price * line.quantity();
+        }
+        order.setTotalAmount(total);
+        // Flushed here so a duplicate key surfaces as DataIntegrityViolationException from the repository
+        return customerOrderRepository.saveAndFlush(order);
+    }
+
+    private CheckoutResult replay(CustomerOrder order, String requestHash) {
+        if (!order.getRequestHash().equals(requestHash)) {
+            recordOutcome("key_reused");
+            throw new IdempotencyKeyReuseException(order.getIdempotencyKey());
+        }
+        recordOutcome("replayed");
+        return new CheckoutResult(order, true);
+    }
+
+    private Long userIdOf(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + username));
+    }
+
+    /**
+     * SHA-256 of the lines with quantities summed per product, in product id order, so the same
+     * cart in another line order hashes the same.
+     */
+    static String requestHash(Collection<ReservationLine> lines) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        lines.forEach(line -> quantities.merge(line.productId(), line.quantity(), Math::addExact));
+        String canonical = quantities.entrySet().stream()
+                .map(entry -> entry.getKey() + "x" + entry.getValue())
+                .collect(Collectors.joining(","));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void recordOutcome(String outcome) {
+        Counter.builder("orders.checkouts")
+                .description("Checkout attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -26,7 +26,7 @@ public class ProductService {
         product.setStockQuantity(dto.getStockQuantity());
 
         // 2. Load the actual relationship entity using the ID from the DTO
-        Provider providerEntity = providerRepository.findById(dto.getProvider())
+        Provider providerEntity = providerRepository.findActiveById(dto.getProvider())
                 .orElseThrow(() -> new EntityNotFoundException("Provider not found with ID: " + dto.getProvider()));
 
         // 3. Set the full entity on the Product object
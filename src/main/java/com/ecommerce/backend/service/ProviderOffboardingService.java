@@ -0,0 +1,61 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.model.ProviderOffboarding;
+import com.ecommerce.backend.model.ProviderOffboardingStatus;
+import com.ecommerce.backend.repository.ProviderOffboardingRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import com.ecommerce.backend.responsecache.ProductResponseCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Starts provider offboarding: the provider is soft-deleted in one short transaction and so
+ * disappears from all reads at once, together with its products. ProviderOffboardingJob then
+ * removes the products in batches.
+ */
+@Service
+public class ProviderOffboardingService {
+
+    private final ProviderRepository providerRepository;
+    private final ProviderOffboardingRepository providerOffboardingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductResponseCache productResponseCache;
+
+    public ProviderOffboardingService(ProviderRepository providerRepository,
+                                      ProviderOffboardingRepository providerOffboardingRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ProductResponseCache productResponseCache) {
+        this.providerRepository = providerRepository;
+        this.providerOffboardingRepository = providerOffboardingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.productResponseCache = productResponseCache;
+    }
+
+    /**
+     * Soft-deletes the provider and schedules the removal of its products. Offboarding an already
+     * offboarded provider returns the existing progress.
+     * @return empty if the provider does not exist.
+     */
+    public Optional<ProviderOffboarding> offboard(Long providerId) {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            if (providerRepository.softDelete(providerId, now) == 0) {
+                return providerOffboardingRepository.findById(providerId);
+            }
+            // Cached product responses do not see the provider's deleted_at
+            productResponseCache.invalidateProviderAfterCommit(providerId);
+            ProviderOffboarding offboarding = new ProviderOffboarding();
+            offboarding.setProviderId(providerId);
+            offboarding.setStatus(ProviderOffboardingStatus.RUNNING);
+            offboarding.setStartedAt(now);
+            return Optional.of(providerOffboardingRepository.save(offboarding));
+        });
+    }
+
+    public Optional<ProviderOffboarding> findProgress(Long providerId) {
+        return providerOffboardingRepository.findById(providerId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.model.ScheduledNotification;
+import com.ecommerce.backend.model.ScheduledNotificationStatus;
+import com.ecommerce.backend.notification.ScheduledNotificationTimer;
+import com.ecommerce.backend.repository.ScheduledNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Creates, cancels and looks up scheduled notifications. Delivery is done by the ScheduledNotificationTimer
+ * (which may run on any node) through the outbox.
+ */
+@Service
+public class ScheduledNotificationService {
+
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
+    private final ObjectProvider<ScheduledNotificationTimer> timer;
+    private final ObjectMapper objectMapper;
+
+    public ScheduledNotificationService(ScheduledNotificationRepository scheduledNotificationRepository,
+                                        ObjectProvider<ScheduledNotificationTimer> timer,
+                                        ObjectMapper objectMapper) {
+        this.scheduledNotificationRepository = scheduledNotificationRepository;
+        this.timer = timer;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Persists a notification request to be sent at sendAt (a time in the past sends right away).
+     *
+     * @param kind The outbox kind that delivers the request, e.g. NotificationOutboxHandler.TOPIC.
+     */
+    @Transactional
+    public ScheduledNotification schedule(String kind, Object request, Instant sendAt) {
+        ScheduledNotification notification = new ScheduledNotification();
+        notification.setKind(kind);
+        try {
+            notification.setPayload(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification request is not serializable", e);
+        }
+        notification.setSendAt(sendAt);
+        notification.setStatus(ScheduledNotificationStatus.SCHEDULED);
+        notification.setCreatedAt(Instant.now());
+        ScheduledNotification saved = scheduledNotificationRepository.save(notification);
+
+        // Only put it on the timer once the row is visible to the dispatch transaction
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                timer.ifAvailable(t -> t.track(saved.getId(), saved.getSendAt()));
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * @return false if the notification does not exist or was already dispatched / cancelled.
+     */
+    @Transactional
+    public boolean cancel(Long id) {
+        boolean cancelled = scheduledNotificationRepository.cancel(id) > 0;
+        if (cancelled) {
+            timer.ifAvailable(t -> t.untrack(id));
+        }
+        return cancelled;
+    }
+
+    public Optional<ScheduledNotification> find(Long id) {
+        return scheduledNotificationRepository.findById(id);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.backend.stats;
+
+/**
+ * Dashboard figures of one provider. Inventory value is the sum of stock quantity times price,
+ * in the unit of Product.price.
+ */
+public record ProviderStats(Long providerId, long productCount, long stockUnits, long inventoryValue) {
+}
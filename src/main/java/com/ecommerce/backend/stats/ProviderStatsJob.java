@@ -0,0 +1,46 @@
+package com.ecommerce.backend.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps provider_stats current: folds the delta log every few seconds (so reads only add a
+ * handful of pending rows) and recomputes everything from the product table now and then, which
+ * repairs rows changed outside the trigger (manual fixes, restores).
+ */
+@Slf4j
+@Component
+public class ProviderStatsJob {
+
+    private final ProviderStatsStore providerStatsStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int foldBatchSize;
+
+    public ProviderStatsJob(ProviderStatsStore providerStatsStore,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${providers.stats.fold-batch-size:10000}") int foldBatchSize) {
+        this.providerStatsStore = providerStatsStore;
+        this.transactionTemplate = transactionTemplate;
+        this.foldBatchSize = foldBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${providers.stats.fold-interval-ms:5000}")
+    public void fold() {
+        int folded;
+        do {
+            folded = transactionTemplate.execute(status -> providerStatsStore.fold(foldBatchSize));
+        } while (folded == foldBatchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${providers.stats.reconcile-interval-ms:3600000}",
+            initialDelayString = "${providers.stats.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Integer providers = transactionTemplate.execute(status -> providerStatsStore.reconcile());
+        if (providers != null && providers >= 0) {
+            log.info("Recomputed provider stats of {} providers", providers);
+        }
+    }
+}
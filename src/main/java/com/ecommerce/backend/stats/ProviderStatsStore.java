@@ -0,0 +1,104 @@
+package com.ecommerce.backend.stats;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and maintains provider_stats (see migration V7 for the delta log its trigger fills).
+ *
+ * Folding and reconciliation both hold a transaction-level advisory lock, so that on several nodes
+ * only one of them rewrites provider_stats at a time; a node that does not get the lock skips the run.
+ */
+@Component
+public class ProviderStatsStore {
+
+    private static final long LOCK_KEY = 0x7072_6f76_7374L; // "provst"
+
+    private static final String FIND_SQL =
+            "SELECT pr.id AS provider_id, " +
+            "coalesce(s.product_count, 0) + coalesce(d.product_count, 0) AS product_count, " +
+            "coalesce(s.stock_units, 0) + coalesce(d.stock_units, 0) AS stock_units, " +
+            "coalesce(s.inventory_value, 0) + coalesce(d.inventory_value, 0) AS inventory_value " +
+            "FROM provider pr " +
+            "LEFT JOIN provider_stats s ON s.provider_id = pr.id " +
+            "LEFT JOIN LATERAL (SELECT sum(product_count) AS product_count, sum(stock_units) AS stock_units, " +
+            "sum(inventory_value) AS inventory_value FROM provider_stats_delta WHERE provider_id = pr.id) d ON true " +
+            "WHERE pr.id = ? AND pr.deleted_at IS NULL";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    // Moves the oldest deltas into the summary rows; returns how many deltas were folded
+    private static final String FOLD_SQL =
+            "WITH folded AS (" +
+            "  DELETE FROM provider_stats_delta WHERE id IN (SELECT id FROM provider_stats_delta ORDER BY id LIMIT ?) " +
+            "  RETURNING provider_id, product_count, stock_units, inventory_value" +
+            "), applied AS (" +
+            "  INSERT INTO provider_stats (provider_id, product_count, stock_units, inventory_value, updated_at) " +
+            "  SELECT f.provider_id, sum(f.product_count), sum(f.stock_units), sum(f.inventory_value), now() " +
+            "  FROM folded f JOIN provider pr ON pr.id = f.provider_id GROUP BY f.provider_id " +
+            "  ON CONFLICT (provider_id) DO UPDATE SET " +
+            "    product_count = provider_stats.product_count + EXCLUDED.product_count, " +
+            "    stock_units = provider_stats.stock_units + EXCLUDED.stock_units, " +
+            "    inventory_value = provider_stats.inventory_value + EXCLUDED.inventory_value, " +
+            "    updated_at = EXCLUDED.updated_at" +
+            ") " +
+            "SELECT count(*) FROM folded";
+    // One statement, one snapshot: the deltas it drops are exactly those of the changes the
+    // recomputed figures already contain
+    private static final String RECONCILE_SQL =
+            "WITH cleared AS (DELETE FROM provider_stats_delta) " +
+            "INSERT INTO provider_stats (provider_id, product_count, stock_units, inventory_value, updated_at) " +
+            "SELECT pr.id, count(p.id), coalesce(sum(p.stock_quantity), 0), coalesce(sum(p.stock_quantity::bigint * p.price), 0), now() " +
+            "FROM provider pr LEFT JOIN product p ON p.provider_id = pr.id GROUP BY pr.id " +
+            "ON CONFLICT (provider_id) DO UPDATE SET " +
+            "  product_count = EXCLUDED.product_count, " +
+            "  stock_units = EXCLUDED.stock_units, " +
+            "  inventory_value = EXCLUDED.inventory_value, " +
+            "  updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProviderStatsStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Figures of the provider including changes not folded yet: one primary key lookup plus an
+     * index range over the provider's pending deltas.
+     * @return empty if the provider does not exist or is offboarded.
+     */
+    public Optional<ProviderStats> find(Long providerId) {
+        List<ProviderStats> stats = jdbcTemplate.query(FIND_SQL, (rs, row) -> new ProviderStats(
+                rs.getLong("provider_id"), rs.getLong("product_count"), rs.getLong("stock_units"), rs.getLong("inventory_value")),
+                providerId);
+        return stats.stream().findFirst();
+    }
+
+    /**
+     * Folds up to batchSize deltas into provider_stats. Must run in a transaction.
+     * @return the number of deltas folded, or -1 if another node holds the lock.
+     */
+    public int fold(int batchSize) {
+        if (!tryLock()) {
+            return -1;
+        }
+        Integer folded = jdbcTemplate.queryForObject(FOLD_SQL, Integer.class, batchSize);
+        return folded == null ? 0 : folded;
+    }
+
+    /**
+     * Recomputes provider_stats from the product table. Must run in a transaction.
+     * @return the number of providers written, or -1 if another node holds the lock.
+     */
+    public int reconcile() {
+        if (!tryLock()) {
+            return -1;
+        }
+        return jdbcTemplate.update(RECONCILE_SQL);
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, LOCK_KEY));
+    }
+}
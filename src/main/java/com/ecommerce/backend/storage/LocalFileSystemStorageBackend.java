@@ -0,0 +1,159 @@
+package com.ecommerce.backend.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stores objects as plain files below file.upload-base-dir.
+ * Files are served back to clients by the "/images/**" resource handler in WebConfig,
+ * so this backend only works for a single application node (or a shared volume).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalFileSystemStorageBackend implements StorageBackend {
+
+    // Injects the base directory from application.properties (e.g., file.upload-base-dir=uploads)
+    @Value("${file.upload-base-dir}")
+    private String uploadBaseDir;
+
+    private Path fileStorageLocation;
+
+    /**
+     * Initializes the backend by resolving the base storage path and creating the directory if it doesn't exist.
+     */
+    @PostConstruct
+    public void init() {
+        this.fileStorageLocation = Paths.get(uploadBaseDir).toAbsolutePath().normalize();
+        try {
+            if (!Files.exists(this.fileStorageLocation)) {
+                Files.createDirectories(this.fileStorageLocation);
+                log.info("Created base upload directory: {}", this.fileStorageLocation);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the base directory where uploaded files will be stored: " + uploadBaseDir, e);
+        }
+    }
+
+    @Override
+    public void store(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        Path source = resolve(sourceKey);
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        // Same file system, so this is a rename rather than a copy
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        // A rename keeps the old timestamp; refresh it so the sweeper's grace period covers the move
+        Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix, String startAfter, int maxKeys) throws IOException {
+        List<StoredObject> result = new ArrayList<>();
+        // Keys are slash-separated; the directory part of the prefix is where the walk starts
+        int lastSlash = prefix.lastIndexOf('/');
+        String directoryKey = lastSlash >= 0 ? prefix.substring(0, lastSlash) : "";
+        Path directory = directoryKey.isEmpty() ? fileStorageLocation : resolve(directoryKey);
+        if (Files.isDirectory(directory)) {
+            collectSorted(directory, directoryKey, prefix, startAfter, maxKeys, result);
+        }
+        return result;
+    }
+
+    /**
+     * Depth-first walk that visits entries in key order, so it can skip whole directories
+     * before startAfter and stop as soon as maxKeys entries have been collected.
+     */
+    private void collectSorted(Path directory, String directoryKey, String prefix, String startAfter,
+                               int maxKeys, List<StoredObject> result) throws IOException {
+        // Sort by key (directories compare with their trailing slash) so the order matches S3 listings
+        List<Map.Entry<String, BasicFileAttributes>> children = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) stream::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                String name = child.getFileName().toString();
+                children.add(Map.entry(attributes.isDirectory() ? name + "/" : name, attributes));
+            }
+        }
+        children.sort(Map.Entry.comparingByKey());
+
+        for (Map.Entry<String, BasicFileAttributes> child : children) {
+            if (result.size() >= maxKeys) {
+                return;
+            }
+            String childKey = directoryKey.isEmpty() ? child.getKey() : directoryKey + "/" + child.getKey();
+            BasicFileAttributes attributes = child.getValue();
+            if (attributes.isDirectory()) {
+                // childKey already ends with "/"
+                boolean matchesPrefix = childKey.startsWith(prefix) || prefix.startsWith(childKey);
+                // Every key below this directory sorts before startAfter: skip the whole subtree
+                boolean alreadyVisited = startAfter != null && !startAfter.startsWith(childKey)
+                        && startAfter.compareTo(childKey) > 0;
+                if (matchesPrefix && !alreadyVisited) {
+                    String subdirectoryKey = childKey.substring(0, childKey.length() - 1);
+                    collectSorted(directory.resolve(child.getKey()), subdirectoryKey, prefix, startAfter, maxKeys, result);
+                }
+            } else if (attributes.isRegularFile() && childKey.startsWith(prefix)
+                    && (startAfter == null || childKey.compareTo(startAfter) > 0)) {
+                result.add(new StoredObject(childKey, attributes.size(), attributes.lastModifiedTime().toInstant()));
+            }
+        }
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String key, String contentType, long contentLength, Duration ttl) {
+        // Files can only reach the local disk through the multipart upload endpoints.
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> presignDownload(String key, Duration ttl) {
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves an object key below the base directory, rejecting keys that try to escape it.
+     */
+    private Path resolve(String key) {
+        Path path = fileStorageLocation.resolve(key).normalize();
+        if (!path.startsWith(fileStorageLocation)) {
+            throw new IllegalArgumentException("Object key escapes the upload directory: " + key);
+        }
+        return path;
+    }
+}
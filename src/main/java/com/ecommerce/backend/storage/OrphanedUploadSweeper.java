@@ -0,0 +1,203 @@
+package com.ecommerce.backend.storage;
+
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import com.ecommerce.backend.service.FileStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Background job that deletes uploaded images no longer referenced by any product or provider
+ * (replaced images, deleted products, pre-signed uploads that were never confirmed).
+ *
+ * Each run scans a bounded number of batches per folder and remembers where it stopped, so a full
+ * pass over a large upload volume is spread across runs. Files younger than the grace period are
+ * never touched: they may belong to an upload whose database row is not committed yet.
+ *
+ * A sharded file also counts as referenced through the flat URL it was moved from: the shard
+ * migration moves files before it rewrites their URLs, and a row whose rewrite did not commit
+ * still points at the flat key, which resolves to the sharded file (FileStorageService.resolveStoredKey).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "file.gc.enabled", havingValue = "true")
+public class OrphanedUploadSweeper {
+
+    private final StorageBackend storageBackend;
+    private final FileStorageService fileStorageService;
+    private final UploadKeyLayout keyLayout;
+    // Folder prefix -> lookup returning which of the given public URLs are still referenced
+    private final Map<String, Function<Collection<String>, List<String>>> referenceLookups = new LinkedHashMap<>();
+    // Folder prefix -> last key processed, i.e. where the next run continues
+    private final Map<String, String> cursors = new LinkedHashMap<>();
+
+    private final boolean dryRun;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long deletePauseNanos;
+
+    private final Counter scannedFiles;
+    private final Counter orphanedFiles;
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+    private final Counter failedDeletes;
+
+    public OrphanedUploadSweeper(StorageBackend storageBackend,
+                                 FileStorageService fileStorageService,
+                                 UploadKeyLayout keyLayout,
+                                 ProductRepository productRepository,
+                                 ProviderRepository providerRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${file.gc.dry-run:true}") boolean dryRun,
+                                 @Value("${file.gc.grace-period-minutes:1440}") long gracePeriodMinutes,
+                                 @Value("${file.gc.batch-size:500}") int batchSize,
+                                 @Value("${file.gc.max-batches-per-run:20}") int maxBatchesPerRun,
+                                 @Value("${file.gc.max-deletes-per-second:50}") int maxDeletesPerSecond) {
+        this.storageBackend = storageBackend;
+        this.fileStorageService = fileStorageService;
+        this.keyLayout = keyLayout;
+        this.dryRun = dryRun;
+        this.gracePeriod = Duration.ofMinutes(gracePeriodMinutes);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.deletePauseNanos = maxDeletesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond : 0;
+
+        // The folder names match the entityType passed to FileStorageService.storeFile
+        referenceLookups.put("product/", productRepository::findReferencedImageUrls);
+        referenceLookups.put("provider/", providerRepository::findReferencedImageUrls);
+
+        String mode = String.valueOf(dryRun);
+        this.scannedFiles = Counter.builder("uploads.gc.files.scanned")
+                .description("Uploaded files inspected by the orphaned-upload sweeper")
+                .register(meterRegistry);
+        this.orphanedFiles = Counter.builder("uploads.gc.files.orphaned")
+                .description("Unreferenced files older than the grace period")
+                .tag("dry_run", mode)
+                .register(meterRegistry);
+        this.deletedFiles = Counter.builder("uploads.gc.files.deleted")
+                .description("Orphaned files removed from storage")
+                .tag("dry_run", mode)
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("uploads.gc.bytes.reclaimed")
+                .description("Storage reclaimed by deleting orphaned files (would-be reclaimed in dry-run mode)")
+                .baseUnit("bytes")
+                .tag("dry_run", mode)
+                .register(meterRegistry);
+        this.failedDeletes = Counter.builder("uploads.gc.files.failed")
+                .description("Orphaned files that could not be deleted")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${file.gc.initial-delay-ms:60000}", fixedDelayString = "${file.gc.interval-ms:600000}")
+    public void sweep() {
+        for (Map.Entry<String, Function<Collection<String>, List<String>>> folder : referenceLookups.entrySet()) {
+            try {
+                sweepFolder(folder.getKey(), folder.getValue());
+            } catch (IOException e) {
+                log.warn("Orphaned-upload sweep of {} failed, will retry on next run: {}", folder.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sweepFolder(String prefix, Function<Collection<String>, List<String>> referenceLookup)
+            throws IOException, InterruptedException {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<StoredObject> objects = storageBackend.list(prefix, cursors.get(prefix), batchSize);
+            if (objects.isEmpty()) {
+                // Reached the end of the folder: the next run starts a new pass from the beginning
+                cursors.remove(prefix);
+                return;
+            }
+            scannedFiles.increment(objects.size());
+            cursors.put(prefix, objects.get(objects.size() - 1).key());
+
+            // 1. Only files past the grace period are candidates
+            Map<String, StoredObject> candidates = new LinkedHashMap<>();
+            // Candidate URL -> flat URL the sharded file may still be referenced by
+            Map<String, String> flatAliases = new HashMap<>();
+            for (StoredObject object : objects) {
+                if (object.lastModified().isBefore(cutoff)) {
+                    String url = fileStorageService.toPublicUrl(object.key());
+                    candidates.put(url, object);
+                    String flatKey = flatKeyOf(object.key());
+                    if (flatKey != null) {
+                        flatAliases.put(url, fileStorageService.toPublicUrl(flatKey));
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            // 2. One query per batch tells which of them are still referenced
+            Set<String> urls = new HashSet<>(candidates.keySet());
+            urls.addAll(flatAliases.values());
+            Set<String> referenced = new HashSet<>(referenceLookup.apply(urls));
+            for (Map.Entry<String, StoredObject> candidate : candidates.entrySet()) {
+                String url = candidate.getKey();
+                if (!referenced.contains(url) && !referenced.contains(flatAliases.get(url))) {
+                    deleteOrphan(candidate.getValue());
+                }
+            }
+            if (objects.size() < batchSize) {
+                cursors.remove(prefix);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the flat key a sharded key is the migration target of, or null for other keys.
+     */
+    private String flatKeyOf(String key) {
+        if (keyLayout.isFlat(key)) {
+            return null;
+        }
+        String flatKey = key.substring(0, key.indexOf('/') + 1) + keyLayout.filenameOf(key);
+        return keyLayout.toShardedKey(flatKey).equals(key) ? flatKey : null;
+    }
+
+    private void deleteOrphan(StoredObject object) throws InterruptedException {
+        orphanedFiles.increment();
+        if (dryRun) {
+            log.info("Dry run: would delete orphaned upload {} ({} bytes)", object.key(), object.size());
+            reclaimedBytes.increment(object.size());
+            return;
+        }
+        try {
+            storageBackend.delete(object.key());
+            deletedFiles.increment();
+            reclaimedBytes.increment(object.size());
+            log.debug("Deleted orphaned upload {} ({} bytes)", object.key(), object.size());
+        } catch (IOException e) {
+            failedDeletes.increment();
+            log.warn("Could not delete orphaned upload {}: {}", object.key(), e.getMessage());
+        }
+        // Throttle deletes so the sweeper never competes with request traffic for disk / bucket I/O
+        if (deletePauseNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(deletePauseNanos);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.backend.storage;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pre-signed request the client must replay verbatim (method, URL and signed headers)
+ * to upload an object directly to the storage backend.
+ */
+public record PresignedUpload(URI url, String method, Map<String, List<String>> signedHeaders, Instant expiresAt) {
+}
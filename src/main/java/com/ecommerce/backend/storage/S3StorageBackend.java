@@ -0,0 +1,204 @@
+package com.ecommerce.backend.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores objects in an S3-compatible bucket (AWS S3, MinIO, Ceph RGW, ...).
+ * Every application node sees the same objects, and clients upload and download
+ * image bytes directly against the bucket through pre-signed URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private final String bucket;
+    private final String publicBaseUrl;
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+
+    public S3StorageBackend(@Value("${file.storage.s3.bucket}") String bucket,
+                            @Value("${file.storage.s3.region:us-east-1}") String region,
+                            @Value("${file.storage.s3.endpoint:}") String endpoint,
+                            @Value("${file.storage.s3.access-key:}") String accessKey,
+                            @Value("${file.storage.s3.secret-key:}") String secretKey,
+                            @Value("${file.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+                            @Value("${file.storage.s3.public-base-url:}") String publicBaseUrl) {
+        this.bucket = bucket;
+        this.publicBaseUrl = publicBaseUrl;
+
+        // Static keys are convenient for MinIO; otherwise fall back to the standard AWS credential chain
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        // MinIO and most self-hosted stores need path-style URLs (http://host:9000/bucket/key)
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(pathStyleAccess)
+                .build();
+
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        if (!endpoint.isBlank()) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+        this.s3Client = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+    }
+
+    @Override
+    public void store(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        try {
+            s3Client.putObject(
+                    PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                    RequestBody.fromInputStream(content, contentLength));
+        } catch (SdkException e) {
+            throw new IOException("Could not upload object " + key + " to bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Could not check object " + key + " in bucket " + bucket, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not check object " + key + " in bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException e) {
+            throw new IOException("Could not delete object " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        try {
+            // S3 has no rename: server-side copy, then delete the source
+            s3Client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucket)
+                    .sourceKey(sourceKey)
+                    .destinationBucket(bucket)
+                    .destinationKey(targetKey)
+                    .build());
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(sourceKey).build());
+        } catch (SdkException e) {
+            throw new IOException("Could not move object " + sourceKey + " to " + targetKey + " in bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix, String startAfter, int maxKeys) throws IOException {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .maxKeys(maxKeys);
+        if (startAfter != null) {
+            request.startAfter(startAfter);
+        }
+        try {
+            // S3 always returns keys in ascending UTF-8 binary order, which is what callers page on
+            ListObjectsV2Response response = s3Client.listObjectsV2(request.build());
+            return response.contents().stream()
+                    .map(object -> new StoredObject(object.key(), object.size(), object.lastModified()))
+                    .toList();
+        } catch (SdkException e) {
+            throw new IOException("Could not list objects below " + prefix + " in bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String key, String contentType, long contentLength, Duration ttl) {
+        // Both end up in the signed headers, so S3 rejects a body of another type or size
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(putObjectRequest)
+                .build());
+        return Optional.of(new PresignedUpload(
+                toUri(presigned.url().toString()),
+                presigned.httpRequest().method().name(),
+                presigned.signedHeaders(),
+                presigned.expiration()));
+    }
+
+    @Override
+    public Optional<URI> presignDownload(String key, Duration ttl) {
+        // A public bucket (or a CDN in front of it) does not need signed URLs
+        if (!publicBaseUrl.isBlank()) {
+            return Optional.of(toUri(publicBaseUrl.replaceAll("/+$", "") + "/" + key));
+        }
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucket).key(key).build();
+        return Optional.of(toUri(presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(getObjectRequest)
+                .build()).url().toString()));
+    }
+
+    @PreDestroy
+    public void close() {
+        presigner.close();
+        s3Client.close();
+    }
+
+    private static URI toUri(String url) {
+        try {
+            return new URI(url);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Storage backend produced an invalid URL: " + url, e);
+        }
+    }
+}
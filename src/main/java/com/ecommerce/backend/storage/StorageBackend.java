@@ -0,0 +1,61 @@
+package com.ecommerce.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Abstraction over the place where uploaded files (product and provider images) live.
+ * Object keys are relative, slash-separated paths such as "product/product_12_uuid.jpg";
+ * the public "/images/..." URL stored in the database is always "/images/" + key,
+ * regardless of which backend holds the bytes.
+ */
+public interface StorageBackend {
+
+    /**
+     * Writes the given content under the object key, replacing any existing object.
+     */
+    void store(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    /**
+     * @return true if an object exists under the given key.
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Deletes the object under the given key. Deleting a missing object is not an error.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Moves an object to a new key. The moved object counts as freshly written, so the
+     * orphaned-upload grace period applies to it again.
+     */
+    void move(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * Lists objects below a key prefix in lexicographic key order, starting after the given key.
+     * Used for incremental, batched scans (pass the last key of a batch as the next startAfter).
+     *
+     * @param prefix Key prefix, e.g. "product/".
+     * @param startAfter Exclusive lower bound for keys, or null to start from the beginning.
+     * @param maxKeys Maximum number of entries to return.
+     */
+    List<StoredObject> list(String prefix, String startAfter, int maxKeys) throws IOException;
+
+    /**
+     * Creates a time-limited URL that lets a client upload the object directly to storage.
+     * The content type and length are part of the signature: the client must send exactly those.
+     * @return empty if the backend does not support direct uploads (e.g. the local file system).
+     */
+    Optional<PresignedUpload> presignUpload(String key, String contentType, long contentLength, Duration ttl);
+
+    /**
+     * Creates a time-limited URL that lets a client download the object directly from storage.
+     * @return empty if the backend serves files through the application itself.
+     */
+    Optional<URI> presignDownload(String key, Duration ttl);
+}
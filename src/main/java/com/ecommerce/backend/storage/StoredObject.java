@@ -0,0 +1,9 @@
+package com.ecommerce.backend.storage;
+
+import java.time.Instant;
+
+/**
+ * Listing entry of an object held by a StorageBackend.
+ */
+public record StoredObject(String key, long size, Instant lastModified) {
+}
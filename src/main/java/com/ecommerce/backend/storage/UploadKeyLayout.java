@@ -0,0 +1,77 @@
+package com.ecommerce.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Decides where an uploaded file lives inside its entity folder.
+ *
+ * With the "sharded" layout a file is nested under two levels of prefix directories taken from
+ * the SHA-256 of its file name, e.g. "product/3f/a2/product_12_uuid.jpg", which caps every
+ * directory at a few hundred entries even with millions of uploads. The "flat" layout is the
+ * historical "product/product_12_uuid.jpg" and is still understood for existing URLs.
+ */
+@Component
+public class UploadKeyLayout {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final boolean sharded;
+
+    public UploadKeyLayout(@Value("${file.storage.layout:sharded}") String layout) {
+        this.sharded = "sharded".equalsIgnoreCase(layout);
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    /**
+     * @return the object key for a new file of the given entity folder.
+     */
+    public String keyFor(String entityType, String filename) {
+        return sharded ? shardedKey(entityType, filename) : entityType + "/" + filename;
+    }
+
+    /**
+     * @return true if the key is a file directly inside its entity folder ("product/file.jpg").
+     */
+    public boolean isFlat(String key) {
+        int firstSlash = key.indexOf('/');
+        return firstSlash > 0 && key.indexOf('/', firstSlash + 1) < 0;
+    }
+
+    /**
+     * Maps a flat key ("product/file.jpg") to its sharded location ("product/ab/cd/file.jpg").
+     */
+    public String toShardedKey(String flatKey) {
+        int firstSlash = flatKey.indexOf('/');
+        return shardedKey(flatKey.substring(0, firstSlash), flatKey.substring(firstSlash + 1));
+    }
+
+    /**
+     * @return the file name part of a key, i.e. everything after the last slash.
+     */
+    public String filenameOf(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    private String shardedKey(String entityType, String filename) {
+        String hash = HEX.formatHex(sha256(filename));
+        return entityType + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + filename;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.ecommerce.backend.storage;
+
+import com.ecommerce.backend.dto.UploadMigrationStatusDTO;
+import com.ecommerce.backend.repository.ImageReference;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import com.ecommerce.backend.responsecache.ProductResponseCache;
+import com.ecommerce.backend.service.FileStorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online migration of uploads from the flat layout ("product/file.jpg") to the sharded layout
+ * ("product/ab/cd/file.jpg").
+ *
+ * Rows are walked in keyset-paginated batches. For each batch the files are moved first, then all
+ * URLs of the batch are rewritten in one transaction with compare-and-set updates, so an image that
+ * was replaced meanwhile is left alone (its moved file becomes an orphan for the sweeper). Between
+ * the move and the commit the old URL keeps resolving through the shard fallback in WebConfig /
+ * StorageImageRedirectController. If the commit fails (or the job dies before it), the rows keep
+ * their flat URLs: they still resolve through that fallback, the sweeper counts the sharded file as
+ * referenced by them, and the next run finds the file already moved and only rewrites the URL.
+ * The job is idempotent and can simply be restarted.
+ */
+@Slf4j
+@Component
+public class UploadShardMigrationJob {
+
+    /**
+     * Per-entity access used by the job: keyset page of image references, and the conditional URL update.
+     */
+    private record Target(String entityType, ReferencePage page, UrlRewrite rewrite) {
+    }
+
+    @FunctionalInterface
+    private interface ReferencePage {
+        List<ImageReference> after(Long afterId, Pageable page);
+    }
+
+    @FunctionalInterface
+    private interface UrlRewrite {
+        int replace(Long id, String oldUrl, String newUrl);
+    }
+
+    private record PendingRewrite(Long id, String oldUrl, String newUrl) {
+    }
+
+    private final StorageBackend storageBackend;
+    private final FileStorageService fileStorageService;
+    private final UploadKeyLayout keyLayout;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductResponseCache productResponseCache;
+    private final List<Target> targets;
+    private final int batchSize;
+    private final long pauseBetweenBatchesMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upload-shard-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public UploadShardMigrationJob(StorageBackend storageBackend,
+                                   FileStorageService fileStorageService,
+                                   UploadKeyLayout keyLayout,
+                                   TransactionTemplate transactionTemplate,
+                                   ProductRepository productRepository,
+                                   ProviderRepository providerRepository,
+                                   ProductResponseCache productResponseCache,
+                                   @Value("${file.storage.migration.batch-size:200}") int batchSize,
+                                   @Value("${file.storage.migration.pause-between-batches-ms:500}") long pauseBetweenBatchesMs) {
+        this.storageBackend = storageBackend;
+        this.fileStorageService = fileStorageService;
+        this.keyLayout = keyLayout;
+        this.transactionTemplate = transactionTemplate;
+        this.productResponseCache = productResponseCache;
+        this.batchSize = batchSize;
+        this.pauseBetweenBatchesMs = pauseBetweenBatchesMs;
+        this.targets = List.of(
+                new Target("product", productRepository::findImageReferencesAfter, productRepository::replaceImageUrl),
+                new Target("provider", providerRepository::findImageReferencesAfter, providerRepository::replaceImageUrl));
+    }
+
+    /**
+     * Starts the migration in the background.
+     * @return false if a migration is already running or the sharded layout is not enabled.
+     */
+    public boolean start() {
+        if (!keyLayout.isSharded() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        scanned.set(0);
+        migrated.set(0);
+        skipped.set(0);
+        failed.set(0);
+        lastError = null;
+        startedAt = Instant.now();
+        finishedAt = null;
+        executor.execute(this::run);
+        return true;
+    }
+
+    public UploadMigrationStatusDTO status() {
+        return new UploadMigrationStatusDTO(running.get(), startedAt, finishedAt,
+                scanned.get(), migrated.get(), skipped.get(), failed.get(), lastError);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            for (Target target : targets) {
+                migrate(target);
+            }
+            log.info("Upload shard migration finished: {} migrated, {} skipped, {} failed",
+                    migrated.get(), skipped.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Upload shard migration interrupted");
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Upload shard migration aborted", e);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    private void migrate(Target target) throws InterruptedException {
+        Long afterId = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<ImageReference> page = target.page().after(afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+            scanned.addAndGet(page.size());
+
+            // 1. Move the files of this batch
+            List<PendingRewrite> rewrites = new ArrayList<>();
+            for (ImageReference reference : page) {
+                String oldKey = fileStorageService.toObjectKey(reference.getImageUrl());
+                if (oldKey == null || !oldKey.startsWith(target.entityType() + "/") || !keyLayout.isFlat(oldKey)) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                String newKey = keyLayout.toShardedKey(oldKey);
+                try {
+                    moveIfNeeded(oldKey, newKey);
+                    rewrites.add(new PendingRewrite(reference.getId(), reference.getImageUrl(), fileStorageService.toPublicUrl(newKey)));
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    lastError = e.getMessage();
+                    log.warn("Could not move {} to {}: {}", oldKey, newKey, e.getMessage());
+                }
+            }
+
+            // 2. Rewrite all URLs of the batch atomically
+            if (!rewrites.isEmpty()) {
+                Integer updated = transactionTemplate.execute(status -> {
+                    int count = 0;
+                    for (PendingRewrite rewrite : rewrites) {
+                        count += target.rewrite().replace(rewrite.id(), rewrite.oldUrl(), rewrite.newUrl());
+                    }
+                    if (target.entityType().equals("product")) {
+                        // Bulk updates bypass the entity listener; the batch's providers are not known here
+                        productResponseCache.invalidateAllAfterCommit();
+                    }
+                    return count;
+                });
+                int rewritten = updated == null ? 0 : updated;
+                migrated.addAndGet(rewritten);
+                // Rows whose image changed during the batch keep their new URL; the moved file is swept later
+                skipped.addAndGet(rewrites.size() - rewritten);
+            }
+
+            // 3. Throttle so the migration never saturates disk / bucket I/O
+            if (pauseBetweenBatchesMs > 0) {
+                Thread.sleep(pauseBetweenBatchesMs);
+            }
+        }
+    }
+
+    /**
+     * Moves the file unless a previous (interrupted) run already did.
+     */
+    private void moveIfNeeded(String oldKey, String newKey) throws IOException {
+        if (storageBackend.exists(oldKey)) {
+            storageBackend.move(oldKey, newKey);
+        } else if (!storageBackend.exists(newKey)) {
+            throw new IOException("Upload " + oldKey + " is missing from storage");
+        }
+    }
+}
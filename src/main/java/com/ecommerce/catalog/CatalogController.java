@@ -0,0 +1,63 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.backend.dto.ProductResponseDTO;
+import com.ecommerce.backend.dto.ProviderResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Streaming versions of the backend's public catalog reads, with the same paths and DTOs.
+ *
+ * Each endpoint answers with a JSON array (Accept: application/json) or one JSON document per line
+ * (Accept: application/x-ndjson). Either way the body is written page by page, and the next page
+ * is only read from the database once the client has taken the previous one; no connection is held
+ * while a client drains a page. A client that takes nothing for catalog.stream.idle-timeout-seconds
+ * is cut off, so it cannot keep its page (and the request) around.
+ */
+@RestController
+public class CatalogController {
+
+    private final CatalogQueries catalogQueries;
+    private final Duration idleTimeout;
+
+    public CatalogController(CatalogQueries catalogQueries,
+                             @Value("${catalog.stream.idle-timeout-seconds:30}") long idleTimeoutSeconds) {
+        this.catalogQueries = catalogQueries;
+        this.idleTimeout = Duration.ofSeconds(idleTimeoutSeconds);
+    }
+
+    /**
+     * GET /api/v1/products : All products of active providers, ordered by id
+     */
+    @GetMapping(path = "/api/v1/products", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductResponseDTO> getAllProducts() {
+        return catalogQueries.findProducts().timeout(idleTimeout);
+    }
+
+    /**
+     * GET /api/v1/products/by-provider/{providerId} : The products of a provider, ordered by id
+     * (404 if the provider has no products, does not exist or was offboarded, as in the backend)
+     */
+    @GetMapping(path = "/api/v1/products/by-provider/{providerId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<ProductResponseDTO>>> getProductsByProviderId(@PathVariable Long providerId) {
+        return catalogQueries.findProductsByProvider(providerId)
+                .map(products -> ResponseEntity.ok(products.timeout(idleTimeout)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/v1/providers : All active providers, ordered by id
+     */
+    @GetMapping(path = "/api/v1/providers", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProviderResponseDTO> getAllProviders() {
+        return catalogQueries.findProviders().timeout(idleTimeout);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.backend.dto.ProductResponseDTO;
+import com.ecommerce.backend.dto.ProviderResponseDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Catalog reads over R2DBC. Products and providers of offboarded providers (deleted_at set) are
+ * left out, as in the backend's repositories.
+ *
+ * Results are read in keyset pages of page-size rows (WHERE id > last id ORDER BY id LIMIT n).
+ * Each page is read completely and its connection goes back to the pool before the rows are
+ * written, and the next page is only read once the client has taken the previous one: a slow
+ * client holds at most a page in memory and no connection while it drains it.
+ */
+@Repository
+public class CatalogQueries {
+
+    private static final String PRODUCT_COLUMNS =
+            "p.id, p.name, p.description, p.price, p.product_image_url, p.stock_quantity";
+
+    private final DatabaseClient databaseClient;
+    private final int pageSize;
+
+    public CatalogQueries(DatabaseClient databaseClient,
+                          @Value("${catalog.page-size:256}") int pageSize) {
+        this.databaseClient = databaseClient;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * All products of active providers, ordered by id.
+     */
+    public Flux<ProductResponseDTO> findProducts() {
+        return pages(this::productPage, ProductResponseDTO::getId);
+    }
+
+    /**
+     * The products of one provider, ordered by id (index idx_product_provider_id_id).
+     * Empty, like the backend's endpoint, if the provider has no products or was offboarded.
+     */
+    public Mono<Flux<ProductResponseDTO>> findProductsByProvider(long providerId) {
+        Function<Long, Mono<List<ProductResponseDTO>>> page = afterId -> providerProductPage(providerId, afterId);
+        return page.apply(0L)
+                .filter(first -> !first.isEmpty())
+                .map(first -> pagesFrom(first, page, ProductResponseDTO::getId));
+    }
+
+    /**
+     * All active providers, ordered by id.
+     */
+    public Flux<ProviderResponseDTO> findProviders() {
+        return pages(this::providerPage, ProviderResponseDTO::getId);
+    }
+
+    private Mono<List<ProductResponseDTO>> productPage(long afterId) {
+        return databaseClient.sql("SELECT " + PRODUCT_COLUMNS + " FROM product p " +
+                        "JOIN provider v ON v.id = p.provider_id " +
+                        "WHERE v.deleted_at IS NULL AND p.id > :afterId ORDER BY p.id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(CatalogQueries::toProduct)
+                .all()
+                .collectList();
+    }
+
+    private Mono<List<ProductResponseDTO>> providerProductPage(long providerId, long afterId) {
+        return databaseClient.sql("SELECT " + PRODUCT_COLUMNS + " FROM product p " +
+                        "JOIN provider v ON v.id = p.provider_id " +
+                        "WHERE p.provider_id = :providerId AND v.deleted_at IS NULL AND p.id > :afterId " +
+                        "ORDER BY p.id LIMIT :limit")
+                .bind("providerId", providerId)
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(CatalogQueries::toProduct)
+                .all()
+                .collectList();
+    }
+
+    private Mono<List<ProviderResponseDTO>> providerPage(long afterId) {
+        return databaseClient.sql("SELECT id, name, email, phone, profile_image_url FROM provider " +
+                        "WHERE deleted_at IS NULL AND id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(CatalogQueries::toProvider)
+                .all()
+                .collectList();
+    }
+
+    private <T> Flux<T> pages(Function<Long, Mono<List<T>>> page, Function<T, Long> idOf) {
+        return page.apply(0L).flatMapMany(first -> pagesFrom(first, page, idOf));
+    }
+
+    /**
+     * The rows of the first page, then of each following page, reading a page only when the
+     * subscriber asks for more rows than the pages before it held.
+     */
+    private <T> Flux<T> pagesFrom(List<T> first, Function<Long, Mono<List<T>>> page, Function<T, Long> idOf) {
+        return Mono.just(first)
+                .expand(rows -> rows.size() < pageSize
+                        ? Mono.empty()
+                        : page.apply(idOf.apply(rows.get(rows.size() - 1))))
+                .concatMapIterable(rows -> rows, 1);
+    }
+
+    private static ProductResponseDTO toProduct(Readable row) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("name", String.class));
+        dto.setDescription(row.get("description", String.class));
+        dto.setPrice(row.get("price", Integer.class));
+        dto.setProductImageUrl(row.get("product_image_url", String.class));
+        dto.setStockQuantity(row.get("stock_quantity", Integer.class));
+        return dto;
+    }
+
+    private static ProviderResponseDTO toProvider(Readable row) {
+        ProviderResponseDTO dto = new ProviderResponseDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("name", String.class));
+        dto.setEmail(row.get("email", String.class));
+        dto.setPhone(row.get("phone", String.class));
+        dto.setProfileImageUrl(row.get("profile_image_url", String.class));
+        return dto;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.backend.security.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Same rules as the backend for the reads served here: a valid bearer token from
+ * POST /api/v1/auth/login (same jwt.secret.key), no session. Everything else is denied.
+ *
+ * The token's signature and expiry are checked; unlike the backend's JwtAuthFilter the user is
+ * not loaded again, so a deleted user keeps read access to the catalog until the token expires.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class CatalogSecurityConfig implements WebFluxConfigurer {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public CatalogSecurityConfig(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Bean
+    public SecurityWebFilterChain catalogSecurityFilterChain(ServerHttpSecurity http) {
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtAuthenticationManager());
+        jwtFilter.setServerAuthenticationConverter(exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith(BEARER_PREFIX)) {
+                return Mono.empty();
+            }
+            String token = header.substring(BEARER_PREFIX.length());
+            return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+        });
+        jwtFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        // CORS preflight checks
+                        .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/v1/products", "/api/v1/products/by-provider/*",
+                                "/api/v1/providers").authenticated()
+                        .anyExchange().denyAll()
+                )
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    /**
+     * Accepts a token whose signature and expiry check out; its subject becomes the principal.
+     */
+    private ReactiveAuthenticationManager jwtAuthenticationManager() {
+        return authentication -> Mono.fromCallable(() -> {
+            String token = (String) authentication.getCredentials();
+            try {
+                return new UsernamePasswordAuthenticationToken(jwtService.extractUsername(token), token, List.of());
+            } catch (JwtException | IllegalArgumentException e) {
+                throw new BadCredentialsException("Invalid token", e);
+            }
+        });
+    }
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        // Same origins as the backend's CorsConfig
+        registry.addMapping("/api/**")
+                .allowedOrigins(
+                        "http://localhost:4200",
+                        "http://127.0.0.1:4200",
+                        "http://192.168.1.68:4200"
+                )
+                .allowedMethods("GET", "OPTIONS")
+                .allowedHeaders("*")
+                .allowCredentials(true)
+                .maxAge(3600);
+    }
+}
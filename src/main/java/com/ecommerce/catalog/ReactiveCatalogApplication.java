@@ -0,0 +1,27 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.backend.security.JwtService;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Read-only catalog API (products and providers) on WebFlux and R2DBC, run next to the backend
+ * against the same PostgreSQL schema. Every write, and every other read, stays on the backend.
+ *
+ * Lives outside com.ecommerce.backend so none of the JPA/MVC beans are scanned; it reads
+ * application.properties and then catalog.properties, which overrides the port, the web stack and
+ * the excluded auto-configurations. Start it with
+ *
+ *   mvn spring-boot:run -Dstart-class=com.ecommerce.catalog.ReactiveCatalogApplication
+ */
+@SpringBootApplication
+@Import(JwtService.class)
+public class ReactiveCatalogApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveCatalogApplication.class)
+                .properties("spring.config.name=application,catalog")
+                .run(args);
+    }
+}
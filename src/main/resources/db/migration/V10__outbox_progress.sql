@@ -0,0 +1,3 @@
+-- Checkpoint of a message delivered in steps (e.g. the recipient batches of a fan-out): a retry
+-- continues after it instead of sending to every recipient again
+ALTER TABLE outbox_message ADD COLUMN progress bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,53 @@
+-- Baseline schema, taken from ecommerce_db_angular_spring.sql.
+-- Written with IF NOT EXISTS so it also applies to databases that were created by
+-- Hibernate's ddl-auto=update before migrations were introduced (see spring.flyway.baseline-*).
+
+CREATE TABLE IF NOT EXISTS provider (
+    id                bigserial    PRIMARY KEY,
+    name              varchar(255) NOT NULL,
+    email             varchar(255),
+    phone             varchar(255),
+    profile_image_url varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS role (
+    id   bigserial    PRIMARY KEY,
+    name varchar(255) NOT NULL CONSTRAINT role_name_key UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS app_user (
+    id          bigserial    PRIMARY KEY,
+    username    varchar(255) NOT NULL CONSTRAINT app_user_username_key UNIQUE,
+    password    varchar(255) NOT NULL,
+    provider_id bigint       CONSTRAINT fk_provider REFERENCES provider (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_role (
+    user_id bigint NOT NULL CONSTRAINT user_role_user_id_fkey REFERENCES app_user (id) ON DELETE CASCADE,
+    role_id bigint NOT NULL CONSTRAINT user_role_role_id_fkey REFERENCES role (id) ON DELETE CASCADE,
+    CONSTRAINT user_role_pkey PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS category (
+    id   bigserial    PRIMARY KEY,
+    name varchar(255) NOT NULL CONSTRAINT category_name_key UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS product (
+    id                bigserial    PRIMARY KEY,
+    name              varchar(255) NOT NULL,
+    description       varchar(255),
+    price             integer      NOT NULL,
+    stock_quantity    integer      NOT NULL,
+    product_image_url varchar(255),
+    provider_id       bigint       NOT NULL CONSTRAINT fk_product_provider REFERENCES provider (id) ON DELETE RESTRICT
+);
+
+CREATE TABLE IF NOT EXISTS product_category (
+    product_id  bigint NOT NULL CONSTRAINT fk_product_category_product REFERENCES product (id) ON DELETE CASCADE,
+    category_id bigint NOT NULL CONSTRAINT fk_product_category_category REFERENCES category (id) ON DELETE CASCADE,
+    CONSTRAINT product_category_pkey PRIMARY KEY (product_id, category_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_name ON product (name);
+CREATE INDEX IF NOT EXISTS idx_product_provider_id ON product (provider_id);
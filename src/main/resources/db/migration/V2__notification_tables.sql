@@ -0,0 +1,44 @@
+-- Tables of the device-token registry, the transactional outbox and scheduled notifications.
+-- Databases that ran with ddl-auto=update already have them, hence IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS device_token (
+    id           bigserial                   PRIMARY KEY,
+    user_id      bigint                      NOT NULL CONSTRAINT fk_device_token_user REFERENCES app_user (id) ON DELETE CASCADE,
+    token        varchar(512)                NOT NULL CONSTRAINT uk_device_token_token UNIQUE,
+    platform     varchar(32),
+    created_at   timestamp(6) with time zone NOT NULL,
+    last_seen_at timestamp(6) with time zone NOT NULL
+);
+
+-- Recipient resolution walks tokens per user in id order (keyset pagination)
+CREATE INDEX IF NOT EXISTS idx_device_token_user_id ON device_token (user_id, id);
+
+CREATE TABLE IF NOT EXISTS outbox_message (
+    id           bigserial                   PRIMARY KEY,
+    kind         varchar(64)                 NOT NULL,
+    payload      text                        NOT NULL,
+    status       varchar(16)                 NOT NULL,
+    attempts     integer                     NOT NULL,
+    created_at   timestamp(6) with time zone NOT NULL,
+    available_at timestamp(6) with time zone NOT NULL,
+    locked_until timestamp(6) with time zone,
+    processed_at timestamp(6) with time zone,
+    last_error   varchar(1000)
+);
+
+-- The relay looks for due messages by status and due time
+CREATE INDEX IF NOT EXISTS idx_outbox_message_status_available_at ON outbox_message (status, available_at);
+
+CREATE TABLE IF NOT EXISTS scheduled_notification (
+    id                bigserial                   PRIMARY KEY,
+    kind              varchar(64)                 NOT NULL,
+    payload           text                        NOT NULL,
+    send_at           timestamp(6) with time zone NOT NULL,
+    status            varchar(16)                 NOT NULL,
+    created_at        timestamp(6) with time zone NOT NULL,
+    dispatched_at     timestamp(6) with time zone,
+    outbox_message_id bigint
+);
+
+-- Startup / horizon loading looks for pending items by send time
+CREATE INDEX IF NOT EXISTS idx_scheduled_notification_status_send_at ON scheduled_notification (status, send_at);
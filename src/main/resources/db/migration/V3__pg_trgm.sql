@@ -0,0 +1,2 @@
+-- Trigram operator classes for the substring name searches (see V4)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
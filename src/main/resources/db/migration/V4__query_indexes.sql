@@ -0,0 +1,18 @@
+-- Indexes for the queries the application actually runs. Built CONCURRENTLY so the migration does not
+-- block writes on a live catalog; Flyway runs this script outside a transaction.
+
+-- Keyset pages of a provider's products: WHERE provider_id = ? AND id > ? ORDER BY id.
+-- Also serves plain provider_id lookups, so the single-column index is dropped.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_provider_id_id ON product (provider_id, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_provider_id;
+
+-- Case-insensitive substring search: lower(name) LIKE '%term%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_name_trgm ON product USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_provider_name_trgm ON provider USING gin (lower(name) gin_trgm_ops);
+
+-- Products of a category (the primary key only covers product -> categories), and the
+-- ON DELETE CASCADE of fk_product_category_category, which otherwise scans the whole table
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_category_category_id ON product_category (category_id, product_id);
+
+-- app_user.username is looked up on every login and already unique (app_user_username_key),
+-- which is the index that lookup uses; no extra index is created for it.
@@ -0,0 +1,20 @@
+-- Inventory reservations: stock taken from product.stock_quantity until committed, released or expired
+
+CREATE TABLE stock_reservation (
+    id             bigserial                   PRIMARY KEY,
+    reservation_id varchar(36)                 NOT NULL,
+    product_id     bigint                      NOT NULL CONSTRAINT fk_stock_reservation_product REFERENCES product (id),
+    quantity       integer                     NOT NULL,
+    status         varchar(16)                 NOT NULL,
+    from_ledger    boolean                     NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL,
+    expires_at     timestamp(6) with time zone NOT NULL,
+    completed_at   timestamp(6) with time zone
+);
+
+CREATE INDEX idx_stock_reservation_reservation_id ON stock_reservation (reservation_id);
+-- The expiry job looks for active reservations past their expiry time
+CREATE INDEX idx_stock_reservation_status_expires_at ON stock_reservation (status, expires_at);
+
+-- Stock is only ever decremented conditionally, but make the invariant explicit
+ALTER TABLE product ADD CONSTRAINT chk_product_stock_quantity_non_negative CHECK (stock_quantity >= 0) NOT VALID;
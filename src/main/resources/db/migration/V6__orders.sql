@@ -0,0 +1,29 @@
+-- Orders and their items. Ids come from sequences incremented by 50, matching the pooled
+-- allocation of the entities, so Hibernate can batch the inserts.
+
+CREATE SEQUENCE orders_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE orders (
+    id              bigint                      PRIMARY KEY,
+    user_id         bigint                      NOT NULL CONSTRAINT fk_orders_user REFERENCES app_user (id),
+    idempotency_key varchar(64)                 NOT NULL,
+    request_hash    varchar(64)                 NOT NULL,
+    status          varchar(16)                 NOT NULL,
+    total_amount    bigint                      NOT NULL,
+    created_at      timestamp(6) with time zone NOT NULL,
+    -- A retried checkout finds the order created by the first attempt
+    CONSTRAINT uk_orders_user_id_idempotency_key UNIQUE (user_id, idempotency_key)
+);
+
+CREATE INDEX idx_orders_user_id_id ON orders (user_id, id);
+
+CREATE TABLE order_items (
+    id         bigint  PRIMARY KEY,
+    order_id   bigint  NOT NULL CONSTRAINT fk_order_items_order REFERENCES orders (id) ON DELETE CASCADE,
+    product_id bigint  NOT NULL CONSTRAINT fk_order_items_product REFERENCES product (id),
+    quantity   integer NOT NULL,
+    unit_price integer NOT NULL
+);
+
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
@@ -0,0 +1,58 @@
+-- Per-provider dashboard figures (product count, stock units, inventory value).
+--
+-- Every product change appends its difference to provider_stats_delta from a trigger, in the
+-- transaction of the change, whatever wrote it (JPA or the inventory's JDBC updates). Appending
+-- never waits on another writer, unlike updating the provider's summary row would. ProviderStatsJob
+-- folds the log into provider_stats every few seconds and periodically recomputes provider_stats
+-- from product. Reads add the not yet folded differences of the one provider, so they are exact.
+
+CREATE TABLE provider_stats (
+    provider_id     bigint                      PRIMARY KEY CONSTRAINT fk_provider_stats_provider REFERENCES provider (id) ON DELETE CASCADE,
+    product_count   bigint                      NOT NULL,
+    stock_units     bigint                      NOT NULL,
+    inventory_value bigint                      NOT NULL,
+    updated_at      timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE provider_stats_delta (
+    id              bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    provider_id     bigint NOT NULL,
+    product_count   bigint NOT NULL,
+    stock_units     bigint NOT NULL,
+    inventory_value bigint NOT NULL
+);
+
+CREATE INDEX idx_provider_stats_delta_provider_id ON provider_stats_delta (provider_id);
+
+CREATE FUNCTION product_provider_stats_delta() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.provider_id = NEW.provider_id THEN
+        IF OLD.stock_quantity <> NEW.stock_quantity OR OLD.price <> NEW.price THEN
+            INSERT INTO provider_stats_delta (provider_id, product_count, stock_units, inventory_value)
+            VALUES (NEW.provider_id, 0, NEW.stock_quantity - OLD.stock_quantity,
+                    NEW.stock_quantity::bigint * NEW.price - OLD.stock_quantity::bigint * OLD.price);
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO provider_stats_delta (provider_id, product_count, stock_units, inventory_value)
+        VALUES (OLD.provider_id, -1, -OLD.stock_quantity, -(OLD.stock_quantity::bigint * OLD.price));
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') THEN
+        INSERT INTO provider_stats_delta (provider_id, product_count, stock_units, inventory_value)
+        VALUES (NEW.provider_id, 1, NEW.stock_quantity, NEW.stock_quantity::bigint * NEW.price);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_product_provider_stats
+    AFTER INSERT OR DELETE OR UPDATE OF provider_id, stock_quantity, price ON product
+    FOR EACH ROW EXECUTE FUNCTION product_provider_stats_delta();
+
+INSERT INTO provider_stats (provider_id, product_count, stock_units, inventory_value, updated_at)
+SELECT pr.id, count(p.id), coalesce(sum(p.stock_quantity), 0), coalesce(sum(p.stock_quantity::bigint * p.price), 0), now()
+FROM provider pr
+LEFT JOIN product p ON p.provider_id = pr.id
+GROUP BY pr.id;
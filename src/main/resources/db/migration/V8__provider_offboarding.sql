@@ -0,0 +1,24 @@
+-- Provider offboarding: the provider is soft-deleted at once, its products are removed (or, when
+-- orders refer to them, archived with no stock) in batches by ProviderOffboardingJob.
+
+ALTER TABLE provider ADD COLUMN deleted_at timestamp(6) with time zone;
+
+CREATE TABLE provider_offboarding (
+    provider_id       bigint                      PRIMARY KEY CONSTRAINT fk_provider_offboarding_provider REFERENCES provider (id),
+    status            varchar(16)                 NOT NULL,
+    started_at        timestamp(6) with time zone NOT NULL,
+    finished_at       timestamp(6) with time zone,
+    -- Keyset position: products up to this id are done
+    last_product_id   bigint                      NOT NULL,
+    products_deleted  bigint                      NOT NULL,
+    products_archived bigint                      NOT NULL,
+    images_deleted    bigint                      NOT NULL,
+    image_failures    bigint                      NOT NULL
+);
+
+CREATE INDEX idx_provider_offboarding_running ON provider_offboarding (started_at) WHERE status = 'RUNNING';
+
+-- Deleting a batch of products checks these foreign keys per row; without an index every check
+-- scans the whole referencing table
+CREATE INDEX idx_order_items_product_id ON order_items (product_id);
+CREATE INDEX idx_stock_reservation_product_id ON stock_reservation (product_id);
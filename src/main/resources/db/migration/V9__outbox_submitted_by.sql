@@ -0,0 +1,2 @@
+-- Who recorded an outbox message; only that user and admins may read its delivery state
+ALTER TABLE outbox_message ADD COLUMN submitted_by varchar(255);
@@ -0,0 +1,131 @@
+-- Hash partitioning of product by provider_id. Optional: runs only when classpath:db/partitioning
+-- is in spring.flyway.locations (see application.properties). Queries, updates and vacuum scoped to
+-- one provider then touch one partition; lookups by id alone probe the id index of every partition.
+--
+-- The table is locked and copied in this migration's transaction, so writes to products stop for
+-- as long as the copy takes. Enabling it after later migrations ran needs spring.flyway.out-of-order.
+--
+-- A unique constraint on a partitioned table must include the partition key, so product(id) can no
+-- longer be the target of foreign keys. Ids stay unique through product_id_seq, and the foreign
+-- keys of product_category, stock_reservation and order_items become the triggers at the end
+-- (same SQLSTATE 23503 on violation, same ON DELETE CASCADE for category links).
+
+LOCK TABLE product IN ACCESS EXCLUSIVE MODE;
+
+-- On databases first created by ddl-auto=update, id is an identity column whose sequence goes with
+-- it. Turn it into a plain column with product_id_seq as default, continuing where identity was.
+DO $$
+DECLARE
+    next_id bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_attribute
+               WHERE attrelid = 'product'::regclass AND attname = 'id' AND attidentity <> '') THEN
+        EXECUTE format('SELECT CASE WHEN is_called THEN last_value + 1 ELSE last_value END FROM %s',
+                       pg_get_serial_sequence('product', 'id'))
+            INTO next_id;
+        ALTER TABLE product ALTER COLUMN id DROP IDENTITY;
+        CREATE SEQUENCE IF NOT EXISTS product_id_seq OWNED BY product.id;
+        PERFORM setval('product_id_seq', GREATEST(next_id, (SELECT COALESCE(max(id), 0) + 1 FROM product)), false);
+        ALTER TABLE product ALTER COLUMN id SET DEFAULT nextval('product_id_seq');
+    END IF;
+END
+$$;
+
+CREATE TABLE product_partitioned (
+    id                bigint       NOT NULL DEFAULT nextval('product_id_seq'),
+    name              varchar(255) NOT NULL,
+    description       varchar(255),
+    price             integer      NOT NULL,
+    stock_quantity    integer      NOT NULL,
+    product_image_url varchar(255),
+    provider_id       bigint       NOT NULL,
+    CONSTRAINT product_partitioned_pkey PRIMARY KEY (id, provider_id)
+) PARTITION BY HASH (provider_id);
+
+DO $$
+BEGIN
+    FOR i IN 0 .. ${product_partitions} - 1 LOOP
+        EXECUTE format('CREATE TABLE product_p%s PARTITION OF product_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       i, ${product_partitions}, i);
+    END LOOP;
+END
+$$;
+
+INSERT INTO product_partitioned (id, name, description, price, stock_quantity, product_image_url, provider_id)
+SELECT id, name, description, price, stock_quantity, product_image_url, provider_id
+FROM product;
+
+-- Foreign keys to the old table (names differ on databases set up from ecommerce_db_angular_spring.sql)
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS table_name, conname
+              FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = 'product'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END
+$$;
+
+-- Keep the id sequence (owned by the old column) when the old table goes
+ALTER SEQUENCE product_id_seq OWNED BY NONE;
+DROP TABLE product;
+ALTER TABLE product_partitioned RENAME TO product;
+ALTER TABLE product RENAME CONSTRAINT product_partitioned_pkey TO product_pkey;
+ALTER SEQUENCE product_id_seq OWNED BY product.id;
+
+ALTER TABLE product ADD CONSTRAINT fk_product_provider FOREIGN KEY (provider_id) REFERENCES provider (id) ON DELETE RESTRICT;
+ALTER TABLE product ADD CONSTRAINT chk_product_stock_quantity_non_negative CHECK (stock_quantity >= 0) NOT VALID;
+
+-- Created on every partition
+CREATE INDEX idx_product_provider_id_id ON product (provider_id, id);
+CREATE INDEX idx_product_name ON product (name);
+CREATE INDEX idx_product_name_trgm ON product USING gin (lower(name) gin_trgm_ops);
+
+-- The copy did not go through the trigger, and provider_stats still matches the copied rows
+CREATE TRIGGER trg_product_provider_stats
+    AFTER INSERT OR DELETE OR UPDATE OF provider_id, stock_quantity, price ON product
+    FOR EACH ROW EXECUTE FUNCTION product_provider_stats_delta();
+
+-- Referencing side of the former foreign keys: the product must exist. FOR KEY SHARE keeps a
+-- concurrent delete of it waiting until this transaction ends, as a foreign key check does.
+CREATE FUNCTION product_reference_check() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM 1 FROM product WHERE id = NEW.product_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'product % referenced from % does not exist', NEW.product_id, TG_TABLE_NAME
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_product_category_product
+    BEFORE INSERT OR UPDATE OF product_id ON product_category
+    FOR EACH ROW EXECUTE FUNCTION product_reference_check();
+CREATE TRIGGER trg_stock_reservation_product
+    BEFORE INSERT OR UPDATE OF product_id ON stock_reservation
+    FOR EACH ROW EXECUTE FUNCTION product_reference_check();
+CREATE TRIGGER trg_order_items_product
+    BEFORE INSERT OR UPDATE OF product_id ON order_items
+    FOR EACH ROW EXECUTE FUNCTION product_reference_check();
+
+-- Referenced side: category links go with the product; reservations and order items keep it
+CREATE FUNCTION product_delete_references() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM stock_reservation WHERE product_id = OLD.id)
+       OR EXISTS (SELECT 1 FROM order_items WHERE product_id = OLD.id) THEN
+        RAISE EXCEPTION 'product % is still referenced', OLD.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    DELETE FROM product_category WHERE product_id = OLD.id;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_product_delete_references
+    AFTER DELETE ON product
+    FOR EACH ROW EXECUTE FUNCTION product_delete_references();
@@ -0,0 +1,118 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.model.Provider;
+import com.ecommerce.backend.model.User;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drives POST /api/v1/orders/checkout with carts of a few products and reports checkouts/sec and
+ * latency percentiles, then replays every request with its idempotency key (no stock is taken
+ * twice). Skipped unless run explicitly:
+ *
+ *   mvn test -Dtest=CheckoutThroughputBenchmark -Dbenchmark=true [-Dbenchmark.requests=20000 -Dbenchmark.concurrency=64]
+ *
+ * Needs the database configured in application.properties; the products and the user it creates
+ * are left in place.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "notifications.transport=simulated",
+        "notifications.outbox.enabled=false",
+        "file.gc.enabled=false"
+})
+class CheckoutThroughputBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 10_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 200);
+    private static final int LINES_PER_CART = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final LoadGenerator loadGenerator = new LoadGenerator();
+
+    private final List<Long> productIds = new ArrayList<>();
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Provider provider = providerRepository.save(new Provider("bench-provider-" + run, "bench-" + run + "@example.com", "000", null));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product(null, "bench-product-" + run + "-" + i, null, 100 + i, 1_000_000, null, provider));
+        }
+        productRepository.saveAll(products).forEach(product -> productIds.add(product.getId()));
+
+        User user = new User();
+        user.setUsername("bench-buyer-" + run);
+        user.setPassword("unused");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+        token = jwtService.generateToken(user.getUsername());
+    }
+
+    @Test
+    void checkout() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/orders/checkout");
+        String keyPrefix = UUID.randomUUID().toString();
+
+        LoadGenerator.Report placed = loadGenerator.run("checkout", REQUESTS, CONCURRENCY,
+                i -> checkoutRequest(uri, keyPrefix + "-" + i, i));
+        System.out.println(placed.format());
+
+        LoadGenerator.Report replayed = loadGenerator.run("checkout replay", REQUESTS, CONCURRENCY,
+                i -> checkoutRequest(uri, keyPrefix + "-" + i, i));
+        System.out.println(replayed.format());
+    }
+
+    /**
+     * A cart of consecutive products starting at a request-dependent offset, so carts overlap and
+     * contend on product rows the way popular products do.
+     */
+    private HttpRequest checkoutRequest(URI uri, String idempotencyKey, int i) {
+        StringBuilder items = new StringBuilder("[");
+        for (int line = 0; line < LINES_PER_CART; line++) {
+            if (line > 0) {
+                items.append(',');
+            }
+            long productId = productIds.get((i * 7 + line) % productIds.size());
+            items.append("{\"productId\":").append(productId).append(",\"quantity\":1}");
+        }
+        items.append(']');
+        return LoadGenerator.postJson(uri, "{\"items\":" + items + "}", Map.of(
+                "Authorization", "Bearer " + token,
+                "Idempotency-Key", idempotencyKey));
+    }
+}
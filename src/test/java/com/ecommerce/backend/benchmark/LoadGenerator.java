@@ -0,0 +1,119 @@
+package com.ecommerce.backend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Minimal closed-loop HTTP load generator shared by the benchmarks: a fixed number of workers
+ * each send their next request as soon as the previous one answered.
+ */
+public class LoadGenerator {
+
+    /**
+     * Latencies and status codes of one run.
+     */
+    public record Report(String name, int requests, int concurrency, Duration elapsed,
+                         long[] latenciesMicros, Map<Integer, Integer> statusCounts, int errors) {
+
+        public double requestsPerSecond() {
+            return requests / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        }
+
+        /**
+         * @param percentile e.g. 99.9
+         */
+        public double percentileMillis(double percentile) {
+            if (latenciesMicros.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latenciesMicros.length) - 1;
+            return latenciesMicros[Math.max(0, Math.min(index, latenciesMicros.length - 1))] / 1000.0;
+        }
+
+        public String format() {
+            return String.format("%s: %d requests, concurrency %d, %.1f req/s | latency ms p50 %.2f p90 %.2f p99 %.2f p99.9 %.2f max %.2f | status %s, errors %d",
+                    name, requests, concurrency, requestsPerSecond(),
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                    percentileMillis(100), statusCounts, errors);
+        }
+    }
+
+    private final HttpClient client;
+
+    public LoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    public LoadGenerator() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build());
+    }
+
+    /**
+     * Sends the requests built by the factory (called with the request number) and waits for all answers.
+     */
+    public Report run(String name, int requests, int concurrency, IntFunction<HttpRequest> requestFactory) throws Exception {
+        long[] latencies = new long[requests];
+        Map<Integer, Integer> statusCounts = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] futures = new Future<?>[concurrency];
+            for (int w = 0; w < concurrency; w++) {
+                futures[w] = workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requestFactory.apply(i), HttpResponse.BodyHandlers.discarding());
+                            statusCounts.merge(response.statusCode(), 1, Integer::sum);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = (System.nanoTime() - sent) / 1000;
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Arrays.sort(latencies);
+        return new Report(name, (int) completed.get(), concurrency, elapsed, latencies, Map.copyOf(statusCounts), errors.get());
+    }
+
+    public static HttpRequest postJson(URI uri, String json) {
+        return postJson(uri, json, Map.of());
+    }
+
+    public static HttpRequest postJson(URI uri, String json, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        headers.forEach(builder::header);
+        return builder.POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.model.Role;
+import com.ecommerce.backend.model.User;
+import com.ecommerce.backend.notification.transport.SimulatedPushTransport;
+import com.ecommerce.backend.security.JwtService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Drives the notification endpoints against the simulated push transport and reports accept
+ * latency percentiles and end-to-end sends/sec. Skipped unless run explicitly:
+ *
+ *   mvn test -Dtest=NotificationThroughputBenchmark -Dbenchmark=true [-Dbenchmark.requests=20000 -Dbenchmark.concurrency=64]
+ *
+ * Needs the database configured in application.properties (the application context starts fully).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "notifications.transport=simulated",
+        "notifications.transport.simulated.latency-ms=40",
+        "notifications.transport.simulated.latency-jitter-ms=20",
+        "notifications.outbox.enabled=false",
+        "notifications.coalesce.window-ms=0",
+        "file.gc.enabled=false"
+})
+class NotificationThroughputBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 10_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int MULTICAST_TOKENS = Integer.getInteger("benchmark.multicast-tokens", 1_000);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimulatedPushTransport transport;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final LoadGenerator loadGenerator = new LoadGenerator();
+
+    private Map<String, String> authorization;
+
+    /**
+     * The send endpoints are ADMIN only.
+     */
+    @BeforeEach
+    void createAdmin() {
+        String username = "bench-admin-" + UUID.randomUUID().toString().substring(0, 8);
+        transactionTemplate.executeWithoutResult(status -> {
+            Role admin = entityManager.createQuery("select r from Role r where r.name = 'ROLE_ADMIN'", Role.class)
+                    .getResultStream()
+                    .findFirst()
+                    .orElseGet(() -> {
+                        Role role = new Role();
+                        role.setName("ROLE_ADMIN");
+                        entityManager.persist(role);
+                        return role;
+                    });
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("unused");
+            user.setRoles(new HashSet<>(Set.of(admin)));
+            entityManager.persist(user);
+        });
+        authorization = Map.of("Authorization", "Bearer " + jwtService.generateToken(username));
+    }
+
+    @Test
+    void sendToDevice() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/notifications/send-to-device");
+        long acceptedBefore = transport.getAcceptedMessages();
+        long start = System.nanoTime();
+
+        LoadGenerator.Report report = loadGenerator.run("send-to-device", REQUESTS, CONCURRENCY,
+                i -> LoadGenerator.postJson(uri, "{\"title\":\"Price drop\",\"body\":\"Item " + i + "\",\"deviceToken\":\"bench-token-" + i + "\"}", authorization));
+        System.out.println(report.format());
+        reportDelivery("send-to-device", acceptedBefore, report.statusCounts().getOrDefault(202, 0), start);
+    }
+
+    @Test
+    void sendToAll() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/notifications/send-to-all");
+        StringJoiner tokens = new StringJoiner(",", "[", "]");
+        for (int t = 0; t < MULTICAST_TOKENS; t++) {
+            tokens.add("\"bench-token-" + t + "\"");
+        }
+        String body = "{\"title\":\"Flash sale\",\"body\":\"Now on\",\"deviceTokenList\":" + tokens + "}";
+        int campaigns = Math.max(1, REQUESTS / 100);
+        long acceptedBefore = transport.getAcceptedMessages();
+        long start = System.nanoTime();
+
+        LoadGenerator.Report report = loadGenerator.run("send-to-all x" + MULTICAST_TOKENS, campaigns,
+                Math.min(CONCURRENCY, campaigns), i -> LoadGenerator.postJson(uri, body, authorization));
+        System.out.println(report.format());
+        reportDelivery("send-to-all", acceptedBefore, (long) report.statusCounts().getOrDefault(202, 0) * MULTICAST_TOKENS, start);
+    }
+
+    /**
+     * Waits until the transport accepted every expected message (or stops making progress) and prints sends/sec.
+     */
+    private void reportDelivery(String name, long acceptedBefore, long expected, long startNanos) throws InterruptedException {
+        long delivered = 0;
+        long lastProgress = System.nanoTime();
+        while (delivered < expected && System.nanoTime() - lastProgress < 10_000_000_000L) {
+            Thread.sleep(20);
+            long current = transport.getAcceptedMessages() - acceptedBefore;
+            if (current != delivered) {
+                delivered = current;
+                lastProgress = System.nanoTime();
+            }
+        }
+        // Up to the last observed progress, so a stalled tail does not dilute the rate
+        double seconds = (lastProgress - startNanos) / 1e9;
+        System.out.printf("%s: %d of %d sends delivered, %.1f sends/s end-to-end%n", name, delivered, expected, delivered / seconds);
+    }
+}
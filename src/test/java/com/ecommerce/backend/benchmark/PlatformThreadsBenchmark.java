@@ -0,0 +1,22 @@
+package com.ecommerce.backend.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Baseline for VirtualThreadsBenchmark, see ThreadModelBenchmarkSupport.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "notifications.transport=simulated",
+        "notifications.outbox.enabled=false",
+        "file.gc.enabled=false"
+})
+class PlatformThreadsBenchmark extends ThreadModelBenchmarkSupport {
+
+    @Override
+    String threadModel() {
+        return "platform";
+    }
+}
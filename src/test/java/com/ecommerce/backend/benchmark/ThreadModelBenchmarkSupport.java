@@ -0,0 +1,106 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.model.Provider;
+import com.ecommerce.backend.model.User;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shared workload of PlatformThreadsBenchmark and VirtualThreadsBenchmark: the same I/O-bound
+ * requests (catalog reads and checkouts, each a few JDBC round trips) at a concurrency above the
+ * servlet container's 200 platform threads. Compare the two reports printed by:
+ *
+ *   mvn -Pjdk21 test -Dtest='*ThreadsBenchmark' -Dbenchmark=true [-Dbenchmark.concurrency=800]
+ */
+abstract class ThreadModelBenchmarkSupport {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int PRODUCTS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final LoadGenerator loadGenerator = new LoadGenerator();
+
+    private final List<Long> productIds = new ArrayList<>();
+    private Long providerId;
+    private String token;
+
+    /**
+     * "platform" or "virtual", for the report.
+     */
+    abstract String threadModel();
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Provider provider = providerRepository.save(new Provider("bench-provider-" + run, "bench-" + run + "@example.com", "000", null));
+        providerId = provider.getId();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product(null, "bench-product-" + run + "-" + i, null, 100 + i, 1_000_000, null, provider));
+        }
+        productRepository.saveAll(products).forEach(product -> productIds.add(product.getId()));
+
+        User user = new User();
+        user.setUsername("bench-buyer-" + run);
+        user.setPassword("unused");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+        token = jwtService.generateToken(user.getUsername());
+    }
+
+    @Test
+    void catalogReads() throws Exception {
+        LoadGenerator.Report report = loadGenerator.run(threadModel() + " threads: product pages", REQUESTS, CONCURRENCY,
+                i -> HttpRequest.newBuilder(uri("/api/v1/products/by-provider/" + providerId + "/page?afterId=" + productIds.get(i % productIds.size()) + "&size=20"))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build());
+        System.out.println(report.format());
+    }
+
+    @Test
+    void checkouts() throws Exception {
+        String keyPrefix = UUID.randomUUID().toString();
+        LoadGenerator.Report report = loadGenerator.run(threadModel() + " threads: checkouts", REQUESTS, CONCURRENCY,
+                i -> LoadGenerator.postJson(uri("/api/v1/orders/checkout"),
+                        "{\"items\":[{\"productId\":" + productIds.get(i % productIds.size()) + ",\"quantity\":1}]}",
+                        Map.of("Authorization", "Bearer " + token, "Idempotency-Key", keyPrefix + "-" + i)));
+        System.out.println(report.format());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.backend.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The workload of ThreadModelBenchmarkSupport in virtual-thread mode; needs Java 21.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "notifications.transport=simulated",
+        "notifications.outbox.enabled=false",
+        "file.gc.enabled=false"
+})
+class VirtualThreadsBenchmark extends ThreadModelBenchmarkSupport {
+
+    @Override
+    String threadModel() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.backend.instrumentation;
+
+import com.ecommerce.backend.model.Product;
+import com.ecommerce.backend.model.Provider;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.ProviderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of queries of the product read endpoints, so a lazy Product -> Provider load
+ * slipping into a response (one provider query per product) fails the build.
+ */
+@SpringBootTest(properties = {
+        "notifications.transport=simulated",
+        "notifications.outbox.enabled=false",
+        "file.gc.enabled=false"
+})
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser
+class ProductQueryCountTest {
+
+    private static final int PROVIDERS = 5;
+    private static final int PRODUCTS_PER_PROVIDER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long providerId;
+    private Long productId;
+
+    @BeforeEach
+    void createCatalog() {
+        for (int p = 0; p < PROVIDERS; p++) {
+            Provider provider = providerRepository.save(new Provider("Provider " + p, "provider" + p + "@example.com", null, null));
+            for (int i = 0; i < PRODUCTS_PER_PROVIDER; i++) {
+                Product product = productRepository.save(new Product(null, "Product " + p + "-" + i, null, 100 + i, 10, null, provider));
+                productId = product.getId();
+            }
+            providerId = provider.getId();
+        }
+        // Start the requests with an empty persistence context so lazy associations really hit the database
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listProductsRunsOneQuery() throws Exception {
+        try (QueryCountAssert queries = QueryCountAssert.start()) {
+            mockMvc.perform(get("/api/v1/products")).andExpect(status().isOk());
+            queries.assertAtMost(1).assertNoRepeatedStatements();
+        }
+    }
+
+    @Test
+    void productsByProviderRunsOneQuery() throws Exception {
+        try (QueryCountAssert queries = QueryCountAssert.start()) {
+            mockMvc.perform(get("/api/v1/products/by-provider/{providerId}", providerId)).andExpect(status().isOk());
+            queries.assertAtMost(1).assertNoRepeatedStatements();
+        }
+    }
+
+    @Test
+    void productByIdRunsOneQuery() throws Exception {
+        try (QueryCountAssert queries = QueryCountAssert.start()) {
+            mockMvc.perform(get("/api/v1/products/{id}", productId)).andExpect(status().isOk());
+            queries.assertAtMost(1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.backend.instrumentation;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the JDBC statements run on the current thread while it is open, for tests that pin
+ * the number of queries an endpoint may issue:
+ *
+ *   try (QueryCountAssert queries = QueryCountAssert.start()) {
+ *       mockMvc.perform(get("/api/v1/products"));
+ *       queries.assertAtMost(1).assertNoRepeatedStatements();
+ *   }
+ *
+ * MockMvc runs the request on the test thread, so the scope opened here is joined by
+ * QueryStatisticsFilter and sees every statement of the request.
+ */
+public final class QueryCountAssert implements AutoCloseable {
+
+    private final QueryStatistics.Scope scope;
+
+    private QueryCountAssert(QueryStatistics.Scope scope) {
+        this.scope = scope;
+    }
+
+    public static QueryCountAssert start() {
+        QueryCountAssert queries = new QueryCountAssert(QueryStatistics.open());
+        queries.reset();
+        return queries;
+    }
+
+    public QueryCountAssert reset() {
+        scope.statistics().reset();
+        return this;
+    }
+
+    public int count() {
+        return scope.statistics().getQueries();
+    }
+
+    public QueryCountAssert assertAtMost(int maxQueries) {
+        QueryStatistics statistics = scope.statistics();
+        if (statistics.getQueries() > maxQueries) {
+            throw new AssertionError("Expected at most " + maxQueries + " queries but " + statistics.getQueries()
+                    + " were executed:\n" + describe(statistics.getStatementCounts()));
+        }
+        return this;
+    }
+
+    /**
+     * Fails if any statement ran more than once: the signature of an N+1.
+     */
+    public QueryCountAssert assertNoRepeatedStatements() {
+        scope.statistics().mostRepeatedStatement()
+                .filter(statement -> statement.getValue() > 1)
+                .ifPresent(statement -> {
+                    throw new AssertionError("Statement executed " + statement.getValue() + " times (N+1?): " + statement.getKey());
+                });
+        return this;
+    }
+
+    @Override
+    public void close() {
+        scope.close();
+    }
+
+    private static String describe(Map<String, Integer> statementCounts) {
+        return statementCounts.entrySet().stream()
+                .map(entry -> "  " + entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.backend.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the ledger against an in-memory product row: concurrent reservations must never take more
+ * than the row's stock, and the ledger must only lease what it actually hands out.
+ */
+class HotStockLedgerTest {
+
+    private static final Long PRODUCT_ID = 42L;
+    private static final int STOCK = 1_000;
+    private static final int LEASE_SIZE = 100;
+    private static final int THREADS = 16;
+
+    private final AtomicInteger databaseStock = new AtomicInteger(STOCK);
+    private final AtomicInteger leaseCalls = new AtomicInteger();
+    private HotStockLedger ledger;
+
+    @BeforeEach
+    void createLedger() {
+        InventoryStore inventoryStore = mock(InventoryStore.class);
+        when(inventoryStore.lease(eq(PRODUCT_ID), anyInt())).thenAnswer(invocation -> {
+            leaseCalls.incrementAndGet();
+            int max = invocation.getArgument(1);
+            // Same semantics as LEASE_SQL: as much as there is, up to the requested amount
+            int current;
+            int leased;
+            do {
+                current = databaseStock.get();
+                leased = Math.min(max, current);
+            } while (!databaseStock.compareAndSet(current, current - leased));
+            return leased;
+        });
+        doAnswer(invocation -> databaseStock.addAndGet(invocation.getArgument(1)))
+                .when(inventoryStore).increment(eq(PRODUCT_ID), anyInt());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        ledger = new HotStockLedger(inventoryStore, transactionManager, new SimpleMeterRegistry(),
+                true, Set.of(PRODUCT_ID), 8, LEASE_SIZE);
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedStock() throws Exception {
+        AtomicInteger taken = new AtomicInteger();
+        runConcurrently(() -> {
+            while (ledger.tryTake(PRODUCT_ID, 1)) {
+                taken.incrementAndGet();
+            }
+        });
+
+        assertThat(taken.get()).isEqualTo(STOCK);
+        assertThat(databaseStock.get()).isZero();
+        // One lease per block, plus at most one empty lease per thread once the stock ran out
+        assertThat(leaseCalls.get()).isLessThanOrEqualTo(STOCK / LEASE_SIZE + THREADS);
+    }
+
+    @Test
+    void takesFromOtherStripesBeforeLeasing() {
+        assertThat(ledger.tryTake(PRODUCT_ID, 1)).isTrue();
+        assertThat(leaseCalls.get()).isEqualTo(1);
+
+        // The rest of the block is spread over the stripes, whichever one a caller starts on
+        for (int i = 1; i < LEASE_SIZE; i++) {
+            assertThat(ledger.tryTake(PRODUCT_ID, 1)).isTrue();
+        }
+        assertThat(leaseCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void gathersStripesForLargeReservations() {
+        assertThat(ledger.tryTake(PRODUCT_ID, 1)).isTrue();
+
+        // 99 units are held, no stripe holds 50 alone: gather them instead of leasing another block
+        assertThat(ledger.tryTake(PRODUCT_ID, 50)).isTrue();
+        assertThat(leaseCalls.get()).isEqualTo(1);
+        assertThat(databaseStock.get()).isEqualTo(STOCK - LEASE_SIZE);
+    }
+
+    @Test
+    void flushReturnsHeldStockAndGiveBackIsReusable() {
+        assertThat(ledger.tryTake(PRODUCT_ID, 10)).isTrue();
+        ledger.giveBack(PRODUCT_ID, 10);
+
+        ledger.flush();
+
+        assertThat(databaseStock.get()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void refusesMoreThanTheStock() {
+        assertThat(ledger.tryTake(PRODUCT_ID, STOCK + 1)).isFalse();
+        // Nothing was lost on the way: all of it can still be taken
+        assertThat(ledger.tryTake(PRODUCT_ID, STOCK)).isTrue();
+        assertThat(ledger.tryTake(PRODUCT_ID, 1)).isFalse();
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.backend.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a small, fast wheel (4 buckets of 10 ms, one revolution every 40 ms): timeouts must never
+ * fire before their deadline, also when they are several revolutions away and share a bucket
+ * with nearer ones.
+ */
+class HashedTimerWheelTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+    private static final int WHEEL_SIZE = 4;
+
+    private record Fired(List<String> values, Instant at) {
+    }
+
+    private final BlockingQueue<Fired> fired = new LinkedBlockingQueue<>();
+    private final HashedTimerWheel<String> wheel = new HashedTimerWheel<>("test-timer-wheel", TICK, WHEEL_SIZE,
+            values -> fired.add(new Fired(List.copyOf(values), Instant.now())));
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void timeoutsSeveralRoundsAwayWaitForTheirRound() throws Exception {
+        wheel.start();
+        Instant now = Instant.now();
+        Instant near = now.plusMillis(20);
+        // Three revolutions later: likely the same bucket as the near one
+        Instant far = near.plus(TICK.multipliedBy(WHEEL_SIZE * 3L));
+        wheel.schedule("far", far);
+        wheel.schedule("near", near);
+
+        Fired first = next();
+        assertThat(first.values()).containsExactly("near");
+        assertThat(first.at()).isAfterOrEqualTo(near);
+
+        Fired second = next();
+        assertThat(second.values()).containsExactly("far");
+        assertThat(second.at()).isAfterOrEqualTo(far);
+    }
+
+    @Test
+    void timeoutsOfOneTickFireAsOneBatch() throws Exception {
+        wheel.start();
+        Instant deadline = Instant.now().plusMillis(100);
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule("timeout-" + i, deadline);
+        }
+
+        List<String> values = new ArrayList<>();
+        int batches = 0;
+        while (values.size() < 100) {
+            Fired batch = next();
+            assertThat(batch.at()).isAfterOrEqualTo(deadline);
+            values.addAll(batch.values());
+            batches++;
+        }
+        assertThat(values).doesNotHaveDuplicates();
+        // Scheduling may straddle a tick boundary, but never spreads over more ticks
+        assertThat(batches).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() throws Exception {
+        wheel.start();
+        // Lets the worker move past its first ticks, so the overdue timeout cannot go into one of them
+        Thread.sleep(TICK.toMillis() * 3);
+        Instant scheduledAt = Instant.now();
+        wheel.schedule("overdue", scheduledAt.minusSeconds(60));
+
+        Fired batch = next();
+        assertThat(batch.values()).containsExactly("overdue");
+        assertThat(Duration.between(scheduledAt, batch.at())).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void timeoutsScheduledBeforeStartFireOnceStarted() throws Exception {
+        wheel.schedule("early", Instant.now().plusMillis(10));
+        assertThat(fired.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+        wheel.start();
+
+        assertThat(next().values()).containsExactly("early");
+    }
+
+    private Fired next() throws InterruptedException {
+        Fired batch = fired.poll(5, TimeUnit.SECONDS);
+        assertThat(batch).as("expired timeouts").isNotNull();
+        return batch;
+    }
+}
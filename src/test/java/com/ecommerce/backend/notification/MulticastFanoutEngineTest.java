@@ -0,0 +1,228 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.notification.transport.PushSendResult;
+import com.ecommerce.backend.notification.transport.PushTransport;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.ecommerce.backend.notification.transport.TopicManagementResult;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MulticastMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the engine against a scripted transport, with chunks of 3 tokens and fast retries: token
+ * lists are chunked, transient failures are retried up to the limit, invalid tokens are reported
+ * for pruning and checkpoints only move past batches that finished.
+ */
+class MulticastFanoutEngineTest {
+
+    private static final int CHUNK_SIZE = 3;
+    private static final int MAX_RETRIES = 2;
+
+    // Tokens of every chunk sent, in send order
+    private final List<List<String>> sentChunks = Collections.synchronizedList(new ArrayList<>());
+    // How often each token was sent so far
+    private final Map<String, AtomicInteger> sends = new ConcurrentHashMap<>();
+    // Answer per token for its n-th send (0-based); tokens without one are delivered
+    private volatile Function<String, Function<Integer, PushSendResult>> script = token -> attempt -> null;
+    // Number of upcoming requests that fail as a whole
+    private final AtomicInteger failingRequests = new AtomicInteger();
+
+    private final List<Long> checkpoints = Collections.synchronizedList(new ArrayList<>());
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private MulticastFanoutEngine engine;
+
+    @BeforeEach
+    void createEngine() {
+        engine = new MulticastFanoutEngine(new ScriptedTransport(), eventPublisher,
+                new NotificationMetrics(new SimpleMeterRegistry()), CHUNK_SIZE, 2, MAX_RETRIES, 1, 5, 60);
+    }
+
+    @AfterEach
+    void stopEngine() {
+        engine.shutdown();
+    }
+
+    @Test
+    void splitsTokensIntoChunks() throws Exception {
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("t", 7), 7);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(sentChunks).extracting(List::size).containsExactly(3, 3, 1);
+        assertThat(campaign.getTotalTokens()).isEqualTo(7);
+        assertThat(campaign.getDelivered()).isEqualTo(7);
+        assertThat(campaign.getChunksSent()).isEqualTo(3);
+        assertThat(checkpoints).containsExactly(7L);
+    }
+
+    @Test
+    void retriesOnlyTheTokensThatFailedTransiently() throws Exception {
+        script = token -> attempt -> token.equals("t1") && attempt == 0
+                ? PushSendResult.failure(PushErrorCode.UNAVAILABLE, "try again")
+                : null;
+
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("t", 3), 3);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(sentChunks).containsExactly(List.of("t0", "t1", "t2"), List.of("t1"));
+        assertThat(campaign.getDelivered()).isEqualTo(3);
+        assertThat(campaign.getRetried()).isEqualTo(1);
+        assertThat(campaign.getFailed()).isZero();
+        assertThat(checkpoints).containsExactly(3L);
+    }
+
+    @Test
+    void retriesFailedRequestsAsAWhole() throws Exception {
+        failingRequests.set(1);
+
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("t", 2), 2);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(sentChunks).containsExactly(List.of("t0", "t1"), List.of("t0", "t1"));
+        assertThat(campaign.getDelivered()).isEqualTo(2);
+        assertThat(campaign.getRetried()).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterMaxRetriesAndStopsCheckpoints() throws Exception {
+        script = token -> attempt -> token.equals("b1")
+                ? PushSendResult.failure(PushErrorCode.QUOTA_EXCEEDED, "slow down")
+                : null;
+
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("a", 3), 3);
+        awaitCheckpoint(3L);
+        engine.dispatch(campaign, tokens("b", 3), 6);
+        engine.dispatch(campaign, tokens("c", 3), 9);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(sends.get("b1").get()).isEqualTo(1 + MAX_RETRIES);
+        assertThat(campaign.getFailed()).isEqualTo(1);
+        assertThat(campaign.getDelivered()).isEqualTo(8);
+        // A later attempt must send batch b again, and with it c
+        assertThat(checkpoints).containsExactly(3L);
+        assertThat(campaign.getInvalidTokens()).isEmpty();
+    }
+
+    @Test
+    void reportsInvalidTokensForPruning() throws Exception {
+        script = token -> attempt -> switch (token) {
+            case "t1" -> PushSendResult.failure(PushErrorCode.UNREGISTERED, "gone");
+            case "t4" -> PushSendResult.failure(PushErrorCode.SENDER_ID_MISMATCH, "other project");
+            default -> null;
+        };
+
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("t", 5), 5);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(campaign.getInvalidTokens()).containsExactlyInAnyOrder("t1", "t4");
+        assertThat(campaign.getFailed()).isEqualTo(2);
+        assertThat(campaign.getRetried()).isZero();
+        assertThat(campaign.getMessageError()).isNull();
+        verify(eventPublisher).publishEvent(new InvalidDeviceTokensEvent(campaign.getId(), campaign.getInvalidTokens()));
+    }
+
+    @Test
+    void rejectedMessagesDoNotPruneTokens() throws Exception {
+        script = token -> attempt -> PushSendResult.failure(PushErrorCode.INVALID_ARGUMENT, "bad payload");
+
+        FanoutCampaign campaign = launch();
+        engine.dispatch(campaign, tokens("t", 2), 2);
+        engine.finishSubmission(campaign);
+
+        await(campaign);
+        assertThat(campaign.getMessageError()).startsWith("INVALID_ARGUMENT");
+        assertThat(campaign.getInvalidTokens()).isEmpty();
+        assertThat(campaign.getFailed()).isEqualTo(2);
+        verify(eventPublisher, never()).publishEvent(any(InvalidDeviceTokensEvent.class));
+    }
+
+    private FanoutCampaign launch() {
+        return engine.launch(new NotificationJob("send-to-all"),
+                chunk -> MulticastMessage.builder().addAllTokens(chunk).build(), checkpoints::add);
+    }
+
+    private void awaitCheckpoint(long position) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!checkpoints.contains(position) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(checkpoints).contains(position);
+    }
+
+    private static void await(FanoutCampaign campaign) throws Exception {
+        campaign.completion().get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<String> tokens(String prefix, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add(prefix + i);
+        }
+        return tokens;
+    }
+
+    private class ScriptedTransport implements PushTransport {
+
+        @Override
+        public ApiFuture<List<PushSendResult>> sendEachForMulticast(MulticastMessage message, List<String> tokens) {
+            sentChunks.add(List.copyOf(tokens));
+            if (failingRequests.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                return ApiFutures.immediateFailedFuture(
+                        new PushTransportException(PushErrorCode.UNAVAILABLE, "connection reset", null));
+            }
+            List<PushSendResult> results = new ArrayList<>();
+            for (String token : tokens) {
+                int attempt = sends.computeIfAbsent(token, key -> new AtomicInteger()).getAndIncrement();
+                PushSendResult result = script.apply(token).apply(attempt);
+                results.add(result != null ? result : PushSendResult.success("msg-" + token + "-" + attempt));
+            }
+            return ApiFutures.immediateFuture(results);
+        }
+
+        @Override
+        public ApiFuture<String> send(Message message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ApiFuture<TopicManagementResult> subscribeToTopic(List<String> tokens, String topic) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ApiFuture<TopicManagementResult> unsubscribeFromTopic(List<String> tokens, String topic) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.outbox.OutboxService;
+import com.ecommerce.backend.repository.ScheduledNotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cancelling a scheduled notification only removes it from the tracked ids: the wheel still fires
+ * it, and the timer must then drop it instead of dispatching it.
+ */
+class ScheduledNotificationTimerTest {
+
+    // Ids the timer tried to dispatch, one entry per lockPending batch
+    private final BlockingQueue<List<Long>> dispatched = new LinkedBlockingQueue<>();
+    private ScheduledNotificationTimer timer;
+
+    @BeforeEach
+    void createTimer() {
+        ScheduledNotificationRepository repository = mock(ScheduledNotificationRepository.class);
+        when(repository.lockPending(anyCollection())).thenAnswer(invocation -> {
+            dispatched.add(List.copyOf(invocation.<Collection<Long>>getArgument(0)));
+            return List.of();
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        timer = new ScheduledNotificationTimer(repository, mock(OutboxService.class),
+                mock(NotificationOutboxHandler.class), transactionTemplate, true, 10, 8, 60, 500);
+        timer.start();
+    }
+
+    @AfterEach
+    void stopTimer() {
+        timer.shutdown();
+    }
+
+    @Test
+    void untrackedNotificationsAreNotDispatched() throws Exception {
+        Instant sendAt = Instant.now().plusMillis(100);
+        timer.track(1L, sendAt);
+        timer.track(2L, sendAt);
+        timer.track(3L, sendAt);
+        timer.untrack(2L);
+
+        List<Long> ids = new ArrayList<>(next());
+        // Anything else due at about the same time
+        List<Long> more;
+        while ((more = dispatched.poll(200, TimeUnit.MILLISECONDS)) != null) {
+            ids.addAll(more);
+        }
+        assertThat(ids).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void notificationsAreDispatchedOnce() throws Exception {
+        Instant sendAt = Instant.now().plusMillis(50);
+        timer.track(1L, sendAt);
+        // Tracking it again (e.g. a refill that sees it still SCHEDULED) does not add a second timeout
+        timer.track(1L, sendAt);
+
+        assertThat(next()).containsExactly(1L);
+        assertThat(dispatched.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void notificationsBeyondTheHorizonWaitForARefill() throws Exception {
+        timer.track(1L, Instant.now().plusSeconds(7_200));
+
+        assertThat(dispatched.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private List<Long> next() throws InterruptedException {
+        List<Long> ids = dispatched.poll(5, TimeUnit.SECONDS);
+        assertThat(ids).as("dispatched ids").isNotNull();
+        return ids;
+    }
+}
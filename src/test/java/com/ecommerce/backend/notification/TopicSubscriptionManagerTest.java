@@ -0,0 +1,121 @@
+package com.ecommerce.backend.notification;
+
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO;
+import com.ecommerce.backend.dto.BatchTopicSubscriptionResponseDTO.TokenErrorDTO;
+import com.ecommerce.backend.notification.transport.PushErrorCode;
+import com.ecommerce.backend.notification.transport.PushTransport;
+import com.ecommerce.backend.notification.transport.PushTransportException;
+import com.ecommerce.backend.notification.transport.TopicManagementResult;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch topic management against a mocked transport, with chunks of 2 tokens and a 1 second
+ * timeout: per-token errors map back to their token and topic, and every pair without an answer
+ * by the deadline is reported as TIMEOUT.
+ */
+class TopicSubscriptionManagerTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private final PushTransport transport = mock(PushTransport.class);
+    // Calls that are left unanswered, by topic
+    private final Map<String, SettableApiFuture<TopicManagementResult>> pending = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void answerEveryCall() {
+        when(transport.subscribeToTopic(anyList(), anyString())).thenAnswer(invocation -> {
+            List<String> tokens = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(new TopicManagementResult(tokens.size(), List.of()));
+        });
+    }
+
+    @Test
+    void chunksTokensAndMapsErrorsBack() throws Exception {
+        when(transport.subscribeToTopic(List.of("t2"), "news")).thenReturn(ApiFutures.immediateFuture(
+                new TopicManagementResult(0, List.of(new TopicManagementResult.TokenError(0, "INVALID_ARGUMENT")))));
+
+        BatchTopicSubscriptionResponseDTO response = manager(4, 30)
+                .subscribe(List.of("t0", "t1", "t2", "t1"), List.of("news", "offers"));
+
+        // 3 unique tokens in chunks of 2, for each of 2 topics
+        assertThat(response.getTokenCount()).isEqualTo(3);
+        assertThat(response.getTopicCount()).isEqualTo(2);
+        assertThat(response.getFcmCalls()).isEqualTo(4);
+        assertThat(response.getSuccessCount()).isEqualTo(5);
+        assertThat(response.getErrors()).containsExactly(new TokenErrorDTO("news", "t2", "INVALID_ARGUMENT"));
+    }
+
+    @Test
+    void failedCallsReportTheirErrorCode() throws Exception {
+        when(transport.subscribeToTopic(anyList(), eq("news"))).thenReturn(ApiFutures.immediateFailedFuture(
+                new PushTransportException(PushErrorCode.QUOTA_EXCEEDED, "slow down")));
+
+        BatchTopicSubscriptionResponseDTO response = manager(4, 30).subscribe(List.of("t0", "t1"), List.of("news"));
+
+        assertThat(response.getSuccessCount()).isZero();
+        assertThat(response.getErrors()).containsExactlyInAnyOrder(
+                new TokenErrorDTO("news", "t0", "QUOTA_EXCEEDED"),
+                new TokenErrorDTO("news", "t1", "QUOTA_EXCEEDED"));
+    }
+
+    @Test
+    void unansweredCallsAreReportedAsTimeout() throws Exception {
+        leaveUnanswered("slow");
+
+        BatchTopicSubscriptionResponseDTO response = manager(4, 1)
+                .subscribe(List.of("t0", "t1", "t2"), List.of("fast", "slow"));
+
+        assertThat(response.getSuccessCount()).isEqualTo(3);
+        assertThat(response.getErrors()).containsExactlyInAnyOrder(
+                new TokenErrorDTO("slow", "t0", TopicSubscriptionManager.TIMEOUT_REASON),
+                new TokenErrorDTO("slow", "t1", TopicSubscriptionManager.TIMEOUT_REASON),
+                new TokenErrorDTO("slow", "t2", TopicSubscriptionManager.TIMEOUT_REASON));
+        assertThat(response.getFailureCount()).isEqualTo(3);
+
+        // A late answer changes nothing that was reported
+        pending.get("slow").set(new TopicManagementResult(2, List.of()));
+        assertThat(response.getSuccessCount()).isEqualTo(3);
+        assertThat(response.getErrors()).hasSize(3);
+    }
+
+    @Test
+    void callsNeverIssuedForLackOfPermitsAreReportedAsTimeout() throws Exception {
+        leaveUnanswered("slow");
+
+        // One permit, held by the unanswered call: the second topic's call is never made
+        BatchTopicSubscriptionResponseDTO response = manager(1, 1).subscribe(List.of("t0"), List.of("slow", "later"));
+
+        verify(transport, times(1)).subscribeToTopic(anyList(), anyString());
+        assertThat(response.getFcmCalls()).isEqualTo(2);
+        assertThat(response.getSuccessCount()).isZero();
+        assertThat(response.getErrors()).containsExactlyInAnyOrder(
+                new TokenErrorDTO("slow", "t0", TopicSubscriptionManager.TIMEOUT_REASON),
+                new TokenErrorDTO("later", "t0", TopicSubscriptionManager.TIMEOUT_REASON));
+    }
+
+    private TopicSubscriptionManager manager(int maxConcurrentCalls, long timeoutSeconds) {
+        return new TopicSubscriptionManager(transport, CHUNK_SIZE, maxConcurrentCalls, timeoutSeconds);
+    }
+
+    private void leaveUnanswered(String topic) {
+        SettableApiFuture<TopicManagementResult> future = SettableApiFuture.create();
+        pending.put(topic, future);
+        when(transport.subscribeToTopic(anyList(), eq(topic))).thenReturn(future);
+    }
+}
@@ -0,0 +1,300 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.inventory.HotStockLedger;
+import com.ecommerce.backend.inventory.InsufficientStockException;
+import com.ecommerce.backend.inventory.InventoryStore;
+import com.ecommerce.backend.inventory.ReservationExpiryJob;
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.model.StockReservation;
+import com.ecommerce.backend.model.StockReservationStatus;
+import com.ecommerce.backend.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reservations of a hot (ledger) and a regular product against in-memory product and reservation
+ * tables with rollback: concurrent carts never take more than the stock, and released or expired
+ * reservations give all of it back.
+ */
+class InventoryServiceTest {
+
+    private static final Long HOT_PRODUCT = 1L;
+    private static final Long PRODUCT = 2L;
+    private static final int HOT_STOCK = 500;
+    private static final int STOCK = 300;
+    private static final int THREADS = 16;
+
+    // product.stock_quantity
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    // stock_reservation
+    private final List<StockReservation> reservations = new ArrayList<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    // Undo actions of the running transaction
+    private final ThreadLocal<List<Runnable>> undoLog = new ThreadLocal<>();
+
+    private HotStockLedger hotStockLedger;
+    private InventoryService inventoryService;
+    private ReservationExpiryJob expiryJob;
+
+    @BeforeEach
+    void createService() {
+        stock.put(HOT_PRODUCT, new AtomicInteger(HOT_STOCK));
+        stock.put(PRODUCT, new AtomicInteger(STOCK));
+        InventoryStore inventoryStore = inventoryStore();
+        StockReservationRepository reservationRepository = reservationRepository();
+        TransactionTemplate transactionTemplate = transactionTemplate();
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        hotStockLedger = new HotStockLedger(inventoryStore, transactionManager, new SimpleMeterRegistry(),
+                true, Set.of(HOT_PRODUCT), 8, 50);
+        inventoryService = new InventoryService(reservationRepository, inventoryStore, hotStockLedger,
+                transactionTemplate, new SimpleMeterRegistry(), 900, 86_400);
+        expiryJob = new ReservationExpiryJob(reservationRepository, inventoryService, transactionTemplate, 100);
+    }
+
+    @Test
+    void concurrentCartsNeverOversell() throws Exception {
+        AtomicInteger placed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (true) {
+                        try {
+                            inventoryService.reserve(
+                                    List.of(new ReservationLine(HOT_PRODUCT, 1), new ReservationLine(PRODUCT, 1)), null);
+                            placed.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            return null;
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        hotStockLedger.flush();
+
+        // The regular product runs out first; the hot units taken for failed carts went back
+        assertThat(placed.get()).isEqualTo(STOCK);
+        assertThat(stock.get(PRODUCT).get()).isZero();
+        assertThat(stock.get(HOT_PRODUCT).get()).isEqualTo(HOT_STOCK - STOCK);
+        assertThat(reservations).hasSize(2 * STOCK);
+    }
+
+    @Test
+    void failedCartsTakeNothing() {
+        assertThatThrownBy(() -> inventoryService.reserve(
+                List.of(new ReservationLine(HOT_PRODUCT, 10), new ReservationLine(PRODUCT, STOCK + 1)), null))
+                .isInstanceOf(InsufficientStockException.class);
+        hotStockLedger.flush();
+
+        assertThat(stock.get(HOT_PRODUCT).get()).isEqualTo(HOT_STOCK);
+        assertThat(stock.get(PRODUCT).get()).isEqualTo(STOCK);
+        assertThat(reservations).isEmpty();
+    }
+
+    @Test
+    void releaseGivesTheStockBack() {
+        String reservationId = reserveBoth(Duration.ofMinutes(5));
+
+        assertThat(inventoryService.release(reservationId)).isTrue();
+        assertThat(inventoryService.release(reservationId)).isFalse();
+        hotStockLedger.flush();
+
+        assertThat(stock.get(HOT_PRODUCT).get()).isEqualTo(HOT_STOCK);
+        assertThat(stock.get(PRODUCT).get()).isEqualTo(STOCK);
+        assertThat(reservations).extracting(StockReservation::getStatus).containsOnly(StockReservationStatus.RELEASED);
+    }
+
+    @Test
+    void expiredReservationsGiveTheStockBackAndCannotBeCommitted() throws Exception {
+        String reservationId = reserveBoth(Duration.ofMillis(1));
+        Thread.sleep(10);
+
+        expiryJob.expireReservations();
+        hotStockLedger.flush();
+
+        assertThat(stock.get(HOT_PRODUCT).get()).isEqualTo(HOT_STOCK);
+        assertThat(stock.get(PRODUCT).get()).isEqualTo(STOCK);
+        assertThat(reservations).extracting(StockReservation::getStatus).containsOnly(StockReservationStatus.EXPIRED);
+        assertThat(inventoryService.commit(reservationId)).isFalse();
+    }
+
+    @Test
+    void committedReservationsKeepTheStock() {
+        String reservationId = reserveBoth(Duration.ofMinutes(5));
+
+        assertThat(inventoryService.commit(reservationId)).isTrue();
+        expiryJob.expireReservations();
+        assertThat(inventoryService.release(reservationId)).isFalse();
+        hotStockLedger.flush();
+
+        assertThat(stock.get(HOT_PRODUCT).get()).isEqualTo(HOT_STOCK - 5);
+        assertThat(stock.get(PRODUCT).get()).isEqualTo(STOCK - 5);
+        assertThat(reservations).extracting(StockReservation::getStatus).containsOnly(StockReservationStatus.COMMITTED);
+    }
+
+    private String reserveBoth(Duration ttl) {
+        return inventoryService.reserve(List.of(new ReservationLine(HOT_PRODUCT, 5), new ReservationLine(PRODUCT, 5)), ttl)
+                .get(0).getReservationId();
+    }
+
+    private InventoryStore inventoryStore() {
+        InventoryStore inventoryStore = mock(InventoryStore.class);
+        // Same semantics as DECREMENT_SQL: a line that would go below zero matches no row
+        doAnswer(invocation -> {
+            for (ReservationLine line : invocation.<List<ReservationLine>>getArgument(0)) {
+                if (!tryDecrement(line.productId(), line.quantity())) {
+                    throw new InsufficientStockException(line.productId(), line.quantity());
+                }
+                undoLog.get().add(() -> stock.get(line.productId()).addAndGet(line.quantity()));
+            }
+            return null;
+        }).when(inventoryStore).decrementAll(anyList());
+        doAnswer(invocation -> {
+            Long productId = invocation.getArgument(0);
+            int quantity = invocation.getArgument(1);
+            stock.get(productId).addAndGet(quantity);
+            List<Runnable> undo = undoLog.get();
+            if (undo != null) {
+                undo.add(() -> stock.get(productId).addAndGet(-quantity));
+            }
+            return null;
+        }).when(inventoryStore).increment(anyLong(), anyInt());
+        // Same semantics as LEASE_SQL: as much as there is, up to the requested amount
+        when(inventoryStore.lease(anyLong(), anyInt())).thenAnswer(invocation -> {
+            AtomicInteger current = stock.get(invocation.<Long>getArgument(0));
+            int max = invocation.getArgument(1);
+            while (true) {
+                int available = current.get();
+                int leased = Math.min(max, available);
+                if (current.compareAndSet(available, available - leased)) {
+                    return leased;
+                }
+            }
+        });
+        return inventoryStore;
+    }
+
+    private boolean tryDecrement(Long productId, int quantity) {
+        AtomicInteger current = stock.get(productId);
+        while (true) {
+            int available = current.get();
+            if (available < quantity) {
+                return false;
+            }
+            if (current.compareAndSet(available, available - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private StockReservationRepository reservationRepository() {
+        StockReservationRepository repository = mock(StockReservationRepository.class);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<StockReservation> lines = invocation.getArgument(0);
+            synchronized (reservations) {
+                for (StockReservation line : lines) {
+                    line.setId(reservationIds.incrementAndGet());
+                    reservations.add(line);
+                }
+            }
+            undoLog.get().add(() -> {
+                synchronized (reservations) {
+                    reservations.removeAll(lines);
+                }
+            });
+            return lines;
+        });
+        when(repository.lockActive(anyString())).thenAnswer(invocation -> select(line ->
+                line.getReservationId().equals(invocation.getArgument(0)) && line.getStatus() == StockReservationStatus.ACTIVE));
+        when(repository.findByReservationIdOrderByProductId(anyString())).thenAnswer(invocation -> select(line ->
+                line.getReservationId().equals(invocation.getArgument(0))));
+        when(repository.lockExpired(any(Instant.class), anyInt())).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return select(line -> line.getStatus() == StockReservationStatus.ACTIVE && line.getExpiresAt().isBefore(now))
+                    .stream().limit(limit).toList();
+        });
+        return repository;
+    }
+
+    private List<StockReservation> select(Predicate<StockReservation> filter) {
+        synchronized (reservations) {
+            return reservations.stream().filter(filter).toList();
+        }
+    }
+
+    /**
+     * Runs the callback with transaction synchronization; an exception undoes its stock and
+     * reservation changes, a commit runs the afterCommit callbacks.
+     */
+    private TransactionTemplate transactionTemplate() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            List<Runnable> undo = new ArrayList<>();
+            undoLog.set(undo);
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                Object result;
+                try {
+                    result = callback.doInTransaction(new SimpleTransactionStatus());
+                } catch (RuntimeException e) {
+                    undo.forEach(Runnable::run);
+                    throw e;
+                }
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+                return result;
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+                undoLog.remove();
+            }
+        });
+        return transactionTemplate;
+    }
+}
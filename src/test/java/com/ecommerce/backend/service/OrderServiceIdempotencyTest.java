@@ -0,0 +1,169 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.inventory.ReservationLine;
+import com.ecommerce.backend.model.CustomerOrder;
+import com.ecommerce.backend.order.CheckoutResult;
+import com.ecommerce.backend.order.IdempotencyKeyReuseException;
+import com.ecommerce.backend.repository.CustomerOrderRepository;
+import com.ecommerce.backend.repository.ProductPrice;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout idempotency against an in-memory orders table: a retry with the same key and lines
+ * replays the first order without taking stock again, the same key with other lines is rejected,
+ * and the loser of a concurrent insert replays the winner's order.
+ */
+class OrderServiceIdempotencyTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String USERNAME = "alice";
+
+    // The orders table, by idempotency key (all orders belong to USER_ID)
+    private final Map<String, CustomerOrder> orders = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    private final AtomicInteger stockTakes = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CustomerOrderRepository customerOrderRepository;
+    private OrderService orderService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createService() {
+        customerOrderRepository = mock(CustomerOrderRepository.class);
+        when(customerOrderRepository.findByUserIdAndIdempotencyKey(eq(USER_ID), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(orders.get(invocation.<String>getArgument(1))));
+        when(customerOrderRepository.saveAndFlush(any(CustomerOrder.class))).thenAnswer(invocation -> {
+            CustomerOrder order = invocation.getArgument(0);
+            // Same as uk_orders_user_id_idempotency_key
+            if (orders.putIfAbsent(order.getIdempotencyKey(), order) != null) {
+                throw new DataIntegrityViolationException("uk_orders_user_id_idempotency_key");
+            }
+            order.setId(orderIds.incrementAndGet());
+            return order;
+        });
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByUsername(USERNAME)).thenReturn(Optional.of(USER_ID));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findPrices(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0)
+                .stream()
+                .map(id -> price(id, 100))
+                .toList());
+
+        InventoryService inventoryService = mock(InventoryService.class);
+        when(inventoryService.withStockTaken(anyCollection(), any())).thenAnswer(invocation -> {
+            stockTakes.incrementAndGet();
+            Function<List<ReservationLine>, Object> work = invocation.getArgument(1);
+            return work.apply(List.copyOf(invocation.<Collection<ReservationLine>>getArgument(0)));
+        });
+
+        orderService = new OrderService(customerOrderRepository, userRepository, productRepository,
+                inventoryService, meterRegistry);
+    }
+
+    @Test
+    void retryWithSameKeyReplaysTheFirstOrder() {
+        CheckoutResult first = orderService.checkout(USERNAME, "key-1",
+                List.of(new ReservationLine(1L, 2), new ReservationLine(2L, 1)));
+        // Same cart, other line order and one product split over two lines
+        CheckoutResult retry = orderService.checkout(USERNAME, "key-1",
+                List.of(new ReservationLine(2L, 1), new ReservationLine(1L, 1), new ReservationLine(1L, 1)));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.order()).isSameAs(first.order());
+        assertThat(first.order().getTotalAmount()).isEqualTo(300);
+        assertThat(stockTakes.get()).isEqualTo(1);
+        assertThat(outcomeCount("placed")).isEqualTo(1);
+        assertThat(outcomeCount("replayed")).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyWithOtherLinesIsRejected() {
+        CheckoutResult first = orderService.checkout(USERNAME, "key-1", List.of(new ReservationLine(1L, 2)));
+
+        assertThatThrownBy(() -> orderService.checkout(USERNAME, "key-1", List.of(new ReservationLine(1L, 3))))
+                .isInstanceOf(IdempotencyKeyReuseException.class)
+                .extracting(e -> ((IdempotencyKeyReuseException) e).getIdempotencyKey())
+                .isEqualTo("key-1");
+
+        assertThat(stockTakes.get()).isEqualTo(1);
+        assertThat(orders.get("key-1")).isSameAs(first.order());
+        assertThat(outcomeCount("key_reused")).isEqualTo(1);
+    }
+
+    @Test
+    void otherKeysPlaceNewOrders() {
+        CheckoutResult first = orderService.checkout(USERNAME, "key-1", List.of(new ReservationLine(1L, 1)));
+        CheckoutResult second = orderService.checkout(USERNAME, "key-2", List.of(new ReservationLine(1L, 1)));
+
+        assertThat(second.replayed()).isFalse();
+        assertThat(second.order().getId()).isNotEqualTo(first.order().getId());
+        assertThat(stockTakes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loserOfAConcurrentInsertReplaysTheWinner() {
+        // The winner commits between the loser's lookup and its insert
+        CustomerOrder winner = new CustomerOrder();
+        winner.setId(99L);
+        winner.setUserId(USER_ID);
+        winner.setIdempotencyKey("key-1");
+        winner.setRequestHash(OrderService.requestHash(List.of(new ReservationLine(1L, 1))));
+        when(customerOrderRepository.findByUserIdAndIdempotencyKey(USER_ID, "key-1"))
+                .thenAnswer(invocation -> {
+                    Optional<CustomerOrder> seen = Optional.ofNullable(orders.get("key-1"));
+                    orders.putIfAbsent("key-1", winner);
+                    return seen;
+                });
+
+        CheckoutResult result = orderService.checkout(USERNAME, "key-1", List.of(new ReservationLine(1L, 1)));
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.order()).isSameAs(winner);
+        assertThat(outcomeCount("placed")).isZero();
+    }
+
+    private double outcomeCount(String outcome) {
+        var counter = meterRegistry.find("orders.checkouts").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static ProductPrice price(Long id, int price) {
+        return new ProductPrice() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getPrice() {
+                return price;
+            }
+        };
+    }
+}
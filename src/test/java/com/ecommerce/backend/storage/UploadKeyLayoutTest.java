@@ -0,0 +1,78 @@
+package com.ecommerce.backend.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Key derivation of both layouts: sharded keys must depend only on the file name, so a flat key
+ * maps to the same location a new upload of that file would get.
+ */
+class UploadKeyLayoutTest {
+
+    private final UploadKeyLayout sharded = new UploadKeyLayout("sharded");
+    private final UploadKeyLayout flat = new UploadKeyLayout("flat");
+
+    @Test
+    void shardedKeysNestUnderTheFileNameHash() throws Exception {
+        String filename = "product_12_3b0e6a52.jpg";
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(filename.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(sharded.keyFor("product", filename))
+                .isEqualTo("product/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + filename);
+    }
+
+    @Test
+    void shardedKeysAreStable() {
+        assertThat(sharded.keyFor("user", "avatar_1.png")).isEqualTo(sharded.keyFor("user", "avatar_1.png"));
+        assertThat(new UploadKeyLayout("SHARDED").keyFor("user", "avatar_1.png"))
+                .isEqualTo(sharded.keyFor("user", "avatar_1.png"));
+    }
+
+    @Test
+    void shardsSpreadFiles() {
+        Set<String> prefixes = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            String key = sharded.keyFor("product", "product_" + i + ".jpg");
+            prefixes.add(key.substring(0, key.lastIndexOf('/')));
+        }
+        // 1000 files over 65536 possible directories: nearly all of them land in their own
+        assertThat(prefixes).hasSizeGreaterThan(950);
+    }
+
+    @Test
+    void flatLayoutKeepsTheHistoricalKeys() {
+        assertThat(flat.isSharded()).isFalse();
+        assertThat(flat.keyFor("product", "product_12.jpg")).isEqualTo("product/product_12.jpg");
+    }
+
+    @Test
+    void flatKeysMapToTheirShardedLocation() {
+        String flatKey = flat.keyFor("product", "product_12.jpg");
+
+        assertThat(sharded.isFlat(flatKey)).isTrue();
+        assertThat(sharded.toShardedKey(flatKey)).isEqualTo(sharded.keyFor("product", "product_12.jpg"));
+        assertThat(sharded.isFlat(sharded.toShardedKey(flatKey))).isFalse();
+    }
+
+    @Test
+    void recognisesFlatKeys() {
+        assertThat(sharded.isFlat("product/file.jpg")).isTrue();
+        assertThat(sharded.isFlat("product/ab/cd/file.jpg")).isFalse();
+        assertThat(sharded.isFlat("file.jpg")).isFalse();
+        assertThat(sharded.isFlat("/file.jpg")).isFalse();
+    }
+
+    @Test
+    void filenameIsTheLastSegment() {
+        assertThat(sharded.filenameOf("product/ab/cd/file.jpg")).isEqualTo("file.jpg");
+        assertThat(sharded.filenameOf("product/file.jpg")).isEqualTo("file.jpg");
+    }
+}